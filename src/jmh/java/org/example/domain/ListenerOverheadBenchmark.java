@@ -0,0 +1,107 @@
+package org.example.domain;
+
+import org.example.infra.CheckpointWriter;
+import org.example.infra.EventJournalWriter;
+import org.example.infra.RunMetrics;
+import org.example.infra.WorldGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a turn depending on what listens to the simulation, to compare with <code>none</code>. The checkpoint writer
+ * never checkpoints here: it only costs its check at the end of each turn, as between two checkpoints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerOverheadBenchmark {
+    @Param({"none", "journal", "metrics+journal", "checkpoint+journal"})
+    String listener;
+    @Param({"1000"})
+    int playersCount;
+
+    private WorldGenerator world;
+    private Path directory;
+    private Simulation simulation;
+    private SimulationListener simulationListener;
+    private AutoCloseable[] closeableListeners;
+
+    @Setup(Level.Trial)
+    public void generateWorld() throws Exception {
+        world = new WorldGenerator(new WorldGenerator.Parameters(1000, 1000,
+                0.05, 0.05, playersCount, 10_000, 10_000, WorldGenerator.Layout.OPEN_FIELD, 42));
+        directory = Files.createTempDirectory("treasure-hunting-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void buildSimulation() throws Exception {
+        simulation = world.generate().build();
+        switch (listener) {
+            case "none" -> {
+                simulationListener = SimulationListener.NONE;
+                closeableListeners = new AutoCloseable[0];
+            }
+            case "journal" -> {
+                EventJournalWriter journal = journal();
+                simulationListener = journal;
+                closeableListeners = new AutoCloseable[]{journal};
+            }
+            case "metrics+journal" -> {
+                EventJournalWriter journal = journal();
+                simulationListener = SimulationListener.of(new RunMetrics(), journal);
+                closeableListeners = new AutoCloseable[]{journal};
+            }
+            case "checkpoint+journal" -> {
+                CheckpointWriter checkpoints = new CheckpointWriter(directory.resolve("simulation.checkpoint"),
+                        0,
+                        Long.MAX_VALUE,
+                        Duration.ofDays(1));
+                EventJournalWriter journal = journal();
+                simulationListener = SimulationListener.of(checkpoints, journal);
+                closeableListeners = new AutoCloseable[]{checkpoints, journal};
+            }
+            default -> throw new IllegalArgumentException("Unknown listener " + listener);
+        }
+        simulation.setListener(simulationListener);
+    }
+
+    private EventJournalWriter journal() throws Exception {
+        return new EventJournalWriter(directory.resolve("simulation.journal"), simulation);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeListener() throws Exception {
+        for (AutoCloseable closeableListener : closeableListeners) {
+            closeableListener.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws Exception {
+        Files.deleteIfExists(directory.resolve("simulation.journal"));
+        Files.deleteIfExists(directory.resolve("simulation.checkpoint"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * A turn as played by <code>Simulation.run()</code>. A simulation is generated again once done, along with its
+     * listener.
+     */
+    @Benchmark
+    public Simulation playTurn() throws Exception {
+        if (!simulation.areCommandsRemaining()) {
+            closeListener();
+            buildSimulation();
+        }
+        simulation.playTurn();
+        simulationListener.turnPlayed(simulation);
+        return simulation;
+    }
+}
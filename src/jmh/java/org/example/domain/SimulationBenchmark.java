@@ -0,0 +1,93 @@
+package org.example.domain;
+
+import org.example.infra.WorldGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation hot paths, on worlds sweeping the map size, the mountain density, the players count and the script length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+    @Param({"100", "1000"})
+    int mapSize;
+    @Param({"0.05", "0.3"})
+    double mountainDensity;
+    @Param({"10", "1000"})
+    int playersCount;
+    @Param({"100", "10000"})
+    int scriptLength;
+
+    private WorldGenerator world;
+    private Simulation simulation;
+
+    @Setup(Level.Trial)
+    public void generateWorld() {
+        world = new WorldGenerator(new WorldGenerator.Parameters(mapSize, mapSize,
+                mountainDensity, 0.05, playersCount, scriptLength, scriptLength, WorldGenerator.Layout.OPEN_FIELD, 42));
+    }
+
+    @Setup(Level.Iteration)
+    public void buildSimulation() {
+        simulation = world.generate().build();
+    }
+
+    @Benchmark
+    public Simulation playTurn(PlayingSimulation playing) {
+        playing.simulation.playTurn();
+        return playing.simulation;
+    }
+
+    @Benchmark
+    public Simulation run(FreshSimulation fresh) {
+        fresh.simulation.run();
+        return fresh.simulation;
+    }
+
+    @Benchmark
+    public Simulation runOffHeap(FreshSimulation fresh) {
+        new OffHeapSimulationEngine(fresh.simulation).run();
+        return fresh.simulation;
+    }
+
+    @Benchmark
+    public Simulation validate() {
+        new SimulationValidator(simulation).validate();
+        return simulation;
+    }
+
+    /**
+     * Generated again, outside of the measured turn, once done, which happens every <code>scriptLength</code> turns.
+     * Invocation-level setups get each turn timed on its own, which adds a few tens of nanoseconds to its score.
+     */
+    @State(Scope.Thread)
+    public static class PlayingSimulation {
+        Simulation simulation;
+
+        @Setup(Level.Invocation)
+        public void buildIfDone(SimulationBenchmark benchmark) {
+            if (simulation == null || !simulation.areCommandsRemaining()) {
+                simulation = benchmark.world.generate().build();
+            }
+        }
+    }
+
+    /**
+     * Built before each invocation, as running it consumes it.
+     */
+    @State(Scope.Thread)
+    public static class FreshSimulation {
+        Simulation simulation;
+
+        @Setup(Level.Invocation)
+        public void build(SimulationBenchmark benchmark) {
+            simulation = benchmark.world.generate().build();
+        }
+    }
+}
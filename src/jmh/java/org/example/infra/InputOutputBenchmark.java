@@ -0,0 +1,71 @@
+package org.example.infra;
+
+import org.example.domain.Simulation;
+import org.example.domain.SimulationBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading input files and writing results, on worlds sweeping the map size, the mountain density, the players count and
+ * the script length. Results are those of the initial state, whose size is the same as once run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputOutputBenchmark {
+    @Param({"100", "1000"})
+    int mapSize;
+    @Param({"0.05", "0.3"})
+    double mountainDensity;
+    @Param({"10", "1000"})
+    int playersCount;
+    @Param({"100", "10000"})
+    int scriptLength;
+
+    private Path directory;
+    private Path input;
+    private String output;
+    private Simulation simulation;
+    private final SimulationFormatter formatter = new SimulationFormatter();
+    private final OutputWriter.Options outputOptions = new OutputWriter.Options(OutputWriter.Echo.NONE, false);
+
+    @Setup(Level.Trial)
+    public void writeInput() throws IOException {
+        WorldGenerator generator = new WorldGenerator(new WorldGenerator.Parameters(mapSize, mapSize,
+                mountainDensity, 0.05, playersCount, scriptLength, scriptLength, WorldGenerator.Layout.OPEN_FIELD, 42));
+        directory = Files.createTempDirectory("treasure-hunting-benchmark");
+        input = directory.resolve("input.txt");
+        output = directory.resolve("output.txt").toString();
+        generator.writeInput(input);
+        simulation = generator.generate().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(Path.of(output));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public SimulationBuilder readFile() {
+        return InputReader.readFile(input.toString());
+    }
+
+    @Benchmark
+    public String formatSimulation() {
+        return formatter.formatSimulation(simulation);
+    }
+
+    @Benchmark
+    public void writeToFile() {
+        OutputWriter.writeToFile(simulation, output, outputOptions);
+    }
+}
@@ -0,0 +1,216 @@
+package org.example;
+
+import lombok.SneakyThrows;
+import org.example.domain.Simulation;
+import org.example.domain.SimulationBuilder;
+import org.example.infra.InputReader;
+import org.example.infra.OutputWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Runs the simulations of many input files within a single JVM, each output file being named after its input file in
+ * the output directory.
+ * <p>
+ * Every file is handled by its own virtual thread, while reading, building, running and writing a simulation, whose
+ * results are streamed to the output file, is bounded to a number of concurrent simulations, usually the number of
+ * cores. Reading is bounded as well, so that only the simulations being run are held in the heap, however many inputs
+ * there are. A failing file does not stop the others, and is reported in the summary.
+ * <p>
+ * Results are only echoed in full with a single simulation at a time, as concurrent ones would interleave them on the
+ * standard output.
+ */
+public class BatchRunner {
+    /**
+     * A summary line per file, whole lines being printed at once whatever the simulations running concurrently.
+     */
+    public static final OutputWriter.Options DEFAULT_OUTPUT_OPTIONS =
+            new OutputWriter.Options(OutputWriter.Echo.SUMMARY, false);
+
+    private final int maxConcurrentSimulations;
+    private final OutputWriter.Options outputOptions;
+    private final FileSimulation fileSimulation;
+
+    public BatchRunner(int maxConcurrentSimulations) {
+        this(maxConcurrentSimulations, DEFAULT_OUTPUT_OPTIONS);
+    }
+
+    /**
+     * @param outputOptions compressed output files get the <code>.gz</code> extension appended to their name
+     * @throws IllegalArgumentException if results are echoed in full while several simulations run concurrently
+     */
+    public BatchRunner(int maxConcurrentSimulations, OutputWriter.Options outputOptions) {
+        this(maxConcurrentSimulations, outputOptions,
+                (inputFile, outputFile) -> simulate(inputFile, outputFile, outputOptions));
+    }
+
+    BatchRunner(int maxConcurrentSimulations, OutputWriter.Options outputOptions, FileSimulation fileSimulation) {
+        if (maxConcurrentSimulations <= 0) {
+            throw new IllegalArgumentException("Max concurrent simulations must be greater than zero but was %d"
+                    .formatted(maxConcurrentSimulations));
+        }
+        if (outputOptions.echo() == OutputWriter.Echo.FULL && maxConcurrentSimulations > 1) {
+            throw new IllegalArgumentException(
+                    "Results cannot be echoed in full with %d concurrent simulations, as they would be interleaved"
+                            .formatted(maxConcurrentSimulations));
+        }
+        this.maxConcurrentSimulations = maxConcurrentSimulations;
+        this.outputOptions = outputOptions;
+        this.fileSimulation = fileSimulation;
+    }
+
+    /**
+     * @param inputs either a directory, whose regular files are all simulated, or a list file holding one input path
+     *               per line, blank lines and lines starting with '#' being ignored
+     */
+    @SneakyThrows
+    public static List<Path> listInputs(Path inputs) {
+        if (Files.isDirectory(inputs)) {
+            try (Stream<Path> files = Files.list(inputs)) {
+                return files.filter(Files::isRegularFile).sorted().toList();
+            }
+        }
+        try (Stream<String> lines = Files.lines(inputs, StandardCharsets.UTF_8)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(Path::of)
+                    .toList();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException before anything is run if two inputs would be written to the same output file,
+     *                                  or an output file would replace an input file
+     */
+    @SneakyThrows
+    public Summary run(List<Path> inputFiles, Path outputDirectory) {
+        checkOutputs(inputFiles, outputDirectory);
+        Files.createDirectories(outputDirectory);
+        Semaphore simulationSlots = new Semaphore(maxConcurrentSimulations);
+        List<Future<FileResult>> futures = new ArrayList<>(inputFiles.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path inputFile : inputFiles) {
+                Path outputFile = outputFile(inputFile, outputDirectory);
+                futures.add(executor.submit(() -> runSimulation(inputFile, outputFile, simulationSlots)));
+            }
+        }
+        List<FileResult> results = new ArrayList<>(futures.size());
+        for (Future<FileResult> future : futures) {
+            results.add(future.resultNow());
+        }
+        return new Summary(results);
+    }
+
+    /**
+     * @throws IllegalArgumentException if two inputs would be written to the same output file, or an output file would
+     *                                  replace an input file
+     */
+    void checkOutputs(List<Path> inputFiles, Path outputDirectory) {
+        Set<Path> inputs = new HashSet<>();
+        for (Path inputFile : inputFiles) {
+            inputs.add(inputFile.toAbsolutePath().normalize());
+        }
+        Map<Path, Path> inputsByOutput = new HashMap<>();
+        for (Path inputFile : inputFiles) {
+            Path outputFile = outputFile(inputFile, outputDirectory).toAbsolutePath().normalize();
+            if (inputs.contains(outputFile)) {
+                throw new IllegalArgumentException("Output file %s would replace an input file".formatted(outputFile));
+            }
+            Path previousInput = inputsByOutput.putIfAbsent(outputFile, inputFile);
+            if (previousInput != null) {
+                throw new IllegalArgumentException("Inputs %s and %s would both be written to %s"
+                        .formatted(previousInput, inputFile, outputFile));
+            }
+        }
+    }
+
+    private Path outputFile(Path inputFile, Path outputDirectory) {
+        return outputDirectory.resolve(inputFile.getFileName() + (outputOptions.gzip() ? ".gz" : ""));
+    }
+
+    private FileResult runSimulation(Path inputFile, Path outputFile, Semaphore simulationSlots) {
+        long start = System.nanoTime();
+        try {
+            simulationSlots.acquire();
+            try {
+                fileSimulation.run(inputFile, outputFile);
+            } finally {
+                simulationSlots.release();
+            }
+            return FileResult.success(inputFile, outputFile, Duration.ofNanos(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FileResult.failure(inputFile, outputFile, Duration.ofNanos(System.nanoTime() - start), e);
+        } catch (Throwable e) {
+            // errors as well, such as running out of memory on a huge input, so that every file gets its result
+            return FileResult.failure(inputFile, outputFile, Duration.ofNanos(System.nanoTime() - start), e);
+        }
+    }
+
+    private static void simulate(Path inputFile, Path outputFile, OutputWriter.Options outputOptions) {
+        SimulationBuilder simulationBuilder = InputReader.readFile(inputFile.toString());
+        Simulation simulation = simulationBuilder.build();
+        simulation.run();
+        OutputWriter.writeToFile(simulation, outputFile.toString(), outputOptions);
+    }
+
+    /**
+     * Reads, runs and writes the simulation of a single file.
+     */
+    @FunctionalInterface
+    interface FileSimulation {
+        void run(Path inputFile, Path outputFile) throws Exception;
+    }
+
+    public record Summary(List<FileResult> results) {
+        public long successCount() {
+            return results.stream().filter(FileResult::success).count();
+        }
+
+        public long failureCount() {
+            return results.size() - successCount();
+        }
+
+        public String format() {
+            StringBuilder stringBuilder = new StringBuilder();
+            for (FileResult result : results) {
+                stringBuilder.append(result.format()).append(System.lineSeparator());
+            }
+            stringBuilder.append("%d simulation(s), %d succeeded, %d failed"
+                    .formatted(results.size(), successCount(), failureCount()));
+            return stringBuilder.toString();
+        }
+    }
+
+    public record FileResult(Path input, Path output, boolean success, Duration duration, String error) {
+        static FileResult success(Path input, Path output, Duration duration) {
+            return new FileResult(input, output, true, duration, null);
+        }
+
+        static FileResult failure(Path input, Path output, Duration duration, Throwable exception) {
+            String error = exception.getClass().getSimpleName() + ": " + exception.getMessage();
+            return new FileResult(input, output, false, duration, error);
+        }
+
+        String format() {
+            if (success) {
+                return "OK     %s -> %s (%d ms)".formatted(input, output, duration.toMillis());
+            }
+            return "FAILED %s (%d ms): %s".formatted(input, duration.toMillis(), error);
+        }
+    }
+}
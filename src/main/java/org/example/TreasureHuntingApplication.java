@@ -1,26 +1,315 @@
 package org.example;
 
+import lombok.SneakyThrows;
+import lombok.With;
+import org.example.domain.ArraySimulationEngine;
+import org.example.domain.OffHeapSimulationEngine;
+import org.example.domain.ParallelSimulationEngine;
 import org.example.domain.Simulation;
 import org.example.domain.SimulationBuilder;
+import org.example.domain.SimulationListener;
+import org.example.domain.SimultaneousSimulationEngine;
+import org.example.infra.CheckpointFile;
+import org.example.infra.CheckpointWriter;
+import org.example.infra.EventJournalWriter;
 import org.example.infra.InputReader;
 import org.example.infra.OutputWriter;
-import org.example.infra.SimulationFormatter;
+import org.example.infra.RunMetrics;
+import org.example.infra.TurnEventSampler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 public class TreasureHuntingApplication {
+    static final String BATCH_OPTION = "--batch";
+    static final String ECHO_OPTION = "--echo=";
+    static final String GZIP_OPTION = "--gzip";
+    static final String CHECKPOINT_OPTION = "--checkpoint=";
+    static final String CHECKPOINT_TURNS_OPTION = "--checkpoint-turns=";
+    static final String CHECKPOINT_SECONDS_OPTION = "--checkpoint-seconds=";
+    static final String RESUME_OPTION = "--resume";
+    static final String METRICS_OPTION = "--metrics";
+    static final String ENGINE_OPTION = "--engine=";
+    static final String JOURNAL_OPTION = "--journal=";
+    static final String TERRAIN_OPTION = "--terrain=";
+    private static final String OUTPUT_OPTIONS_USAGE = "[%sfull|summary|none] [%s]".formatted(ECHO_OPTION, GZIP_OPTION);
+    private static final String CHECKPOINT_OPTIONS_USAGE = "[%s<file> [%s<turns>] [%s<seconds>] [%s]] [%s]"
+            .formatted(CHECKPOINT_OPTION, CHECKPOINT_TURNS_OPTION, CHECKPOINT_SECONDS_OPTION, RESUME_OPTION, METRICS_OPTION);
+    private static final String ENGINE_OPTIONS_USAGE = "[%ssequential|array|parallel|off-heap|simultaneous]"
+            .formatted(ENGINE_OPTION);
+    private static final String FILE_OPTIONS_USAGE = "[%s<file>] [%s<file>]".formatted(JOURNAL_OPTION, TERRAIN_OPTION);
+
     public static void main(String[] args) {
-        if (args.length != 2) {
-            System.err.println("Please provide 2 arguments: input and output files");
-            System.exit(1);
+        boolean batch = args.length > 0 && args[0].equals(BATCH_OPTION);
+        List<String> arguments = new ArrayList<>();
+        RunOptions options;
+        try {
+            options = parseRunOptions(args, batch ? RunOptions.BATCH_DEFAULT : RunOptions.DEFAULT, arguments);
+        } catch (IllegalArgumentException e) {
+            exitWithUsage(e.getMessage());
+            return;
+        }
+        if (batch) {
+            if (!options.withOutput(RunOptions.BATCH_DEFAULT.output()).equals(RunOptions.BATCH_DEFAULT)) {
+                exitWithUsage("%s, %s, %s, %s and %s are not supported with %s".formatted(CHECKPOINT_OPTION,
+                        METRICS_OPTION,
+                        ENGINE_OPTION,
+                        JOURNAL_OPTION,
+                        TERRAIN_OPTION,
+                        BATCH_OPTION));
+            }
+            runBatch(arguments, options.output());
+            return;
+        }
+        if (arguments.size() != 2) {
+            exitWithUsage("Please provide 2 arguments: input and output files");
+        }
+        runSimulation(arguments.get(0), arguments.get(1), options);
+    }
+
+    private static void exitWithUsage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: <input file> <output file> %s %s %s %s"
+                .formatted(OUTPUT_OPTIONS_USAGE, CHECKPOINT_OPTIONS_USAGE, ENGINE_OPTIONS_USAGE, FILE_OPTIONS_USAGE));
+        System.err.println("Or, to run many simulations: %s <input directory or list file> <output directory> [max concurrent simulations] %s"
+                .formatted(BATCH_OPTION, OUTPUT_OPTIONS_USAGE));
+        System.exit(1);
+    }
+
+    /**
+     * @param defaults           options of the run mode, replaced by the ones given
+     * @param remainingArguments filled with the arguments that are not options, in order
+     * @throws IllegalArgumentException if a value is invalid, or options cannot go together
+     */
+    static RunOptions parseRunOptions(String[] args, RunOptions defaults, List<String> remainingArguments) {
+        OutputWriter.Echo echo = defaults.output().echo();
+        boolean gzip = defaults.output().gzip();
+        Path checkpointPath = null;
+        long turnsInterval = CheckpointOptions.DEFAULT_TURNS_INTERVAL;
+        Duration interval = CheckpointOptions.DEFAULT_INTERVAL;
+        boolean resume = false;
+        boolean metricsReport = defaults.metricsReport();
+        Engine engine = defaults.engine();
+        Path journalPath = defaults.journalPath();
+        Path terrainPath = defaults.terrainPath();
+        for (String arg : args) {
+            if (arg.startsWith(ECHO_OPTION)) {
+                echo = parseEcho(arg.substring(ECHO_OPTION.length()));
+            } else if (arg.equals(GZIP_OPTION)) {
+                gzip = true;
+            } else if (arg.startsWith(CHECKPOINT_OPTION)) {
+                checkpointPath = Path.of(arg.substring(CHECKPOINT_OPTION.length()));
+            } else if (arg.startsWith(CHECKPOINT_TURNS_OPTION)) {
+                turnsInterval = Long.parseLong(arg.substring(CHECKPOINT_TURNS_OPTION.length()));
+            } else if (arg.startsWith(CHECKPOINT_SECONDS_OPTION)) {
+                interval = Duration.ofSeconds(Long.parseLong(arg.substring(CHECKPOINT_SECONDS_OPTION.length())));
+            } else if (arg.equals(RESUME_OPTION)) {
+                resume = true;
+            } else if (arg.equals(METRICS_OPTION)) {
+                metricsReport = true;
+            } else if (arg.startsWith(ENGINE_OPTION)) {
+                engine = Engine.parse(arg.substring(ENGINE_OPTION.length()));
+            } else if (arg.startsWith(JOURNAL_OPTION)) {
+                journalPath = Path.of(arg.substring(JOURNAL_OPTION.length()));
+            } else if (arg.startsWith(TERRAIN_OPTION)) {
+                terrainPath = Path.of(arg.substring(TERRAIN_OPTION.length()));
+            } else {
+                remainingArguments.add(arg);
+            }
+        }
+        if (checkpointPath == null && resume) {
+            throw new IllegalArgumentException("%s requires %s<file>".formatted(RESUME_OPTION, CHECKPOINT_OPTION));
+        }
+        return new RunOptions(new OutputWriter.Options(echo, gzip),
+                checkpointPath != null ? new CheckpointOptions(checkpointPath, turnsInterval, interval, resume) : null,
+                metricsReport,
+                engine,
+                journalPath,
+                terrainPath);
+    }
+
+    private static OutputWriter.Echo parseEcho(String value) {
+        for (OutputWriter.Echo echo : OutputWriter.Echo.values()) {
+            if (echo.name().toLowerCase(Locale.ROOT).equals(value)) {
+                return echo;
+            }
+        }
+        throw new IllegalArgumentException("Unknown echo '%s'".formatted(value));
+    }
+
+    private static void runBatch(List<String> arguments, OutputWriter.Options outputOptions) {
+        if (arguments.size() != 3 && arguments.size() != 4) {
+            exitWithUsage("Please provide an input directory or list file and an output directory to %s"
+                    .formatted(BATCH_OPTION));
+        }
+        BatchRunner batchRunner;
+        List<Path> inputs = BatchRunner.listInputs(Path.of(arguments.get(1)));
+        Path outputDirectory = Path.of(arguments.get(2));
+        try {
+            int maxConcurrentSimulations = arguments.size() == 4
+                    ? Integer.parseInt(arguments.get(3))
+                    : Runtime.getRuntime().availableProcessors();
+            batchRunner = new BatchRunner(maxConcurrentSimulations, outputOptions);
+            batchRunner.checkOutputs(inputs, outputDirectory);
+        } catch (IllegalArgumentException e) {
+            exitWithUsage(e instanceof NumberFormatException
+                    ? "Max concurrent simulations must be a number but was %s".formatted(arguments.get(3))
+                    : e.getMessage());
+            return;
+        }
+        BatchRunner.Summary summary = batchRunner.run(inputs, outputDirectory);
+        System.out.println(summary.format());
+        if (summary.failureCount() > 0) {
+            System.exit(2);
         }
-        runSimulation(args[0], args[1]);
     }
 
     public static void runSimulation(String inputFilePath, String outputFilePath) {
-        SimulationBuilder simulationBuilder = InputReader.readFile(inputFilePath);
-        Simulation simulation = simulationBuilder.build();
-        simulation.run();
-        String formatted = new SimulationFormatter().formatSimulation(simulation);
-        OutputWriter.writeToFile(formatted, outputFilePath);
+        runSimulation(inputFilePath, outputFilePath, RunOptions.DEFAULT);
+    }
+
+    /**
+     * With checkpoint options, runs the simulation while checkpointing it, after resuming it from the latest checkpoint
+     * if requested and one exists. The checkpoint file is kept once done: resuming from it again gives the same results.
+     * Checkpoints are written in the background: one that could not be written fails the run, but only once the output
+     * file is written, so that the results are not lost.
+     */
+    @SneakyThrows
+    public static void runSimulation(String inputFilePath, String outputFilePath, RunOptions options) {
+        RunMetrics metrics = new RunMetrics();
+        SimulationBuilder simulationBuilder = metrics.time(RunMetrics.Phase.PARSE, () -> options.terrainPath() != null
+                ? InputReader.readFile(inputFilePath, options.terrainPath())
+                : InputReader.readFile(inputFilePath));
+        Simulation simulation = metrics.time(RunMetrics.Phase.VALIDATE, simulationBuilder::build);
+        try (CheckpointWriter checkpointWriter = startCheckpoints(inputFilePath, simulation, options.checkpoint());
+             EventJournalWriter journalWriter = options.journalPath() != null
+                     ? new EventJournalWriter(options.journalPath(), simulation)
+                     : null) {
+            simulation.setListener(SimulationListener.of(
+                    checkpointWriter != null ? checkpointWriter : SimulationListener.NONE,
+                    options.metricsReport() ? metrics : SimulationListener.NONE,
+                    journalWriter != null ? journalWriter : SimulationListener.NONE,
+                    TurnEventSampler.isEnabled()
+                            ? new TurnEventSampler(TurnEventSampler.DEFAULT_SAMPLING_INTERVAL)
+                            : SimulationListener.NONE));
+            metrics.time(RunMetrics.Phase.RUN, () -> options.engine().run(simulation));
+            simulation.setListener(SimulationListener.NONE);
+            metrics.time(RunMetrics.Phase.WRITE,
+                    () -> OutputWriter.writeToFile(simulation, outputFilePath, options.output()));
+        }
+        if (options.metricsReport()) {
+            Path report = metrics.writeReport(outputFilePath);
+            if (options.output().echo() != OutputWriter.Echo.NONE) {
+                System.out.printf("run metrics written to %s%n", report);
+            }
+        }
+    }
+
+    /**
+     * @return <code>null</code> without checkpoint options
+     */
+    private static CheckpointWriter startCheckpoints(String inputFilePath,
+                                                    Simulation simulation,
+                                                    CheckpointOptions checkpointOptions) throws IOException {
+        if (checkpointOptions == null) {
+            return null;
+        }
+        long inputFingerprint = CheckpointFile.fingerprint(Path.of(inputFilePath));
+        if (checkpointOptions.resume()) {
+            CheckpointFile.readLatest(checkpointOptions.path(), inputFingerprint).ifPresent(simulation::restore);
+        }
+        return new CheckpointWriter(checkpointOptions.path(),
+                inputFingerprint,
+                checkpointOptions.turnsInterval(),
+                checkpointOptions.interval());
+    }
+
+    /**
+     * Engine playing the turns of a simulation. All of them follow the rules of <code>Simulation.run()</code> and give
+     * its results, except <code>SIMULTANEOUS</code>, a different rule set which must be asked for explicitly.
+     */
+    public enum Engine {
+        SEQUENTIAL,
+        ARRAY,
+        PARALLEL,
+        OFF_HEAP,
+        SIMULTANEOUS;
+
+        /**
+         * @param name as in the command line, such as <code>off-heap</code>
+         */
+        static Engine parse(String name) {
+            for (Engine engine : values()) {
+                if (engine.optionName().equals(name)) {
+                    return engine;
+                }
+            }
+            throw new IllegalArgumentException("Unknown engine '%s'".formatted(name));
+        }
+
+        String optionName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        void run(Simulation simulation) {
+            switch (this) {
+                case SEQUENTIAL -> simulation.run();
+                case ARRAY -> new ArraySimulationEngine(simulation).run();
+                case PARALLEL -> new ParallelSimulationEngine(simulation).run();
+                case OFF_HEAP -> new OffHeapSimulationEngine(simulation).run();
+                case SIMULTANEOUS -> new SimultaneousSimulationEngine(simulation).run();
+            }
+        }
+    }
+
+    /**
+     * Everything but the input and output files of a run.
+     *
+     * @param checkpoint    <code>null</code> to run without checkpoints
+     * @param metricsReport whether to write the <code>RunMetrics</code> of the run next to the output file
+     * @param engine        only the sequential one notifies listeners, so other engines can neither checkpoint the run,
+     *                      report its metrics nor journal its events
+     * @param journalPath   where to write the <code>EventJournal</code> of the run, from the turn it resumed from, or
+     *                      <code>null</code> not to journal it
+     * @param terrainPath   <code>TiledTerrain</code> file holding the mountains, the input file then listing none, or
+     *                      <code>null</code> to take them from the input file
+     */
+    @With
+    public record RunOptions(OutputWriter.Options output,
+                             CheckpointOptions checkpoint,
+                             boolean metricsReport,
+                             Engine engine,
+                             Path journalPath,
+                             Path terrainPath) {
+        public static final RunOptions DEFAULT =
+                new RunOptions(OutputWriter.Options.DEFAULT, null, false, Engine.SEQUENTIAL, null, null);
+        /**
+         * Batch runs only take output options.
+         */
+        static final RunOptions BATCH_DEFAULT = DEFAULT.withOutput(BatchRunner.DEFAULT_OUTPUT_OPTIONS);
+
+        /**
+         * @throws IllegalArgumentException if the engine cannot notify the listeners the other options require
+         */
+        public RunOptions {
+            if (engine != Engine.SEQUENTIAL && (checkpoint != null || metricsReport || journalPath != null)) {
+                throw new IllegalArgumentException("%s, %s and %s require the sequential engine, not %s"
+                        .formatted(CHECKPOINT_OPTION, METRICS_OPTION, JOURNAL_OPTION, engine.optionName()));
+            }
+        }
+    }
+
+    /**
+     * @param resume whether to resume from the latest checkpoint of the file, if any
+     */
+    @With
+    public record CheckpointOptions(Path path, long turnsInterval, Duration interval, boolean resume) {
+        static final long DEFAULT_TURNS_INTERVAL = 100_000;
+        static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(1);
     }
 
 }
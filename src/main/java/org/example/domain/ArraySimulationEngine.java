@@ -0,0 +1,97 @@
+package org.example.domain;
+
+/**
+ * Alternative to <code>Simulation.run()</code> that plays the turns on <code>PlayerStates</code> rather than on
+ * <code>Player</code> objects. The rules and the order in which players act are the same, so are the results.
+ * <p>
+ * The simulation hands its <code>Player</code> objects over when the engine is created, and they are dropped once
+ * copied. New ones are given back to the simulation once the run is over, so that it can be formatted as usual.
+ */
+public final class ArraySimulationEngine {
+    private final Simulation simulation;
+    private final OccupancyGrid occupancyGrid;
+    private final TreasureStore treasures;
+    private final PlayerStates players;
+    /**
+     * Same as in <code>Simulation</code>: indexes of the players still playing, in order, compacted every turn.
+     */
+    private final int[] activePlayers;
+    private int activePlayersCount;
+    private long turnsPlayed;
+
+    public ArraySimulationEngine(Simulation simulation) {
+        this.simulation = simulation;
+        this.occupancyGrid = simulation.getOccupancyGrid();
+        this.treasures = simulation.getTreasureStore();
+        this.players = PlayerStates.of(simulation.handOverPlayers());
+        this.activePlayers = new int[players.count()];
+        for (int player = 0; player < players.count(); player++) {
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[activePlayersCount++] = player;
+            }
+        }
+    }
+
+    public void run() {
+        while (areCommandsRemaining()) {
+            playTurn();
+        }
+        simulation.takeBackPlayers(players.toPlayers(), turnsPlayed);
+    }
+
+    void playTurn() {
+        int stillActiveCount = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int player = activePlayers[i];
+            int cursor = players.commandCursors[player];
+            CommandScript commands = players.commands[player];
+            players.commandCursors[player] = cursor + 1;
+            switch (commands.commandAt(cursor)) {
+                case A -> moveForward(player);
+                case G -> players.turnLeft(player);
+                case D -> players.turnRight(player);
+            }
+            if (cursor + 1 < commands.length()) {
+                activePlayers[stillActiveCount++] = player;
+            }
+        }
+        activePlayersCount = stillActiveCount;
+        turnsPlayed++;
+    }
+
+    private void moveForward(int player) {
+        int westEast = players.westEast[player];
+        int northSouth = players.northSouth[player];
+        switch (players.orientations[player]) {
+            case 0 -> northSouth--;
+            case 1 -> westEast++;
+            case 2 -> northSouth++;
+            default -> westEast--;
+        }
+        long futurePosition = PackedCoordinates.pack(westEast, northSouth);
+        if (simulation.isOutOfBound(futurePosition)
+            || occupancyGrid.hasMountainAt(futurePosition)
+            || occupancyGrid.hasPlayerAt(futurePosition)) {
+            return;
+        }
+        occupancyGrid.movePlayer(players.position(player), futurePosition);
+        players.westEast[player] = westEast;
+        players.northSouth[player] = northSouth;
+        collectTreasureIfApplicable(player, futurePosition);
+    }
+
+    private void collectTreasureIfApplicable(int player, long position) {
+        int treasureIndex = occupancyGrid.nonEmptyTreasureAt(position);
+        if (treasureIndex == OccupancyGrid.NONE) {
+            return;
+        }
+        if (treasures.collect(treasureIndex) == 0) {
+            occupancyGrid.treasureDepleted(position);
+        }
+        players.collectedTreasures[player]++;
+    }
+
+    private boolean areCommandsRemaining() {
+        return activePlayersCount > 0;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Commands read on demand from their text, one ASCII byte each, typically a range of a memory-mapped input file. The
+ * script then takes no heap whatever its length, pages of the file being loaded by the operating system as the
+ * players consume them.
+ */
+final class AsciiCommandScript implements CommandScript {
+    private final ByteBuffer text;
+    private final int length;
+
+    AsciiCommandScript(ByteBuffer text) {
+        this.text = text.slice().asReadOnlyBuffer();
+        this.length = this.text.limit();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public Command commandAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Command %d out of script of length %d".formatted(index, length));
+        }
+        byte code = text.get(index);
+        return switch (code) {
+            case 'A' -> Command.A;
+            case 'G' -> Command.G;
+            case 'D' -> Command.D;
+            default -> throw new IllegalStateException("Invalid command %s at index %d".formatted((char) code, index));
+        };
+    }
+
+    @Override
+    public String toString() {
+        return CommandScript.toString(this);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.domain;
+
+/**
+ * Why a player could not move forward.
+ */
+public enum BlockReason {
+    /**
+     * The move would leave the map.
+     */
+    BOUND,
+    MOUNTAIN,
+    /**
+     * Another player occupies the cell.
+     */
+    PLAYER
+}
@@ -0,0 +1,63 @@
+package org.example.domain;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Immutable sequence of commands. Players consume it through a cursor instead of dequeuing, and reading a command
+ * allocates nothing.
+ * <p>
+ * Scripts are either packed on 2 bits per command, or read on demand from their text when it is too long to be worth
+ * copying to the heap.
+ */
+public interface CommandScript {
+    CommandScript EMPTY = PackedCommandScript.EMPTY;
+
+    static CommandScript of(Collection<Command> commands) {
+        Builder builder = new PackedCommandScript.Builder(commands.size());
+        for (Command command : commands) {
+            builder.append(command);
+        }
+        return builder.build();
+    }
+
+    static Builder builder() {
+        return new PackedCommandScript.Builder(32);
+    }
+
+    /**
+     * @param text commands as ASCII characters, from its position to its limit, which must have been validated as
+     *             they are only decoded when consumed. Must not be modified afterward.
+     */
+    static CommandScript ofAscii(ByteBuffer text) {
+        if (!text.hasRemaining()) {
+            return EMPTY;
+        }
+        return new AsciiCommandScript(text);
+    }
+
+    int length();
+
+    Command commandAt(int index);
+
+    /**
+     * Appends commands one at a time, so that a script can be built while reading it without an intermediate
+     * collection.
+     */
+    interface Builder {
+        Builder append(Command command);
+
+        CommandScript build();
+    }
+
+    /**
+     * @return the script as in the input file
+     */
+    static String toString(CommandScript script) {
+        StringBuilder stringBuilder = new StringBuilder(script.length());
+        for (int i = 0; i < script.length(); i++) {
+            stringBuilder.append(script.commandAt(i).name());
+        }
+        return stringBuilder.toString();
+    }
+}
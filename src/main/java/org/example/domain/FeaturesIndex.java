@@ -0,0 +1,95 @@
+package org.example.domain;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Indexes the features of a <code>SimulationBuilder</code> as they are added, and keeps track along the way of what
+ * could make the simulation invalid: overlapping features, duplicate player names, and the extent of the features to
+ * be compared to the size once known. Building a valid simulation then costs no extra pass over the features, and the
+ * index becomes the <code>OccupancyGrid</code> of the simulation.
+ * <p>
+ * Only invalid simulations go through <code>SimulationValidator</code>, to report exactly the same errors as before.
+ * <p>
+ * Features are indexed in the order of the lists, picking up on the next call where the previous one stopped, so that
+ * features added directly to the lists of the builder are indexed too.
+ */
+class FeaturesIndex {
+    private final OccupancyGrid occupancyGrid = OccupancyGrid.empty();
+    /**
+     * Mountains are only part of the grid once the simulation is built, compressed in a <code>MountainBitmap</code>.
+     */
+    private final LongIntHashMap mountainsPositions = new LongIntHashMap();
+    /**
+     * Empty treasures are not part of the grid as they cannot be collected, but they still occupy their cell.
+     */
+    private final LongIntHashMap emptyTreasures = new LongIntHashMap();
+    private final Set<String> playersNames = new HashSet<>();
+    private int indexedMountainsCount;
+    private int indexedTreasuresCount;
+    private int indexedPlayersCount;
+
+    private boolean overlappingFeatures;
+    private boolean duplicatePlayersNames;
+    private int minWestEast = Integer.MAX_VALUE;
+    private int minNorthSouth = Integer.MAX_VALUE;
+    private int maxWestEast = Integer.MIN_VALUE;
+    private int maxNorthSouth = Integer.MIN_VALUE;
+
+    void index(List<Mountain> mountains, List<Treasure> treasures, List<Player> players) {
+        for (; indexedMountainsCount < mountains.size(); indexedMountainsCount++) {
+            long position = PackedCoordinates.pack(mountains.get(indexedMountainsCount).getCoordinates());
+            occupy(position);
+            mountainsPositions.put(position, indexedMountainsCount);
+        }
+        for (; indexedTreasuresCount < treasures.size(); indexedTreasuresCount++) {
+            Treasure treasure = treasures.get(indexedTreasuresCount);
+            long position = PackedCoordinates.pack(treasure.getCoordinates());
+            occupy(position);
+            if (treasure.isEmpty()) {
+                emptyTreasures.put(position, indexedTreasuresCount);
+            } else {
+                occupancyGrid.placeNonEmptyTreasure(position, indexedTreasuresCount);
+            }
+        }
+        for (; indexedPlayersCount < players.size(); indexedPlayersCount++) {
+            Player player = players.get(indexedPlayersCount);
+            occupy(player.getPosition());
+            occupancyGrid.placePlayer(player.getPosition(), indexedPlayersCount);
+            duplicatePlayersNames |= !playersNames.add(player.getName());
+        }
+    }
+
+    private void occupy(long position) {
+        overlappingFeatures |= mountainsPositions.containsKey(position)
+                               || occupancyGrid.nonEmptyTreasureAt(position) != OccupancyGrid.NONE
+                               || emptyTreasures.containsKey(position)
+                               || occupancyGrid.hasPlayerAt(position);
+        int westEast = PackedCoordinates.westEast(position);
+        int northSouth = PackedCoordinates.northSouth(position);
+        minWestEast = Math.min(minWestEast, westEast);
+        minNorthSouth = Math.min(minNorthSouth, northSouth);
+        maxWestEast = Math.max(maxWestEast, westEast);
+        maxNorthSouth = Math.max(maxNorthSouth, northSouth);
+    }
+
+    /**
+     * @return whether the simulation may be invalid, in which case it must go through <code>SimulationValidator</code>
+     */
+    boolean mayBeInvalid(Simulation.Size size) {
+        return size == null
+               || size.width() <= 0
+               || size.height() <= 0
+               || duplicatePlayersNames
+               || overlappingFeatures
+               || minWestEast < 0
+               || minNorthSouth < 0
+               || maxWestEast >= size.width()
+               || maxNorthSouth >= size.height();
+    }
+
+    OccupancyGrid occupancyGrid() {
+        return occupancyGrid;
+    }
+}
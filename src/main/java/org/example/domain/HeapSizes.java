@@ -0,0 +1,29 @@
+package org.example.domain;
+
+/**
+ * Approximate heap footprint of objects and arrays, on a 64-bit JVM with compressed references, the default below
+ * 32 GiB heaps, objects being aligned on 8 bytes.
+ */
+final class HeapSizes {
+    static final int OBJECT_HEADER_BYTES = 12;
+    static final int ARRAY_HEADER_BYTES = 16;
+    static final int REFERENCE_BYTES = 4;
+
+    private HeapSizes() {
+    }
+
+    /**
+     * @param fieldsBytes sum of the sizes of the fields, references counting for <code>REFERENCE_BYTES</code>
+     */
+    static long object(int fieldsBytes) {
+        return align(OBJECT_HEADER_BYTES + fieldsBytes);
+    }
+
+    static long array(long length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
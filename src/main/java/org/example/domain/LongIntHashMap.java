@@ -0,0 +1,212 @@
+package org.example.domain;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive <code>long</code> keys to non-negative primitive <code>int</code> values,
+ * used to index packed coordinates without boxing nor allocating per lookup. Linear probing, backward shift on removal
+ * so that no tombstone accumulates as players keep moving.
+ * <p>
+ * Not thread-safe.
+ */
+final class LongIntHashMap {
+    static final int NO_VALUE = -1;
+    private static final long FREE_KEY = Long.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    private int freeKeyValue = NO_VALUE;
+
+    LongIntHashMap() {
+        this(8);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * @return the value associated to the key, or <code>NO_VALUE</code> if absent
+     */
+    int get(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : NO_VALUE;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == FREE_KEY) {
+                return NO_VALUE;
+            }
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the previous value associated to the key, or <code>NO_VALUE</code> if absent
+     */
+    int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative but was %d".formatted(value));
+        }
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > keys.length / 2) {
+                    grow();
+                }
+                return NO_VALUE;
+            }
+            if (current == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the value that was associated to the key, or <code>NO_VALUE</code> if absent
+     */
+    int remove(long key) {
+        if (key == FREE_KEY) {
+            int previous = hasFreeKey ? freeKeyValue : NO_VALUE;
+            hasFreeKey = false;
+            freeKeyValue = NO_VALUE;
+            return previous;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == FREE_KEY) {
+                return NO_VALUE;
+            }
+            if (current == key) {
+                int previous = values[slot];
+                shiftEntriesBackInto(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Moves back the entries following the freed slot whose probe sequence went through it, so that lookups never
+     * stop early on a hole.
+     */
+    private void shiftEntriesBackInto(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long current = keys[slot];
+            if (current == FREE_KEY) {
+                break;
+            }
+            int idealSlot = slot(current);
+            if (((slot - idealSlot) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = current;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE_KEY;
+    }
+
+    /**
+     * @return approximate heap footprint of the map
+     */
+    long bytes() {
+        return HeapSizes.object(2 * HeapSizes.REFERENCE_BYTES + 3 * Integer.BYTES + 1)
+               + HeapSizes.array(keys.length, Long.BYTES)
+               + HeapSizes.array(values.length, Integer.BYTES);
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, FREE_KEY);
+            size = 0;
+        }
+        hasFreeKey = false;
+        freeKeyValue = NO_VALUE;
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Cannot index more than %d entries".formatted(MAX_CAPACITY / 2));
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE_KEY) {
+                int slot = slot(key);
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        return (int) hash(key) & mask;
+    }
+
+    /**
+     * Murmur3 finalizer, packed coordinates being far from uniformly distributed. Slots are picked from its low bits.
+     */
+    static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long wanted = Math.max(4L, 2L * expectedSize);
+        if (wanted >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+}
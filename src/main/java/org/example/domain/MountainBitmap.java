@@ -0,0 +1,628 @@
+package org.example.domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.example.domain.LongIntHashMap.NO_VALUE;
+
+/**
+ * Immutable set of the cells holding a mountain, compressed in the style of Roaring bitmaps so that huge sparse maps
+ * cost memory by mountain rather than by cell.
+ * <p>
+ * The map is cut into square tiles of <code>TILE_SIZE</code> cells a side, and the mountains of a tile are held by a
+ * container storing their 16-bit index in the tile, row by row, in whichever form is the smallest: a sorted array of
+ * values, a bitmap of the whole tile, or a sorted array of runs. Horizontal ridges and blobs then cost a few bits per
+ * mountain, vertical ridges at most 2 bytes per mountain, and a lookup is a hash of the tile followed by a search in a
+ * container of at most 8 KiB.
+ * <p>
+ * Mountains are iterated in row-major order by sweeping the rows of each row of tiles across its containers. Inputs
+ * listing their mountains that way, as files written from a grid do, are iterated back in input order for free. Other
+ * inputs keep on the side, in input order, the rank of each mountain among the distinct ones in the order of the
+ * containers, which also preserves duplicates for <code>SimulationValidator</code> to report.
+ */
+public final class MountainBitmap implements Terrain {
+    static final int TILE_BITS = 8;
+    static final int TILE_SIZE = 1 << TILE_BITS;
+    static final int TILE_CELLS = TILE_SIZE * TILE_SIZE;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    /**
+     * Beyond this, an array of 16-bit values is larger than a bitmap of the tile.
+     */
+    static final int MAX_ARRAY_CARDINALITY = TILE_CELLS / Short.SIZE;
+    static final MountainBitmap EMPTY = of(List.of());
+
+    /**
+     * Tile of each container, packed as its column and row of tiles, in row-major order of the tiles.
+     */
+    private final long[] keys;
+    private final Container[] containers;
+    /**
+     * Number of distinct mountains held by the containers before each one, followed by the cardinality.
+     */
+    private final int[] containerRanks;
+    private final LongIntHashMap containerIndexes;
+    /**
+     * Rank of each mountain, in input order, among the distinct mountains in the order of the containers, or null if
+     * the input is in row-major order.
+     */
+    private final int[] inputOrder;
+    /**
+     * Smallest size holding all the mountains, if none has negative coordinates.
+     */
+    private final Simulation.Size extent;
+    private final boolean negativeCoordinates;
+
+    private MountainBitmap(long[] keys, Container[] containers, int[] containerRanks, int[] inputOrder,
+                           Simulation.Size extent, boolean negativeCoordinates) {
+        this.keys = keys;
+        this.containers = containers;
+        this.containerRanks = containerRanks;
+        this.inputOrder = inputOrder;
+        this.extent = extent;
+        this.negativeCoordinates = negativeCoordinates;
+        this.containerIndexes = new LongIntHashMap(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            containerIndexes.put(keys[i], i);
+        }
+    }
+
+    static MountainBitmap of(List<Mountain> mountains) {
+        long[] sorted = new long[mountains.size()];
+        boolean rowMajorInput = true;
+        long previousRowMajorKey = 0;
+        int maxWestEast = -1;
+        int maxNorthSouth = -1;
+        boolean negativeCoordinates = false;
+        for (int i = 0; i < sorted.length; i++) {
+            Coordinates coordinates = mountains.get(i).getCoordinates();
+            sorted[i] = tileOrderKey(coordinates.westEast(), coordinates.northSouth());
+            long rowMajorKey = rowMajorKey(coordinates.westEast(), coordinates.northSouth());
+            rowMajorInput &= i == 0 || rowMajorKey > previousRowMajorKey;
+            previousRowMajorKey = rowMajorKey;
+            maxWestEast = Math.max(maxWestEast, coordinates.westEast());
+            maxNorthSouth = Math.max(maxNorthSouth, coordinates.northSouth());
+            negativeCoordinates |= coordinates.westEast() < 0 || coordinates.northSouth() < 0;
+        }
+        Arrays.sort(sorted);
+
+        long[] keys = new long[16];
+        Container[] containers = new Container[16];
+        int[] containerRanks = new int[17];
+        int containersCount = 0;
+        int cardinality = 0;
+        char[] lows = new char[TILE_CELLS];
+        int i = 0;
+        while (i < sorted.length) {
+            long tile = sorted[i] >> Character.SIZE;
+            int lowsCount = 0;
+            for (; i < sorted.length && sorted[i] >> Character.SIZE == tile; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    lows[lowsCount++] = (char) sorted[i];
+                }
+            }
+            if (containersCount == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * containersCount);
+                containers = Arrays.copyOf(containers, 2 * containersCount);
+                containerRanks = Arrays.copyOf(containerRanks, 2 * containersCount + 1);
+            }
+            int tileRow = (int) (tile >> 24);
+            int tileColumn = ((int) tile & 0xFFFFFF ^ 0x800000) << 8 >> 8;
+            keys[containersCount] = PackedCoordinates.pack(tileColumn, tileRow);
+            containerRanks[containersCount] = cardinality;
+            containers[containersCount++] = Container.of(lows, lowsCount);
+            cardinality += lowsCount;
+        }
+        containerRanks[containersCount] = cardinality;
+        MountainBitmap bitmap = new MountainBitmap(Arrays.copyOf(keys, containersCount),
+                Arrays.copyOf(containers, containersCount),
+                Arrays.copyOf(containerRanks, containersCount + 1),
+                rowMajorInput ? null : new int[mountains.size()],
+                new Simulation.Size(maxWestEast + 1, maxNorthSouth + 1),
+                negativeCoordinates);
+        if (!rowMajorInput) {
+            for (int j = 0; j < mountains.size(); j++) {
+                Coordinates coordinates = mountains.get(j).getCoordinates();
+                bitmap.inputOrder[j] = bitmap.rank(coordinates.westEast(), coordinates.northSouth());
+            }
+        }
+        return bitmap;
+    }
+
+    @Override
+    public boolean hasMountainAt(int westEast, int northSouth) {
+        int containerIndex = containerIndexes.get(tileKey(westEast, northSouth));
+        return containerIndex != NO_VALUE && containers[containerIndex].contains(low(westEast, northSouth));
+    }
+
+    @Override
+    public boolean fitsIn(Simulation.Size size) {
+        return !negativeCoordinates && extent.width() <= size.width() && extent.height() <= size.height();
+    }
+
+    boolean contains(long position) {
+        return hasMountainAt(PackedCoordinates.westEast(position), PackedCoordinates.northSouth(position));
+    }
+
+    /**
+     * @return number of distinct cells holding a mountain
+     */
+    public int cardinality() {
+        return containerRanks[containers.length];
+    }
+
+    /**
+     * @return a cursor over the mountains, in input order
+     */
+    @Override
+    public MountainCursor mountains() {
+        return new Cursor(positions());
+    }
+
+    /**
+     * @return packed positions of the mountains, in input order
+     */
+    PrimitiveIterator.OfLong positions() {
+        if (inputOrder == null) {
+            return new RowMajorIterator();
+        }
+        return new PrimitiveIterator.OfLong() {
+            private int mountain;
+
+            @Override
+            public boolean hasNext() {
+                return mountain < inputOrder.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return select(inputOrder[mountain++]);
+            }
+        };
+    }
+
+    /**
+     * @return approximate heap footprint of the bitmap: its containers, their keys and index, and the input order
+     */
+    long bytes() {
+        long bytes = HeapSizes.object(6 * HeapSizes.REFERENCE_BYTES + 1)
+                     + HeapSizes.array(keys.length, Long.BYTES)
+                     + HeapSizes.array(containers.length, HeapSizes.REFERENCE_BYTES)
+                     + HeapSizes.array(containerRanks.length, Integer.BYTES)
+                     + containerIndexes.bytes();
+        if (inputOrder != null) {
+            bytes += HeapSizes.array(inputOrder.length, Integer.BYTES);
+        }
+        for (Container container : containers) {
+            bytes += container.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the rank of a mountain among the distinct ones, in the order of the containers
+     */
+    private int rank(int westEast, int northSouth) {
+        int container = containerIndexes.get(tileKey(westEast, northSouth));
+        return containerRanks[container] + containers[container].rank(low(westEast, northSouth));
+    }
+
+    /**
+     * @return the packed position of the mountain of the given rank among the distinct ones
+     */
+    private long select(int rank) {
+        int index = Arrays.binarySearch(containerRanks, 0, containers.length, rank);
+        // containers are never empty, so ranks are distinct
+        int container = index >= 0 ? index : -index - 2;
+        return position(container, containers[container].select(rank - containerRanks[container]));
+    }
+
+    private long position(int container, int low) {
+        long tile = keys[container];
+        return PackedCoordinates.pack((PackedCoordinates.westEast(tile) << TILE_BITS) | (low & TILE_MASK),
+                (PackedCoordinates.northSouth(tile) << TILE_BITS) | (low >>> TILE_BITS));
+    }
+
+    private static long tileKey(int westEast, int northSouth) {
+        return PackedCoordinates.pack(westEast >> TILE_BITS, northSouth >> TILE_BITS);
+    }
+
+    /**
+     * @return the index of the cell in its tile, row by row
+     */
+    private static int low(int westEast, int northSouth) {
+        return ((northSouth & TILE_MASK) << TILE_BITS) | (westEast & TILE_MASK);
+    }
+
+    /**
+     * Sorts as tiles in row-major order, with the row of tiles in the 24 high bits, the column of tiles in the next 24
+     * ones, its sign flipped to sort negative ones first, and the index of the cell in its tile in the 16 low bits.
+     */
+    private static long tileOrderKey(int westEast, int northSouth) {
+        long tileRow = northSouth >> TILE_BITS;
+        long tileColumn = ((westEast >> TILE_BITS) ^ 0x800000) & 0xFFFFFF;
+        return (tileRow << 40) | (tileColumn << 16) | low(westEast, northSouth);
+    }
+
+    /**
+     * Sorts as rows from north to south, and within a row from west to east, negative coordinates included.
+     */
+    private static long rowMajorKey(int westEast, int northSouth) {
+        return ((long) northSouth << 32) | ((westEast ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Sweeps the rows of each row of tiles across the containers of its tiles, jumping from a row to the next one
+     * holding a mountain in any of them.
+     */
+    private final class RowMajorIterator implements PrimitiveIterator.OfLong {
+        private int tileRowStart;
+        private int tileRowEnd = tileRowEnd(0);
+        private int row;
+        private int nextRow = TILE_SIZE;
+        private int container;
+        private int from;
+        private long next;
+        private boolean nextFound = findNext();
+
+        @Override
+        public boolean hasNext() {
+            return nextFound;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!nextFound) {
+                throw new NoSuchElementException();
+            }
+            long position = next;
+            nextFound = findNext();
+            return position;
+        }
+
+        private boolean findNext() {
+            while (tileRowStart < containers.length) {
+                while (row < TILE_SIZE) {
+                    for (; container < tileRowEnd; container++, from = row << TILE_BITS) {
+                        int value = containers[container].nextValue(from);
+                        if (value < 0) {
+                            continue;
+                        }
+                        if (value >>> TILE_BITS == row) {
+                            from = value + 1;
+                            next = position(container, value);
+                            return true;
+                        }
+                        nextRow = Math.min(nextRow, value >>> TILE_BITS);
+                    }
+                    row = nextRow;
+                    nextRow = TILE_SIZE;
+                    container = tileRowStart;
+                    from = row << TILE_BITS;
+                }
+                tileRowStart = tileRowEnd;
+                tileRowEnd = tileRowEnd(tileRowStart);
+                row = 0;
+                container = tileRowStart;
+                from = 0;
+            }
+            return false;
+        }
+
+        private int tileRowEnd(int start) {
+            int end = start;
+            while (end < keys.length
+                   && PackedCoordinates.northSouth(keys[end]) == PackedCoordinates.northSouth(keys[start])) {
+                end++;
+            }
+            return end;
+        }
+    }
+
+    private static final class Cursor implements MountainCursor {
+        private final PrimitiveIterator.OfLong positions;
+        private long position;
+
+        private Cursor(PrimitiveIterator.OfLong positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public boolean next() {
+            if (!positions.hasNext()) {
+                return false;
+            }
+            position = positions.nextLong();
+            return true;
+        }
+
+        @Override
+        public int westEast() {
+            return PackedCoordinates.westEast(position);
+        }
+
+        @Override
+        public int northSouth() {
+            return PackedCoordinates.northSouth(position);
+        }
+    }
+
+    /**
+     * Values of a tile, between 0 and <code>TILE_CELLS - 1</code>.
+     */
+    private abstract static class Container {
+
+        /**
+         * @param lows sorted, without duplicates
+         */
+        static Container of(char[] lows, int count) {
+            int runsCount = 1;
+            for (int i = 1; i < count; i++) {
+                if (lows[i] != lows[i - 1] + 1) {
+                    runsCount++;
+                }
+            }
+            long arrayBytes = (long) count * Character.BYTES;
+            long runsBytes = (long) runsCount * 2 * Character.BYTES;
+            long bitmapBytes = TILE_CELLS / Byte.SIZE;
+            if (runsBytes < arrayBytes && runsBytes < bitmapBytes) {
+                return RunContainer.of(lows, count, runsCount);
+            }
+            if (count <= MAX_ARRAY_CARDINALITY) {
+                return new ArrayContainer(Arrays.copyOf(lows, count));
+            }
+            return BitmapContainer.of(lows, count);
+        }
+
+        abstract boolean contains(int low);
+
+        /**
+         * @return the smallest value greater than or equal to <code>from</code>, or -1 if there is none
+         */
+        abstract int nextValue(int from);
+
+        /**
+         * @return the number of values lower than the given one
+         */
+        abstract int rank(int low);
+
+        /**
+         * @param rank lower than the number of values
+         * @return the value of the given rank
+         */
+        abstract int select(int rank);
+
+        /**
+         * @return approximate heap footprint of the container
+         */
+        abstract long bytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private final char[] values;
+
+        private ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, (char) low) >= 0;
+        }
+
+        @Override
+        int nextValue(int from) {
+            if (from >= TILE_CELLS) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(values, (char) from);
+            if (index >= 0) {
+                return from;
+            }
+            int insertionPoint = -index - 1;
+            return insertionPoint < values.length ? values[insertionPoint] : -1;
+        }
+
+        @Override
+        int rank(int low) {
+            int index = Arrays.binarySearch(values, (char) low);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        @Override
+        int select(int rank) {
+            return values[rank];
+        }
+
+        @Override
+        long bytes() {
+            return HeapSizes.object(HeapSizes.REFERENCE_BYTES) + HeapSizes.array(values.length, Character.BYTES);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private static final int BLOCK_WORDS = 64;
+
+        private final long[] words = new long[TILE_CELLS / Long.SIZE];
+        /**
+         * Number of values before each block of <code>BLOCK_WORDS</code> words, so that ranking and selecting only
+         * count the bits of a single block.
+         */
+        private final int[] blockRanks = new int[words.length / BLOCK_WORDS];
+
+        static BitmapContainer of(char[] lows, int count) {
+            BitmapContainer container = new BitmapContainer();
+            for (int i = 0; i < count; i++) {
+                container.words[lows[i] >>> 6] |= 1L << lows[i];
+            }
+            int rank = 0;
+            for (int block = 0; block < container.blockRanks.length; block++) {
+                container.blockRanks[block] = rank;
+                for (int word = block * BLOCK_WORDS; word < (block + 1) * BLOCK_WORDS; word++) {
+                    rank += Long.bitCount(container.words[word]);
+                }
+            }
+            return container;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int nextValue(int from) {
+            if (from >= TILE_CELLS) {
+                return -1;
+            }
+            int wordIndex = from >>> 6;
+            long word = words[wordIndex] & (-1L << from);
+            while (word == 0) {
+                if (++wordIndex == words.length) {
+                    return -1;
+                }
+                word = words[wordIndex];
+            }
+            return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int rank(int low) {
+            int wordIndex = low >>> 6;
+            int rank = blockRanks[wordIndex / BLOCK_WORDS];
+            for (int word = wordIndex / BLOCK_WORDS * BLOCK_WORDS; word < wordIndex; word++) {
+                rank += Long.bitCount(words[word]);
+            }
+            return rank + Long.bitCount(words[wordIndex] & ((1L << low) - 1));
+        }
+
+        @Override
+        int select(int rank) {
+            int block = blockRanks.length - 1;
+            while (blockRanks[block] > rank) {
+                block--;
+            }
+            int remaining = rank - blockRanks[block];
+            int wordIndex = block * BLOCK_WORDS;
+            while (Long.bitCount(words[wordIndex]) <= remaining) {
+                remaining -= Long.bitCount(words[wordIndex++]);
+            }
+            long word = words[wordIndex];
+            for (; remaining > 0; remaining--) {
+                word &= word - 1;
+            }
+            return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        long bytes() {
+            return HeapSizes.object(2 * HeapSizes.REFERENCE_BYTES)
+                   + HeapSizes.array(words.length, Long.BYTES)
+                   + HeapSizes.array(blockRanks.length, Integer.BYTES);
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        private static final int BLOCK_RUNS = 32;
+
+        private final char[] starts;
+        /**
+         * Length of each run minus one, so that a run can span the whole tile.
+         */
+        private final char[] lengths;
+        /**
+         * Number of values before each block of <code>BLOCK_RUNS</code> runs, so that ranking and selecting only add
+         * up the lengths of the runs of a single block.
+         */
+        private final int[] blockRanks;
+
+        private RunContainer(char[] starts, char[] lengths) {
+            this.starts = starts;
+            this.lengths = lengths;
+            this.blockRanks = new int[(starts.length + BLOCK_RUNS - 1) / BLOCK_RUNS];
+            int rank = 0;
+            for (int run = 0; run < starts.length; run++) {
+                if (run % BLOCK_RUNS == 0) {
+                    blockRanks[run / BLOCK_RUNS] = rank;
+                }
+                rank += lengths[run] + 1;
+            }
+        }
+
+        static RunContainer of(char[] lows, int count, int runsCount) {
+            char[] starts = new char[runsCount];
+            char[] lengths = new char[runsCount];
+            int run = 0;
+            starts[0] = lows[0];
+            for (int i = 1; i < count; i++) {
+                if (lows[i] != lows[i - 1] + 1) {
+                    lengths[run] = (char) (lows[i - 1] - starts[run]);
+                    starts[++run] = lows[i];
+                }
+            }
+            lengths[run] = (char) (lows[count - 1] - starts[run]);
+            return new RunContainer(starts, lengths);
+        }
+
+        @Override
+        boolean contains(int low) {
+            int run = lastRunStartingAtOrBefore(low);
+            return run >= 0 && low - starts[run] <= lengths[run];
+        }
+
+        @Override
+        int nextValue(int from) {
+            if (from >= TILE_CELLS) {
+                return -1;
+            }
+            int run = lastRunStartingAtOrBefore(from);
+            if (run >= 0 && from - starts[run] <= lengths[run]) {
+                return from;
+            }
+            return run + 1 < starts.length ? starts[run + 1] : -1;
+        }
+
+        @Override
+        int rank(int low) {
+            int run = lastRunStartingAtOrBefore(low);
+            if (run < 0) {
+                return 0;
+            }
+            int rank = blockRanks[run / BLOCK_RUNS];
+            for (int previous = run / BLOCK_RUNS * BLOCK_RUNS; previous < run; previous++) {
+                rank += lengths[previous] + 1;
+            }
+            return rank + Math.min(low - starts[run], lengths[run] + 1);
+        }
+
+        @Override
+        int select(int rank) {
+            int index = Arrays.binarySearch(blockRanks, rank);
+            int run = (index >= 0 ? index : -index - 2) * BLOCK_RUNS;
+            int remaining = rank - blockRanks[run / BLOCK_RUNS];
+            while (remaining > lengths[run]) {
+                remaining -= lengths[run++] + 1;
+            }
+            return starts[run] + remaining;
+        }
+
+        @Override
+        long bytes() {
+            return HeapSizes.object(3 * HeapSizes.REFERENCE_BYTES)
+                   + 2 * HeapSizes.array(starts.length, Character.BYTES)
+                   + HeapSizes.array(blockRanks.length, Integer.BYTES);
+        }
+
+        /**
+         * @return the index of the run, or -1 if all start after the value
+         */
+        private int lastRunStartingAtOrBefore(int low) {
+            int index = Arrays.binarySearch(starts, (char) low);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
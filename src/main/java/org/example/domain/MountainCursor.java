@@ -0,0 +1,18 @@
+package org.example.domain;
+
+/**
+ * Visits mountains one after the other without allocating, the coordinates being those of the current one.
+ */
+public interface MountainCursor {
+
+    /**
+     * Moves to the next mountain, to be called before reading the first one.
+     *
+     * @return false once all mountains were visited
+     */
+    boolean next();
+
+    int westEast();
+
+    int northSouth();
+}
@@ -0,0 +1,101 @@
+package org.example.domain;
+
+import static org.example.domain.LongIntHashMap.NO_VALUE;
+
+/**
+ * Cell-indexed view of what occupies the simulation, so that the checks performed on every forward move are O(1)
+ * instead of linear scans over the mountains, treasures and players lists.
+ * <p>
+ * Built by <code>SimulationBuilder</code> as features are added, then kept in sync by <code>Simulation</code> on every
+ * player move and treasure depletion. Mountains, which never change, are added once the simulation is built, as a
+ * <code>Terrain</code>. Only non-empty treasures are indexed, empty ones can never be collected again.
+ * <p>
+ * Cells are identified by their packed coordinates, and treasures and players by their index in the simulation lists,
+ * so that lookups neither box nor allocate.
+ */
+class OccupancyGrid {
+    static final int NONE = NO_VALUE;
+
+    private final Terrain terrain;
+    private final LongIntHashMap nonEmptyTreasures;
+    private LongIntHashMap players;
+
+    private OccupancyGrid(Terrain terrain,
+                          LongIntHashMap nonEmptyTreasures,
+                          LongIntHashMap players) {
+        this.terrain = terrain;
+        this.nonEmptyTreasures = nonEmptyTreasures;
+        this.players = players;
+    }
+
+    static OccupancyGrid empty() {
+        return new OccupancyGrid(MountainBitmap.EMPTY, new LongIntHashMap(), new LongIntHashMap());
+    }
+
+    /**
+     * @return a grid sharing the players and treasures of this one, with the given terrain, which never changes once
+     * the simulation is built
+     */
+    OccupancyGrid withTerrain(Terrain terrain) {
+        return new OccupancyGrid(terrain, nonEmptyTreasures, players);
+    }
+
+    /**
+     * @return a grid sharing the mountains of this one, which never change, but with no player nor treasure, to be
+     * filled with the ones of a region of the map
+     */
+    OccupancyGrid regionGrid() {
+        return new OccupancyGrid(terrain, new LongIntHashMap(), new LongIntHashMap());
+    }
+
+    void placePlayer(long position, int playerIndex) {
+        players.put(position, playerIndex);
+    }
+
+    void removePlayer(long position) {
+        players.remove(position);
+    }
+
+    /**
+     * Drops the players index, for an engine indexing the players on its own while it plays, which places them back
+     * once done.
+     */
+    void removeAllPlayers() {
+        players = new LongIntHashMap();
+    }
+
+    void placeNonEmptyTreasure(long position, int treasureIndex) {
+        nonEmptyTreasures.put(position, treasureIndex);
+    }
+
+    boolean hasMountainAt(long position) {
+        return terrain.hasMountainAt(PackedCoordinates.westEast(position), PackedCoordinates.northSouth(position));
+    }
+
+    boolean hasPlayerAt(long position) {
+        return players.containsKey(position);
+    }
+
+    /**
+     * @return the index of the player at the given position, or <code>NONE</code>
+     */
+    int playerAt(long position) {
+        return players.get(position);
+    }
+
+    /**
+     * @return the index of the non-empty treasure at the given position, or <code>NONE</code>
+     */
+    int nonEmptyTreasureAt(long position) {
+        return nonEmptyTreasures.get(position);
+    }
+
+    void movePlayer(long from, long to) {
+        int playerIndex = players.remove(from);
+        players.put(to, playerIndex);
+    }
+
+    void treasureDepleted(long position) {
+        nonEmptyTreasures.remove(position);
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.domain;
+
+import lombok.SneakyThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of all the players of a simulation held outside of the heap, the player index being its position in
+ * <code>Simulation.getPlayers()</code>. However many players are loaded, the garbage collector only sees a handful of
+ * buffer objects, so its pauses do not grow with them.
+ * <p>
+ * Each player has a fixed-width record in each of two regions:
+ * <ul>
+ *     <li>hot records, read and written every turn, walked in player order: coordinates, command cursor, orientation
+ *     ordinal and where its script lies in the command arena</li>
+ *     <li>cold records, only touched when collecting a treasure or for output: collected treasures and name id</li>
+ * </ul>
+ * Scripts are packed on 2 bits per command in a single command arena, each one starting on a byte boundary. Names are
+ * kept as UTF-8 in a separate string table, which is only read for output, one name at a time.
+ * <p>
+ * Each region is a temporary file mapped in memory, deleted as soon as it is mapped, rather than a direct buffer: direct
+ * buffers are capped by <code>-XX:MaxDirectMemorySize</code>, the heap size by default, whereas mapped files only
+ * depend on the memory and disk space of the machine, the operating system paging them out if needed. A buffer is
+ * indexed by an <code>int</code>, which caps each region at 2 GiB: about 89 million players, or 8 billion commands
+ * overall.
+ */
+final class OffHeapPlayerStates {
+    static final int HOT_RECORD_SIZE = 24;
+    private static final int WEST_EAST = 0;
+    private static final int NORTH_SOUTH = 4;
+    private static final int COMMAND_CURSOR = 8;
+    private static final int COMMANDS_LENGTH = 12;
+    private static final int COMMANDS_OFFSET = 16;
+    private static final int ORIENTATION = 20;
+    static final int COLD_RECORD_SIZE = 8;
+    private static final int COLLECTED_TREASURES = 0;
+    private static final int NAME_ID = 4;
+    private static final Command[] COMMANDS = Command.values();
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+    private final int count;
+    private final ByteBuffer hot;
+    private final ByteBuffer cold;
+    private final ByteBuffer commandArena;
+    private final NameTable names;
+
+    private OffHeapPlayerStates(int count, ByteBuffer hot, ByteBuffer cold, ByteBuffer commandArena, NameTable names) {
+        this.count = count;
+        this.hot = hot;
+        this.cold = cold;
+        this.commandArena = commandArena;
+        this.names = names;
+    }
+
+    static OffHeapPlayerStates of(List<Player> players) {
+        int count = players.size();
+        long arenaSize = 0;
+        for (Player player : players) {
+            arenaSize += bytesFor(player.getCommands().length() - player.getCommandCursor());
+        }
+        ByteBuffer hot = allocate((long) count * HOT_RECORD_SIZE, "players");
+        ByteBuffer cold = allocate((long) count * COLD_RECORD_SIZE, "players");
+        ByteBuffer commandArena = allocate(arenaSize, "commands");
+        NameTable.Builder names = new NameTable.Builder(count);
+        int commandsOffset = 0;
+        for (int i = 0; i < count; i++) {
+            Player player = players.get(i);
+            CommandScript commands = player.getCommands();
+            int remaining = commands.length() - player.getCommandCursor();
+            for (int command = 0; command < remaining; command++) {
+                int code = commands.commandAt(player.getCommandCursor() + command).ordinal();
+                int index = commandsOffset + (command >>> 2);
+                commandArena.put(index, (byte) (commandArena.get(index) | code << ((command & 3) << 1)));
+            }
+            long position = player.getPosition();
+            int record = i * HOT_RECORD_SIZE;
+            hot.putInt(record + WEST_EAST, PackedCoordinates.westEast(position));
+            hot.putInt(record + NORTH_SOUTH, PackedCoordinates.northSouth(position));
+            hot.putInt(record + COMMAND_CURSOR, 0);
+            hot.putInt(record + COMMANDS_LENGTH, remaining);
+            hot.putInt(record + COMMANDS_OFFSET, commandsOffset);
+            hot.put(record + ORIENTATION, (byte) player.getOrientation().ordinal());
+            cold.putInt(i * COLD_RECORD_SIZE + COLLECTED_TREASURES, player.getCollectedTreasuresCount());
+            cold.putInt(i * COLD_RECORD_SIZE + NAME_ID, names.add(player.getName()));
+            commandsOffset += bytesFor(remaining);
+        }
+        return new OffHeapPlayerStates(count, hot, cold, commandArena, names.build());
+    }
+
+    int count() {
+        return count;
+    }
+
+    int westEast(int player) {
+        return hot.getInt(player * HOT_RECORD_SIZE + WEST_EAST);
+    }
+
+    int northSouth(int player) {
+        return hot.getInt(player * HOT_RECORD_SIZE + NORTH_SOUTH);
+    }
+
+    long position(int player) {
+        return PackedCoordinates.pack(westEast(player), northSouth(player));
+    }
+
+    void moveTo(int player, int westEast, int northSouth) {
+        int record = player * HOT_RECORD_SIZE;
+        hot.putInt(record + WEST_EAST, westEast);
+        hot.putInt(record + NORTH_SOUTH, northSouth);
+    }
+
+    int orientation(int player) {
+        return hot.get(player * HOT_RECORD_SIZE + ORIENTATION);
+    }
+
+    void turnLeft(int player) {
+        hot.put(player * HOT_RECORD_SIZE + ORIENTATION, (byte) ((orientation(player) + 3) & 3));
+    }
+
+    void turnRight(int player) {
+        hot.put(player * HOT_RECORD_SIZE + ORIENTATION, (byte) ((orientation(player) + 1) & 3));
+    }
+
+    boolean hasRemainingCommands(int player) {
+        int record = player * HOT_RECORD_SIZE;
+        return hot.getInt(record + COMMAND_CURSOR) < hot.getInt(record + COMMANDS_LENGTH);
+    }
+
+    /**
+     * Must only be called if <code>hasRemainingCommands(player)</code>.
+     *
+     * @return the next command of the player, which is consumed
+     */
+    Command nextCommand(int player) {
+        int record = player * HOT_RECORD_SIZE;
+        int cursor = hot.getInt(record + COMMAND_CURSOR);
+        hot.putInt(record + COMMAND_CURSOR, cursor + 1);
+        return commandAt(hot.getInt(record + COMMANDS_OFFSET), cursor);
+    }
+
+    void collectTreasure(int player) {
+        int record = player * COLD_RECORD_SIZE + COLLECTED_TREASURES;
+        cold.putInt(record, cold.getInt(record) + 1);
+    }
+
+    /**
+     * Builds back a <code>Player</code> per record, when they are needed as objects. Players with commands left get
+     * them as a new script.
+     */
+    List<Player> toPlayers() {
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int record = i * HOT_RECORD_SIZE;
+            int cursor = hot.getInt(record + COMMAND_CURSOR);
+            int length = hot.getInt(record + COMMANDS_LENGTH);
+            int commandsOffset = hot.getInt(record + COMMANDS_OFFSET);
+            CommandScript.Builder remainingCommands = CommandScript.builder();
+            for (int command = cursor; command < length; command++) {
+                remainingCommands.append(commandAt(commandsOffset, command));
+            }
+            players.add(new Player(name(i),
+                    position(i),
+                    ORIENTATIONS[orientation(i)],
+                    collectedTreasuresCount(i),
+                    remainingCommands.build(),
+                    0));
+        }
+        return players;
+    }
+
+    /**
+     * Reads the records in place, for output: only the name of the current player is decoded.
+     */
+    PlayerCursor cursor() {
+        return new PlayerCursor() {
+            private int player = -1;
+
+            @Override
+            public boolean next() {
+                if (player + 1 >= count) {
+                    return false;
+                }
+                player++;
+                return true;
+            }
+
+            @Override
+            public String name() {
+                return OffHeapPlayerStates.this.name(player);
+            }
+
+            @Override
+            public int westEast() {
+                return OffHeapPlayerStates.this.westEast(player);
+            }
+
+            @Override
+            public int northSouth() {
+                return OffHeapPlayerStates.this.northSouth(player);
+            }
+
+            @Override
+            public Orientation orientation() {
+                return ORIENTATIONS[OffHeapPlayerStates.this.orientation(player)];
+            }
+
+            @Override
+            public int collectedTreasuresCount() {
+                return OffHeapPlayerStates.this.collectedTreasuresCount(player);
+            }
+        };
+    }
+
+    private String name(int player) {
+        return names.name(cold.getInt(player * COLD_RECORD_SIZE + NAME_ID));
+    }
+
+    private int collectedTreasuresCount(int player) {
+        return cold.getInt(player * COLD_RECORD_SIZE + COLLECTED_TREASURES);
+    }
+
+    private Command commandAt(int commandsOffset, int index) {
+        return COMMANDS[(commandArena.get(commandsOffset + (index >>> 2)) >>> ((index & 3) << 1)) & 3];
+    }
+
+    private static int bytesFor(int commandsCount) {
+        return (commandsCount + 3) >>> 2;
+    }
+
+    /**
+     * @return a zeroed buffer, which stays valid once its file is deleted and unmapped once garbage collected
+     */
+    @SneakyThrows
+    private static ByteBuffer allocate(long size, String content) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many %s to be held off-heap: %d bytes needed, %d at most"
+                    .formatted(content, size, Integer.MAX_VALUE));
+        }
+        Path file = Files.createTempFile("treasure-hunting-" + content.replace(' ', '-'), ".bin");
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Player names encoded in UTF-8 back to back, with the offset of each one.
+     */
+    private static final class NameTable {
+        private final ByteBuffer offsets;
+        private final ByteBuffer bytes;
+
+        private NameTable(ByteBuffer offsets, ByteBuffer bytes) {
+            this.offsets = offsets;
+            this.bytes = bytes;
+        }
+
+        String name(int nameId) {
+            int start = offsets.getInt(nameId * Integer.BYTES);
+            int end = offsets.getInt((nameId + 1) * Integer.BYTES);
+            byte[] name = new byte[end - start];
+            bytes.get(start, name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        private static final class Builder {
+            private final ByteBuffer offsets;
+            private ByteBuffer bytes;
+            private int namesCount;
+
+            Builder(int expectedCount) {
+                this.offsets = allocate((expectedCount + 1L) * Integer.BYTES, "players");
+                this.bytes = allocate(16L * expectedCount, "player names");
+            }
+
+            /**
+             * @return the id of the name
+             */
+            int add(String name) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.remaining() < encoded.length) {
+                    ByteBuffer grown = allocate(Math.max(Math.min(2L * bytes.capacity(), Integer.MAX_VALUE),
+                            (long) bytes.position() + encoded.length), "player names");
+                    bytes.flip();
+                    grown.put(bytes);
+                    bytes = grown;
+                }
+                bytes.put(encoded);
+                offsets.putInt((namesCount + 1) * Integer.BYTES, bytes.position());
+                return namesCount++;
+            }
+
+            NameTable build() {
+                return new NameTable(offsets, bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.domain;
+
+/**
+ * Alternative to <code>Simulation.run()</code> that plays the turns on <code>OffHeapPlayerStates</code>, for
+ * simulations with more players than the heap comfortably holds. The rules and the order in which players act are the
+ * same, so are the results.
+ * <p>
+ * The simulation hands its <code>Player</code> objects over when the engine is created, and they are dropped once
+ * copied off-heap. The records are given back to the simulation once the run is over, which formats the players
+ * straight from them: no <code>Player</code> is built again unless <code>Simulation.getPlayers()</code> is called.
+ */
+public final class OffHeapSimulationEngine {
+    private final Simulation simulation;
+    private final OccupancyGrid occupancyGrid;
+    private final TreasureStore treasures;
+    private final OffHeapPlayerStates players;
+    /**
+     * Same as in <code>Simulation</code>: indexes of the players still playing, in order, compacted every turn.
+     */
+    private final int[] activePlayers;
+    private int activePlayersCount;
+    private long turnsPlayed;
+
+    public OffHeapSimulationEngine(Simulation simulation) {
+        this.simulation = simulation;
+        this.occupancyGrid = simulation.getOccupancyGrid();
+        this.treasures = simulation.getTreasureStore();
+        this.players = OffHeapPlayerStates.of(simulation.handOverPlayers());
+        this.activePlayers = new int[players.count()];
+        for (int player = 0; player < players.count(); player++) {
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[activePlayersCount++] = player;
+            }
+        }
+    }
+
+    public void run() {
+        while (areCommandsRemaining()) {
+            playTurn();
+        }
+        simulation.takeBackPlayers(players, turnsPlayed);
+    }
+
+    void playTurn() {
+        int stillActiveCount = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int player = activePlayers[i];
+            switch (players.nextCommand(player)) {
+                case A -> moveForward(player);
+                case G -> players.turnLeft(player);
+                case D -> players.turnRight(player);
+            }
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[stillActiveCount++] = player;
+            }
+        }
+        activePlayersCount = stillActiveCount;
+        turnsPlayed++;
+    }
+
+    private void moveForward(int player) {
+        int westEast = players.westEast(player);
+        int northSouth = players.northSouth(player);
+        switch (players.orientation(player)) {
+            case 0 -> northSouth--;
+            case 1 -> westEast++;
+            case 2 -> northSouth++;
+            default -> westEast--;
+        }
+        long futurePosition = PackedCoordinates.pack(westEast, northSouth);
+        if (simulation.isOutOfBound(futurePosition)
+            || occupancyGrid.hasMountainAt(futurePosition)
+            || occupancyGrid.hasPlayerAt(futurePosition)) {
+            return;
+        }
+        occupancyGrid.movePlayer(players.position(player), futurePosition);
+        players.moveTo(player, westEast, northSouth);
+        collectTreasureIfApplicable(player, futurePosition);
+    }
+
+    private void collectTreasureIfApplicable(int player, long position) {
+        int treasureIndex = occupancyGrid.nonEmptyTreasureAt(position);
+        if (treasureIndex == OccupancyGrid.NONE) {
+            return;
+        }
+        if (treasures.collect(treasureIndex) == 0) {
+            occupancyGrid.treasureDepleted(position);
+        }
+        players.collectTreasure(player);
+    }
+
+    private boolean areCommandsRemaining() {
+        return activePlayersCount > 0;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.domain;
+
+import java.util.Arrays;
+
+/**
+ * Commands packed on 2 bits each, 32 commands per <code>long</code>, the code of a command being its ordinal. Reading
+ * a command allocates nothing.
+ */
+final class PackedCommandScript implements CommandScript {
+    static final PackedCommandScript EMPTY = new PackedCommandScript(new long[0], 0);
+    private static final Command[] COMMANDS = Command.values();
+    private static final int COMMANDS_PER_WORD = 32;
+
+    private final long[] words;
+    private final int length;
+
+    private PackedCommandScript(long[] words, int length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public Command commandAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Command %d out of script of length %d".formatted(index, length));
+        }
+        int code = (int) (words[index >>> 5] >>> ((index & 31) << 1)) & 3;
+        return COMMANDS[code];
+    }
+
+    @Override
+    public String toString() {
+        return CommandScript.toString(this);
+    }
+
+    static final class Builder implements CommandScript.Builder {
+        private long[] words;
+        private int length;
+
+        Builder(int expectedLength) {
+            this.words = new long[wordsFor(expectedLength)];
+        }
+
+        @Override
+        public Builder append(Command command) {
+            int word = length >>> 5;
+            if (word == words.length) {
+                words = Arrays.copyOf(words, Math.max(1, words.length * 2));
+            }
+            words[word] |= (long) command.ordinal() << ((length & 31) << 1);
+            length++;
+            return this;
+        }
+
+        @Override
+        public CommandScript build() {
+            if (length == 0) {
+                return EMPTY;
+            }
+            return new PackedCommandScript(Arrays.copyOf(words, wordsFor(length)), length);
+        }
+
+        static int wordsFor(int length) {
+            return (length + COMMANDS_PER_WORD - 1) / COMMANDS_PER_WORD;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.domain;
+
+/**
+ * Internal representation of coordinates as a single primitive <code>long</code>: west-east in the high 32 bits,
+ * north-south in the low 32 bits. Used on the simulation hot path so that moving a player allocates nothing;
+ * <code>Coordinates</code> remains the type exposed by the public API and used for output.
+ * <p>
+ * Arithmetic on the components behaves exactly as the <code>int</code> arithmetic of <code>Coordinates</code>.
+ */
+final class PackedCoordinates {
+
+    private PackedCoordinates() {
+    }
+
+    static long pack(int westEast, int northSouth) {
+        return ((long) westEast << 32) | (northSouth & 0xFFFFFFFFL);
+    }
+
+    static long pack(Coordinates coordinates) {
+        return pack(coordinates.westEast(), coordinates.northSouth());
+    }
+
+    static int westEast(long position) {
+        return (int) (position >> 32);
+    }
+
+    static int northSouth(long position) {
+        return (int) position;
+    }
+
+    static Coordinates unpack(long position) {
+        return new Coordinates(westEast(position), northSouth(position));
+    }
+
+    static long northOf(long position) {
+        return pack(westEast(position), northSouth(position) - 1);
+    }
+
+    static long southOf(long position) {
+        return pack(westEast(position), northSouth(position) + 1);
+    }
+
+    static long eastOf(long position) {
+        return pack(westEast(position) + 1, northSouth(position));
+    }
+
+    static long westOf(long position) {
+        return pack(westEast(position) - 1, northSouth(position));
+    }
+
+    static long next(long position, Orientation orientation) {
+        return switch (orientation) {
+            case NORTH -> northOf(position);
+            case EAST -> eastOf(position);
+            case SOUTH -> southOf(position);
+            case WEST -> westOf(position);
+        };
+    }
+}
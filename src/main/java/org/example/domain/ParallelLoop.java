@@ -0,0 +1,51 @@
+package org.example.domain;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a loop body over a range of indexes on a fork-join pool, splitting the range in halves down to a grain size.
+ * Ranges not larger than the grain are run inline on the calling thread.
+ */
+final class ParallelLoop {
+
+    private ParallelLoop() {
+    }
+
+    static void forEach(ForkJoinPool pool, int from, int to, int grain, IntConsumer body) {
+        if (to - from <= grain) {
+            for (int i = from; i < to; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new RangeTask(from, to, grain, body));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final IntConsumer body;
+
+        private RangeTask(int from, int to, int grain, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, body), new RangeTask(middle, to, grain, body));
+        }
+    }
+}
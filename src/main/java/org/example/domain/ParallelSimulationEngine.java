@@ -0,0 +1,244 @@
+package org.example.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays the turns of a simulation on several cores, with exactly the same results as <code>Simulation.run()</code>.
+ * <p>
+ * The map is split in vertical strips, the regions, each owning the players and treasures located in its columns.
+ * A player executing a command only reads and writes its current cell and the one in front of it, so as long as both
+ * are in the same region, it cannot interact with players of other regions. Within a turn, the players are processed
+ * in order, by waves: the players up to the next one about to cross into another region are bucketed by region, and
+ * each region processes its bucket in order, concurrently with the others. The crossing player then plays alone, with
+ * everything before it done and nothing after it started, as in the sequential order.
+ * <p>
+ * Maps with many players crossing strips in every turn degrade to sequential waves, but never to different results.
+ */
+public final class ParallelSimulationEngine {
+    private final Simulation simulation;
+    private final ForkJoinPool pool;
+    private final TreasureStore treasures;
+    private final PlayerStates players;
+    private final int width;
+    private final int regionWidth;
+    private final int regionsCount;
+    private final OccupancyGrid[] regionGrids;
+    private final long[] initialPositions;
+
+    private final int[] activePlayers;
+    private int activePlayersCount;
+    private long turnsPlayed;
+    /**
+     * Players of the current wave sorted by region, the ones of region r being in
+     * <code>[regionStarts[r], regionStarts[r + 1])</code>, in turn order.
+     */
+    private final int[] wavePlayers;
+    private final int[] regionStarts;
+    private final IntConsumer playRegion = this::playRegion;
+
+    public ParallelSimulationEngine(Simulation simulation) {
+        this(simulation, ForkJoinPool.commonPool(), 4 * ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * @param regionsCount number of strips the map is split into, capped to the width of the map
+     */
+    public ParallelSimulationEngine(Simulation simulation, ForkJoinPool pool, int regionsCount) {
+        if (regionsCount <= 0) {
+            throw new IllegalArgumentException("Regions count must be greater than zero but was %d".formatted(regionsCount));
+        }
+        this.simulation = simulation;
+        this.pool = pool;
+        this.treasures = simulation.getTreasureStore();
+        this.players = PlayerStates.of(simulation.handOverPlayers());
+        this.width = simulation.getSize().width();
+        this.regionWidth = (int) Math.ceilDiv((long) width, Math.min(regionsCount, width));
+        this.regionsCount = (int) Math.ceilDiv((long) width, regionWidth);
+        this.regionGrids = new OccupancyGrid[this.regionsCount];
+        for (int region = 0; region < this.regionsCount; region++) {
+            regionGrids[region] = simulation.getOccupancyGrid().regionGrid();
+        }
+        this.initialPositions = new long[players.count()];
+        this.activePlayers = new int[players.count()];
+        for (int player = 0; player < players.count(); player++) {
+            initialPositions[player] = players.position(player);
+            regionGrids[regionOf(players.westEast[player])].placePlayer(initialPositions[player], player);
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[activePlayersCount++] = player;
+            }
+        }
+        for (int i = 0; i < treasures.size(); i++) {
+            if (treasures.quantity(i) > 0) {
+                regionGrids[regionOf(treasures.westEast(i))].placeNonEmptyTreasure(treasures.position(i), i);
+            }
+        }
+        this.wavePlayers = new int[players.count()];
+        this.regionStarts = new int[this.regionsCount + 1];
+    }
+
+    public void run() {
+        while (activePlayersCount > 0) {
+            playTurn();
+        }
+        simulation.takeBackPlayers(players.toPlayers(), turnsPlayed);
+        synchronizeSimulationGrid();
+    }
+
+    void playTurn() {
+        int waveStart = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int player = activePlayers[i];
+            int targetRegion = crossedRegion(player);
+            if (targetRegion >= 0) {
+                playWave(waveStart, i);
+                playCrossingMove(player, targetRegion);
+                waveStart = i + 1;
+            }
+        }
+        playWave(waveStart, activePlayersCount);
+
+        int stillActiveCount = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int player = activePlayers[i];
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[stillActiveCount++] = player;
+            }
+        }
+        activePlayersCount = stillActiveCount;
+        turnsPlayed++;
+    }
+
+    /**
+     * @return the region the player is about to move into if it is not its own, -1 otherwise
+     */
+    private int crossedRegion(int player) {
+        if (players.commands[player].commandAt(players.commandCursors[player]) != Command.A) {
+            return -1;
+        }
+        int westEast = players.westEast[player];
+        int targetWestEast = switch (players.orientations[player]) {
+            case 1 -> westEast + 1;
+            case 3 -> westEast - 1;
+            default -> westEast;
+        };
+        if (targetWestEast < 0 || targetWestEast >= width) {
+            return -1;
+        }
+        int targetRegion = regionOf(targetWestEast);
+        return targetRegion == regionOf(westEast) ? -1 : targetRegion;
+    }
+
+    /**
+     * Plays the players of the active list in <code>[from, to)</code>, none of which leaves its region.
+     */
+    private void playWave(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        if (regionsCount == 1 || to - from == 1) {
+            for (int i = from; i < to; i++) {
+                int player = activePlayers[i];
+                playCommand(player, regionGrids[regionOf(players.westEast[player])]);
+            }
+            return;
+        }
+        // stable counting sort of the wave by region
+        Arrays.fill(regionStarts, 0);
+        for (int i = from; i < to; i++) {
+            regionStarts[regionOf(players.westEast[activePlayers[i]]) + 1]++;
+        }
+        for (int region = 0; region < regionsCount; region++) {
+            regionStarts[region + 1] += regionStarts[region];
+        }
+        for (int i = from; i < to; i++) {
+            int player = activePlayers[i];
+            wavePlayers[regionStarts[regionOf(players.westEast[player])]++] = player;
+        }
+        for (int region = regionsCount; region > 0; region--) {
+            regionStarts[region] = regionStarts[region - 1];
+        }
+        regionStarts[0] = 0;
+        ParallelLoop.forEach(pool, 0, regionsCount, 1, playRegion);
+    }
+
+    private void playRegion(int region) {
+        OccupancyGrid grid = regionGrids[region];
+        for (int i = regionStarts[region]; i < regionStarts[region + 1]; i++) {
+            playCommand(wavePlayers[i], grid);
+        }
+    }
+
+    private void playCommand(int player, OccupancyGrid grid) {
+        int cursor = players.commandCursors[player];
+        players.commandCursors[player] = cursor + 1;
+        switch (players.commands[player].commandAt(cursor)) {
+            case A -> moveForward(player, grid, grid);
+            case G -> players.turnLeft(player);
+            case D -> players.turnRight(player);
+        }
+    }
+
+    private void playCrossingMove(int player, int targetRegion) {
+        players.commandCursors[player]++;
+        moveForward(player, regionGrids[regionOf(players.westEast[player])], regionGrids[targetRegion]);
+    }
+
+    private void moveForward(int player, OccupancyGrid currentGrid, OccupancyGrid targetGrid) {
+        int westEast = players.westEast[player];
+        int northSouth = players.northSouth[player];
+        switch (players.orientations[player]) {
+            case 0 -> northSouth--;
+            case 1 -> westEast++;
+            case 2 -> northSouth++;
+            default -> westEast--;
+        }
+        long futurePosition = PackedCoordinates.pack(westEast, northSouth);
+        if (simulation.isOutOfBound(futurePosition)
+            || targetGrid.hasMountainAt(futurePosition)
+            || targetGrid.hasPlayerAt(futurePosition)) {
+            return;
+        }
+        currentGrid.removePlayer(players.position(player));
+        targetGrid.placePlayer(futurePosition, player);
+        players.westEast[player] = westEast;
+        players.northSouth[player] = northSouth;
+
+        int treasureIndex = targetGrid.nonEmptyTreasureAt(futurePosition);
+        if (treasureIndex == OccupancyGrid.NONE) {
+            return;
+        }
+        if (treasures.collect(treasureIndex) == 0) {
+            targetGrid.treasureDepleted(futurePosition);
+        }
+        players.collectedTreasures[player]++;
+    }
+
+    private int regionOf(int westEast) {
+        return westEast / regionWidth;
+    }
+
+    /**
+     * Brings the grid of the simulation up to date with the moves and depletions made on the region grids. Players
+     * are all removed before being placed again, as a player may have moved to the former cell of another.
+     */
+    private void synchronizeSimulationGrid() {
+        OccupancyGrid grid = simulation.getOccupancyGrid();
+        for (int player = 0; player < players.count(); player++) {
+            if (initialPositions[player] != players.position(player)) {
+                grid.removePlayer(initialPositions[player]);
+            }
+        }
+        for (int player = 0; player < players.count(); player++) {
+            if (initialPositions[player] != players.position(player)) {
+                grid.placePlayer(players.position(player), player);
+            }
+        }
+        for (int i = 0; i < treasures.size(); i++) {
+            if (treasures.quantity(i) == 0) {
+                grid.treasureDepleted(treasures.position(i));
+            }
+        }
+    }
+}
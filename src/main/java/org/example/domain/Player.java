@@ -1,11 +1,12 @@
 package org.example.domain;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.With;
 
-import java.util.*;
+import java.util.Collection;
 
 import static java.util.Collections.emptyList;
 
@@ -21,6 +22,12 @@ import static java.util.Collections.emptyList;
  * "treasuresCount", but as we know for sure they are in the requirements, it seems appropriate enough to me to do
  * introduce them before the tests. It does not appear as meaningless future-proofing.
  * <p>
+ * ETA3: the position is kept packed in a primitive <code>long</code>, so that moving does not allocate. Coordinates are
+ * only materialised when requested through the public API.
+ * <p>
+ * ETA4: commands are kept in a <code>CommandScript</code> consumed through a cursor rather than dequeued, either packed
+ * or read on demand from the input file.
+ * <p>
  * TODO à confirmer avec le PO: je pars du principe qu'il est ok que les joueurs n'aient pas une liste de commandes de taille égale et aucune validation n'est exécutée dessus. Vous confirmez ?
  */
 @Getter
@@ -30,10 +37,19 @@ import static java.util.Collections.emptyList;
 public class Player implements CanIntersectWith {
     @EqualsAndHashCode.Include
     private final String name;
-    private Coordinates coordinates;
+    @Getter(AccessLevel.PACKAGE)
+    @With(AccessLevel.NONE)
+    @ToString.Exclude
+    private long position;
     private Orientation orientation;
     private int collectedTreasuresCount;
-    private Queue<Command> remainingCommands;
+    @Getter(AccessLevel.PACKAGE)
+    @With(AccessLevel.NONE)
+    private CommandScript commands;
+    @Getter(AccessLevel.PACKAGE)
+    @With(AccessLevel.NONE)
+    @ToString.Exclude
+    private int commandCursor;
 
     public Player(String name, Coordinates coordinates, Orientation orientation) {
         this(name, coordinates, orientation, emptyList());
@@ -43,15 +59,19 @@ public class Player implements CanIntersectWith {
                   Coordinates coordinates,
                   Orientation orientation,
                   Collection<Command> remainingCommands) {
-        this.orientation = orientation;
-        this.name = name;
-        this.coordinates = coordinates;
-        this.collectedTreasuresCount = 0;
-        this.remainingCommands = new ArrayDeque<>(remainingCommands);
+        this(name, coordinates, orientation, 0, remainingCommands);
+    }
+
+    public Player(String name,
+                  Coordinates coordinates,
+                  Orientation orientation,
+                  CommandScript commands) {
+        this(name, PackedCoordinates.pack(coordinates), orientation, 0, commands, 0);
     }
 
     /**
-     * Explicitely defined all-args constructor instead of lombok one, to pass commands as a list but use it as a queue.
+     * Explicitely defined all-args constructor instead of lombok one, to pass commands as a list but store them as a
+     * packed script consumed through a cursor.
      * @param name
      * @param coordinates
      * @param orientation
@@ -63,20 +83,54 @@ public class Player implements CanIntersectWith {
                   Orientation orientation,
                   int collectedTreasuresCount,
                   Collection<Command> remainingCommands) {
+        this(name,
+                PackedCoordinates.pack(coordinates),
+                orientation,
+                collectedTreasuresCount,
+                CommandScript.of(remainingCommands),
+                0);
+    }
+
+    /**
+     * All-args constructor on the internal representation, used by the <code>with</code> methods and by the engines
+     * building back the players they played.
+     */
+    Player(String name,
+           long position,
+           Orientation orientation,
+           int collectedTreasuresCount,
+           CommandScript commands,
+           int commandCursor) {
         this.name = name;
-        this.coordinates = coordinates;
+        this.position = position;
         this.orientation = orientation;
         this.collectedTreasuresCount = collectedTreasuresCount;
-        this.remainingCommands = new ArrayDeque<>(remainingCommands);
+        this.commands = commands;
+        this.commandCursor = commandCursor;
+        releaseCommandsIfConsumed();
+    }
+
+    @ToString.Include
+    public Coordinates getCoordinates() {
+        return PackedCoordinates.unpack(position);
+    }
+
+    public Player withCoordinates(Coordinates coordinates) {
+        return new Player(name,
+                PackedCoordinates.pack(coordinates),
+                orientation,
+                collectedTreasuresCount,
+                commands,
+                commandCursor);
+    }
+
+    @Override
+    public boolean intersectsWith(Coordinates otherCoordinates) {
+        return otherCoordinates != null && position == PackedCoordinates.pack(otherCoordinates);
     }
 
     void moveForward() {
-        switch (getOrientation()) {
-            case NORTH -> coordinates = coordinates.northOf();
-            case EAST -> coordinates = coordinates.eastOf();
-            case SOUTH -> coordinates = coordinates.southOf();
-            case WEST -> coordinates = coordinates.westOf();
-        }
+        position = getFuturePosition();
     }
 
 
@@ -88,24 +142,61 @@ public class Player implements CanIntersectWith {
         this.orientation = this.orientation.rightOf();
     }
 
-    Coordinates getFuturePosition() {
-        return switch (getOrientation()) {
-            case NORTH -> coordinates.northOf();
-            case EAST -> coordinates.eastOf();
-            case SOUTH -> coordinates.southOf();
-            case WEST -> coordinates.westOf();
-        };
+    /**
+     * @return the packed position the player would reach by moving forward
+     */
+    long getFuturePosition() {
+        return PackedCoordinates.next(position, orientation);
     }
 
     void collectTreasure() {
         this.collectedTreasuresCount++;
     }
 
-    Optional<Command> pollNextCommand() {
-        return Optional.ofNullable(this.remainingCommands.poll());
+    /**
+     * Overwrites the state of the player with the one computed by another engine.
+     *
+     * @param commandCursor index of the next command to execute in the script of the player
+     */
+    void restore(long position, Orientation orientation, int collectedTreasuresCount, int commandCursor) {
+        this.position = position;
+        this.orientation = orientation;
+        this.collectedTreasuresCount = collectedTreasuresCount;
+        this.commandCursor = commandCursor;
+        releaseCommandsIfConsumed();
+    }
+
+    /**
+     * Gives the player back its whole script, released if it was done, before restoring it to a point where it was
+     * still playing.
+     */
+    void reinstateCommands(CommandScript commands) {
+        this.commands = commands;
+        this.commandCursor = 0;
     }
 
     boolean hasRemainingCommands() {
-        return !getRemainingCommands().isEmpty();
+        return commandCursor < commands.length();
+    }
+
+    /**
+     * Must only be called if <code>hasRemainingCommands()</code>.
+     *
+     * @return the next command, which is consumed
+     */
+    Command nextCommand() {
+        Command command = commands.commandAt(commandCursor++);
+        releaseCommandsIfConsumed();
+        return command;
+    }
+
+    /**
+     * A fully consumed script is dropped, so that players who are done do not retain it.
+     */
+    private void releaseCommandsIfConsumed() {
+        if (commandCursor == commands.length()) {
+            commands = CommandScript.EMPTY;
+            commandCursor = 0;
+        }
     }
 }
@@ -0,0 +1,25 @@
+package org.example.domain;
+
+/**
+ * Visits players one after the other, in input order, the state being that of the current one. Unlike
+ * <code>Simulation.getPlayers()</code>, no <code>Player</code> is built for players an engine holds off-heap.
+ */
+public interface PlayerCursor {
+
+    /**
+     * Moves to the next player, to be called before reading the first one.
+     *
+     * @return false once all players were visited
+     */
+    boolean next();
+
+    String name();
+
+    int westEast();
+
+    int northSouth();
+
+    Orientation orientation();
+
+    int collectedTreasuresCount();
+}
@@ -0,0 +1,87 @@
+package org.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of all the players of a simulation laid out as parallel primitive arrays, the player index being its position
+ * in <code>Simulation.getPlayers()</code>. Walking the players of a turn then reads contiguous memory instead of
+ * chasing a handful of references per player.
+ * <p>
+ * Orientations are stored as ordinals of <code>Orientation</code>, whose declaration order is clockwise, so that
+ * turning is a modular increment.
+ */
+final class PlayerStates {
+    private final int count;
+    private final String[] names;
+    final int[] westEast;
+    final int[] northSouth;
+    final byte[] orientations;
+    final int[] collectedTreasures;
+    final int[] commandCursors;
+    final CommandScript[] commands;
+
+    private PlayerStates(int count) {
+        this.count = count;
+        this.names = new String[count];
+        this.westEast = new int[count];
+        this.northSouth = new int[count];
+        this.orientations = new byte[count];
+        this.collectedTreasures = new int[count];
+        this.commandCursors = new int[count];
+        this.commands = new CommandScript[count];
+    }
+
+    static PlayerStates of(List<Player> players) {
+        PlayerStates states = new PlayerStates(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            states.names[i] = player.getName();
+            long position = player.getPosition();
+            states.westEast[i] = PackedCoordinates.westEast(position);
+            states.northSouth[i] = PackedCoordinates.northSouth(position);
+            states.orientations[i] = (byte) player.getOrientation().ordinal();
+            states.collectedTreasures[i] = player.getCollectedTreasuresCount();
+            states.commands[i] = player.getCommands();
+            states.commandCursors[i] = player.getCommandCursor();
+        }
+        return states;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long position(int player) {
+        return PackedCoordinates.pack(westEast[player], northSouth[player]);
+    }
+
+    boolean hasRemainingCommands(int player) {
+        return commandCursors[player] < commands[player].length();
+    }
+
+    void turnLeft(int player) {
+        orientations[player] = (byte) ((orientations[player] + 3) & 3);
+    }
+
+    void turnRight(int player) {
+        orientations[player] = (byte) ((orientations[player] + 1) & 3);
+    }
+
+    /**
+     * Builds back a <code>Player</code> per player, for output.
+     */
+    List<Player> toPlayers() {
+        Orientation[] orientationValues = Orientation.values();
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Player(names[i],
+                    position(i),
+                    orientationValues[orientations[i]],
+                    collectedTreasures[i],
+                    commands[i],
+                    commandCursors[i]));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.domain;
+
+/**
+ * <code>LongIntHashMap</code> split by key hash into independent maps, so that several threads can update it at once
+ * as long as each one only touches the keys of its own shards.
+ * <p>
+ * Shards are picked from the high bits of the hash, as the maps pick their slots from its low bits: the keys of a shard
+ * would otherwise all land in the same fraction of its slots.
+ * <p>
+ * Not thread-safe across shards.
+ */
+final class ShardedLongIntHashMap {
+    private final LongIntHashMap[] shards;
+    private final int shift;
+
+    /**
+     * @param shardsCount a power of two
+     */
+    ShardedLongIntHashMap(int shardsCount, int expectedSize) {
+        if (shardsCount < 2 || Integer.bitCount(shardsCount) != 1) {
+            throw new IllegalArgumentException("Shards count must be a power of two greater than one but was %d"
+                    .formatted(shardsCount));
+        }
+        this.shards = new LongIntHashMap[shardsCount];
+        for (int shard = 0; shard < shardsCount; shard++) {
+            shards[shard] = new LongIntHashMap(expectedSize / shardsCount);
+        }
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(shardsCount);
+    }
+
+    int shardsCount() {
+        return shards.length;
+    }
+
+    int shardOf(long key) {
+        return (int) (LongIntHashMap.hash(key) >>> shift);
+    }
+
+    LongIntHashMap shard(int shard) {
+        return shards[shard];
+    }
+
+    /**
+     * @return the value associated to the key, or <code>NO_VALUE</code> if absent
+     */
+    int get(long key) {
+        return shards[shardOf(key)].get(key);
+    }
+
+    int put(long key, int value) {
+        return shards[shardOf(key)].put(key, value);
+    }
+}
@@ -1,9 +1,10 @@
 package org.example.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static java.util.stream.Collectors.groupingBy;
 
@@ -23,24 +24,198 @@ public class Simulation {
     // TODO question au PO: min et max pour la largeur et la hauteur de la carte ? Si oui, amha, la validation devrait être sortie de la classe Simulation, mais il y a de bons arguments pour le contraire.
     private final Size size;
     // TODO question au PO: min montagnes: 0  1 ? max montagnes: un nombre constant, en entrée de l'application, ou calculé en fonction de la taille de la carte et du nombre de features ?
-    private final List<Mountain> mountains;
+    private final Terrain terrain;
     // TODO question au PO: min trésors: 0 ou 1 ? max trésors: un nombre constant, en entrée de l'application, ou calculé en
-    private final List<Treasure> treasures;
+    private final TreasureStore treasureStore;
     // TODO question au PO: min joueur: 0 ou 1 ? max joueurs: un nombre constant, en entrée de l'application, ou calculé en
-    private final List<Player> players;
+    /**
+     * Empty while an engine playing on its own copy of the players holds them, see <code>handOverPlayers()</code>.
+     */
+    @Getter(AccessLevel.NONE)
+    private List<Player> players;
+    /**
+     * The players as left by an off-heap engine, read in place for output until they are needed as objects, see
+     * <code>getPlayers()</code>. <code>null</code> otherwise.
+     */
+    @Getter(AccessLevel.NONE)
+    private OffHeapPlayerStates offHeapPlayers;
+    @Getter(AccessLevel.PACKAGE)
+    private final OccupancyGrid occupancyGrid;
+    /**
+     * Indexes of the players that still have commands to execute, in the order of <code>players</code>. Compacted as
+     * players run out of commands, so that a turn only visits the players still playing.
+     */
+    @Getter(AccessLevel.NONE)
+    private final int[] activePlayers;
+    private int activePlayersCount;
+    /**
+     * Number of turns played so far.
+     */
+    private long turn;
+    @Getter(AccessLevel.NONE)
+    private SimulationListener listener = SimulationListener.NONE;
+    /**
+     * The part of the listener notified of what each player does, called directly rather than through a composite
+     * listener whose other members only wait for the end of the turn.
+     */
+    @Getter(AccessLevel.NONE)
+    private SimulationListener stepListener = SimulationListener.NONE;
+    /**
+     * Whether a step listener is set, checked before building any notification so that none costs more than a branch.
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean notifying;
+    /**
+     * Index of the player currently executing its command.
+     */
+    @Getter(AccessLevel.NONE)
+    private int playingIndex;
 
     /**
      * Do not call directly, use <code>SimulationBuilder</code> instead.
      * @param size
-     * @param mountains
-     * @param treasures
+     * @param mountains only read to fill a <code>MountainBitmap</code>, the terrain of the simulation
+     * @param treasures only read to fill the treasure store, so that treasure objects are not kept during the run
      * @param players
+     * @param occupancyGrid index of the treasures and players above, kept in sync by the simulation as players move
      */
-    Simulation(Size size, List<Mountain> mountains, List<Treasure> treasures, List<Player> players) {
+    Simulation(Size size, List<Mountain> mountains, List<Treasure> treasures, List<Player> players, OccupancyGrid occupancyGrid) {
+        this(size, MountainBitmap.of(mountains), treasures, players, occupancyGrid);
+    }
+
+    Simulation(Size size, Terrain terrain, List<Treasure> treasures, List<Player> players, OccupancyGrid occupancyGrid) {
         this.size = size;
-        this.mountains = mountains;
-        this.treasures = treasures;
+        this.terrain = terrain;
+        this.treasureStore = TreasureStore.of(treasures);
         this.players = players;
+        this.occupancyGrid = occupancyGrid.withTerrain(terrain);
+        this.activePlayers = new int[players.size()];
+        collectActivePlayers();
+    }
+
+    private void collectActivePlayers() {
+        activePlayersCount = 0;
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).hasRemainingCommands()) {
+                activePlayers[activePlayersCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Lets an engine keep the players elsewhere during its run, so that the simulation does not retain the
+     * <code>Player</code> objects meanwhile. The simulation must not be run until <code>takeBackPlayers</code>.
+     *
+     * @return the players, now referenced by the caller only
+     */
+    List<Player> handOverPlayers() {
+        List<Player> handedOver = players;
+        players = List.of();
+        return handedOver;
+    }
+
+    /**
+     * Active players are collected again, as the engine played turns on its own copy of the players.
+     *
+     * @param players     the players handed over, in the same order, with the state computed by the engine
+     * @param turnsPlayed number of turns the engine played meanwhile
+     */
+    void takeBackPlayers(List<Player> players, long turnsPlayed) {
+        this.players = players;
+        this.turn += turnsPlayed;
+        collectActivePlayers();
+    }
+
+    /**
+     * Keeps the players where an off-heap engine left them rather than building a <code>Player</code> per record, as
+     * output only needs to read them once.
+     *
+     * @param players     the players handed over, in the same order, all done as the engine ran until the end
+     * @param turnsPlayed number of turns the engine played meanwhile
+     */
+    void takeBackPlayers(OffHeapPlayerStates players, long turnsPlayed) {
+        this.offHeapPlayers = players;
+        this.turn += turnsPlayed;
+        activePlayersCount = 0;
+    }
+
+    /**
+     * Builds the players back from the records of an off-heap engine, if it held them, which the heap must then afford.
+     * Output should rather visit them with <code>players()</code>.
+     */
+    public List<Player> getPlayers() {
+        if (offHeapPlayers != null) {
+            players = offHeapPlayers.toPlayers();
+            offHeapPlayers = null;
+        }
+        return players;
+    }
+
+    /**
+     * @return a cursor over the players, in input order, that builds no <code>Player</code> when an off-heap engine
+     * holds them
+     */
+    public PlayerCursor players() {
+        if (offHeapPlayers != null) {
+            return offHeapPlayers.cursor();
+        }
+        return new PlayerCursor() {
+            private int index = -1;
+            private Player player;
+
+            @Override
+            public boolean next() {
+                if (index + 1 >= players.size()) {
+                    return false;
+                }
+                player = players.get(++index);
+                return true;
+            }
+
+            @Override
+            public String name() {
+                return player.getName();
+            }
+
+            @Override
+            public int westEast() {
+                return PackedCoordinates.westEast(player.getPosition());
+            }
+
+            @Override
+            public int northSouth() {
+                return PackedCoordinates.northSouth(player.getPosition());
+            }
+
+            @Override
+            public Orientation orientation() {
+                return player.getOrientation();
+            }
+
+            @Override
+            public int collectedTreasuresCount() {
+                return player.getCollectedTreasuresCount();
+            }
+        };
+    }
+
+    /**
+     * @return copies of the mountains, in input order
+     */
+    public List<Mountain> getMountains() {
+        List<Mountain> mountains = new ArrayList<>();
+        MountainCursor cursor = terrain.mountains();
+        while (cursor.next()) {
+            mountains.add(new Mountain(cursor.westEast(), cursor.northSouth()));
+        }
+        return mountains;
+    }
+
+    /**
+     * @return copies of the treasures with their current quantities, empty ones included, in input order
+     */
+    public List<Treasure> getTreasures() {
+        return treasureStore.toTreasures();
     }
 
     public static SimulationBuilder builder() {
@@ -50,71 +225,211 @@ public class Simulation {
     public void run() {
         while (areCommandsRemaining()) {
             playTurn();
+            listener.turnPlayed(this);
         }
     }
 
-    void playTurn() {
+    /**
+     * @param listener notified by <code>run()</code>, replacing the previous one
+     */
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+        this.stepListener = SimulationListeners.stepListener(listener);
+        this.notifying = stepListener != SimulationListener.NONE;
+    }
+
+    /**
+     * Must be called between two turns, typically from <code>SimulationListener.turnPlayed</code>.
+     */
+    public SimulationSnapshot snapshot() {
+        List<Player> players = getPlayers();
+        int playersCount = players.size();
+        int[] westEast = new int[playersCount];
+        int[] northSouth = new int[playersCount];
+        byte[] orientations = new byte[playersCount];
+        int[] collectedTreasures = new int[playersCount];
+        int[] commandCursors = new int[playersCount];
+        for (int i = 0; i < playersCount; i++) {
+            Player player = players.get(i);
+            westEast[i] = PackedCoordinates.westEast(player.getPosition());
+            northSouth[i] = PackedCoordinates.northSouth(player.getPosition());
+            orientations[i] = (byte) player.getOrientation().ordinal();
+            collectedTreasures[i] = player.getCollectedTreasuresCount();
+            commandCursors[i] = player.hasRemainingCommands() ? player.getCommandCursor() : SimulationSnapshot.FINISHED;
+        }
+        return new SimulationSnapshot(turn,
+                westEast,
+                northSouth,
+                orientations,
+                collectedTreasures,
+                commandCursors,
+                treasureStore.copyQuantities());
+    }
+
+    /**
+     * Puts the simulation back in the state of the snapshot, which must have been taken from a simulation built from
+     * the same input. Running it afterward gives the same results as the simulation the snapshot was taken from.
+     * <p>
+     * Players release their commands once they are all executed, so a player who is done cannot be restored to a point
+     * where it was still playing: restoring to an earlier turn requires a freshly built simulation.
+     */
+    public void restore(SimulationSnapshot snapshot) {
+        // the players an off-heap engine left are built back, as they are restored in place
+        getPlayers();
+        checkMatches(snapshot);
+        for (int i = 0; i < players.size(); i++) {
+            if (snapshot.commandCursors()[i] != SimulationSnapshot.FINISHED && !players.get(i).hasRemainingCommands()) {
+                throw new IllegalStateException("Player %s is done and cannot be restored to a turn it was still playing"
+                        .formatted(players.get(i).getName()));
+            }
+        }
+        restoreState(snapshot);
+    }
+
+    /**
+     * Restores the snapshot, even to a turn where players now done were still playing, by first giving each player back
+     * its whole script.
+     *
+     * @param scripts the scripts of the players when the simulation was built, in the order of the players
+     */
+    void rewind(SimulationSnapshot snapshot, List<CommandScript> scripts) {
+        // the players an off-heap engine left are built back, as they are restored in place
+        getPlayers();
+        checkMatches(snapshot);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).reinstateCommands(scripts.get(i));
+        }
+        restoreState(snapshot);
+    }
+
+    private void checkMatches(SimulationSnapshot snapshot) {
+        if (snapshot.playersCount() != players.size() || snapshot.treasuresCount() != treasureStore.size()) {
+            throw new IllegalArgumentException(("Snapshot of %d players and %d treasures does not match simulation of %d " +
+                                                "players and %d treasures").formatted(snapshot.playersCount(),
+                    snapshot.treasuresCount(),
+                    players.size(),
+                    treasureStore.size()));
+        }
+    }
+
+    private void restoreState(SimulationSnapshot snapshot) {
+        Orientation[] orientations = Orientation.values();
+        // players are all removed before being placed again, as one may be restored on the former cell of another
         for (Player player : players) {
-            player.pollNextCommand().ifPresent(command -> {
-                switch (command) {
-                    case A -> moveForward(player);
-                    case G -> turnLeft(player);
-                    case D -> turnRight(player);
-                }
-            });
+            occupancyGrid.removePlayer(player.getPosition());
+        }
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            int commandCursor = snapshot.commandCursors()[i] == SimulationSnapshot.FINISHED
+                    ? player.getCommands().length()
+                    : snapshot.commandCursors()[i];
+            player.restore(PackedCoordinates.pack(snapshot.westEast()[i], snapshot.northSouth()[i]),
+                    orientations[snapshot.orientations()[i]],
+                    snapshot.collectedTreasures()[i],
+                    commandCursor);
+            occupancyGrid.placePlayer(player.getPosition(), i);
         }
+        treasureStore.restoreQuantities(snapshot.treasuresQuantities());
+        for (int i = 0; i < treasureStore.size(); i++) {
+            long position = treasureStore.position(i);
+            if (treasureStore.quantity(i) == 0) {
+                occupancyGrid.treasureDepleted(position);
+            } else {
+                occupancyGrid.placeNonEmptyTreasure(position, i);
+            }
+        }
+        collectActivePlayers();
+        turn = snapshot.turn();
+    }
+
+    void playTurn() {
+        int stillActiveCount = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int playerIndex = activePlayers[i];
+            Player player = players.get(playerIndex);
+            playingIndex = playerIndex;
+            switch (player.nextCommand()) {
+                case A -> moveForward(player);
+                case G -> turnLeft(player);
+                case D -> turnRight(player);
+            }
+            if (player.hasRemainingCommands()) {
+                activePlayers[stillActiveCount++] = playerIndex;
+            } else if (notifying) {
+                stepListener.playerDone(playerIndex);
+            }
+        }
+        activePlayersCount = stillActiveCount;
+        turn++;
     }
 
     void moveForward(Player player) {
-        Coordinates futurePosition = player.getFuturePosition();
-        if (this.isOutOfBound(futurePosition)
-            || this.collidesWithMountain(futurePosition)
-            || this.collidesWithAnotherPlayer(futurePosition)) {
+        long futurePosition = player.getFuturePosition();
+        if (this.isOutOfBound(futurePosition)) {
+            notifyBlocked(BlockReason.BOUND);
+            return;
+        }
+        if (this.collidesWithMountain(futurePosition)) {
+            notifyBlocked(BlockReason.MOUNTAIN);
+            return;
+        }
+        if (this.collidesWithAnotherPlayer(futurePosition)) {
+            notifyBlocked(BlockReason.PLAYER);
             return;
         }
+        long previousPosition = player.getPosition();
         player.moveForward();
+        occupancyGrid.movePlayer(previousPosition, player.getPosition());
+        if (notifying) {
+            stepListener.playerMoved(playingIndex);
+        }
         collectTreasureIfApplicable(player);
     }
 
     private void collectTreasureIfApplicable(Player player) {
-        Optional<Treasure> nonEmptyTreasure = getNonEmptyTreasureAtPlayersPosition(player.getCoordinates());
-        nonEmptyTreasure.ifPresent(t -> {
-            t.collectTreasure();
-            player.collectTreasure();
-        });
+        int treasureIndex = occupancyGrid.nonEmptyTreasureAt(player.getPosition());
+        if (treasureIndex == OccupancyGrid.NONE) {
+            return;
+        }
+        if (treasureStore.collect(treasureIndex) == 0) {
+            occupancyGrid.treasureDepleted(player.getPosition());
+        }
+        player.collectTreasure();
+        if (notifying) {
+            stepListener.treasureCollected(playingIndex, treasureIndex);
+        }
     }
 
-    private Optional<Treasure> getNonEmptyTreasureAtPlayersPosition(Coordinates playerCoordinates) {
-        return this.treasures
-                .stream()
-                .filter(treasure ->
-                        treasure.intersectsWith(playerCoordinates)
-                        && !treasure.isEmpty())
-                .findAny();
+    private void notifyBlocked(BlockReason reason) {
+        if (notifying) {
+            stepListener.playerBlocked(playingIndex, reason);
+        }
     }
 
-    private boolean collidesWithMountain(Coordinates futurePosition) {
-        return this.mountains
-                .stream()
-                .anyMatch(mountain -> mountain.intersectsWith(futurePosition));
+    private boolean collidesWithMountain(long futurePosition) {
+        return occupancyGrid.hasMountainAt(futurePosition);
     }
 
-    private boolean collidesWithAnotherPlayer(Coordinates futurePosition) {
-        return this.players
-                .stream()
-                .anyMatch(otherPlayer -> otherPlayer.intersectsWith(futurePosition));
+    private boolean collidesWithAnotherPlayer(long futurePosition) {
+        return occupancyGrid.hasPlayerAt(futurePosition);
     }
 
     void turnLeft(Player player) {
         player.turnLeft();
+        if (notifying) {
+            stepListener.playerTurnedLeft(playingIndex);
+        }
     }
 
     void turnRight(Player player) {
         player.turnRight();
+        if (notifying) {
+            stepListener.playerTurnedRight(playingIndex);
+        }
     }
 
     boolean areCommandsRemaining() {
-        return players.stream().anyMatch(Player::hasRemainingCommands);
+        return activePlayersCount > 0;
     }
 
     /**
@@ -131,6 +446,15 @@ public class Simulation {
                || coordinates.northSouth() >= size.height();
     }
 
-    public record Size(Integer width, Integer height) {
+    boolean isOutOfBound(long position) {
+        int westEast = PackedCoordinates.westEast(position);
+        int northSouth = PackedCoordinates.northSouth(position);
+        return westEast < 0
+               || westEast >= size.width()
+               || northSouth < 0
+               || northSouth >= size.height();
+    }
+
+    public record Size(int width, int height) {
     }
 }
@@ -1,5 +1,6 @@
 package org.example.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.ArrayList;
@@ -16,16 +17,56 @@ public class SimulationBuilder {
     private List<Mountain> mountains = new ArrayList<>();
     private List<Treasure> treasures = new ArrayList<>();
     private List<Player> players = new ArrayList<>();
+    /**
+     * Replaces the mountains list when set, for terrains too large to be held as a list.
+     */
+    private Terrain terrain;
+    /**
+     * Validates and indexes features as they are added, reset whenever a list is replaced.
+     */
+    @Getter(AccessLevel.NONE)
+    private FeaturesIndex featuresIndex = new FeaturesIndex();
+    /**
+     * Whether features are only indexed when building, see <code>deferIndexing()</code>.
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean indexingDeferred;
 
     public Simulation build() {
+        if (terrain != null && !mountains.isEmpty()) {
+            throw new IllegalStateException("Cannot build a simulation with both a terrain and a list of mountains");
+        }
+        featuresIndex.index(this.getMountains(), this.getTreasures(), this.getPlayers());
+        OccupancyGrid occupancyGrid = featuresIndex.occupancyGrid();
+        boolean mayBeInvalid = featuresIndex.mayBeInvalid(this.getSize())
+                               || terrain != null && (!terrain.fitsIn(this.getSize()) || overlapsTerrain());
+        // the grid now belongs to the simulation, a later build starts over
+        featuresIndex = new FeaturesIndex();
         Simulation simulation = new Simulation(this.getSize(),
-                this.getMountains(),
+                terrain != null ? terrain : MountainBitmap.of(this.getMountains()),
                 this.getTreasures(),
-                this.getPlayers());
-        new SimulationValidator(simulation).validate();
+                this.getPlayers(),
+                occupancyGrid);
+        if (mayBeInvalid) {
+            new SimulationValidator(simulation).validate();
+        }
         return simulation;
     }
 
+    private boolean overlapsTerrain() {
+        for (Treasure treasure : treasures) {
+            if (terrain.hasMountainAt(treasure.getCoordinates().westEast(), treasure.getCoordinates().northSouth())) {
+                return true;
+            }
+        }
+        for (Player player : players) {
+            if (terrain.hasMountainAt(player.getCoordinates().westEast(), player.getCoordinates().northSouth())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public SimulationBuilder withSize(int width, int height) {
         this.size = new Simulation.Size(width, height);
         return this;
@@ -38,33 +79,68 @@ public class SimulationBuilder {
 
     public SimulationBuilder withMountains(List<Mountain> mountains) {
         this.mountains = mountains;
+        this.featuresIndex = new FeaturesIndex();
         return this;
     }
 
     public SimulationBuilder withTreasures(List<Treasure> treasures) {
         this.treasures = treasures;
+        this.featuresIndex = new FeaturesIndex();
+        return this;
+    }
+
+    /**
+     * @param terrain mountains of the simulation, the list of mountains of the builder having to be left empty
+     */
+    public SimulationBuilder withTerrain(Terrain terrain) {
+        this.terrain = terrain;
         return this;
     }
 
     public SimulationBuilder withPlayers(List<Player> players) {
         this.players = players;
+        this.featuresIndex = new FeaturesIndex();
+        return this;
+    }
+
+    /**
+     * Features added from now on are only indexed when building, for partial builders whose lists end up merged into
+     * another builder, which indexes them once.
+     */
+    public SimulationBuilder deferIndexing() {
+        this.indexingDeferred = true;
         return this;
     }
 
     public SimulationBuilder addMountain(Mountain mountain) {
         this.mountains.add(mountain);
+        indexAdded();
         return this;
     }
 
+    public SimulationBuilder addMountain(int westEast, int northSouth) {
+        return addMountain(new Mountain(westEast, northSouth));
+    }
+
     public SimulationBuilder addTreasure(Treasure treasure) {
         this.treasures.add(treasure);
+        indexAdded();
         return this;
     }
 
+    public SimulationBuilder addTreasure(int westEast, int northSouth, int quantity) {
+        return addTreasure(new Treasure(westEast, northSouth, quantity));
+    }
+
     public SimulationBuilder addPlayer(Player player) {
         this.players.add(player);
+        indexAdded();
         return this;
     }
 
-
+    private void indexAdded() {
+        if (!indexingDeferred) {
+            featuresIndex.index(mountains, treasures, players);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+package org.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Answers what the board looked like at any turn of a run, once recorded as its listener.
+ * <p>
+ * A snapshot is kept every given number of turns. Once the next one would take the snapshots past
+ * <code>maxBytes</code>, every other one is dropped and the interval doubles, so that the memory used is bounded
+ * however long the run: a long run ends up with snapshots filling between half and all of <code>maxBytes</code>, spread
+ * evenly over it.
+ * <p>
+ * Queries share a single simulation, built on the first one. A query restores onto it the latest snapshot taken at or
+ * before the requested turn, then replays the turns in between, which the rules make deterministic. A query thus plays
+ * fewer turns than the current interval, however late the turn, and none are replayed twice when asking for later and
+ * later turns between two snapshots.
+ * <p>
+ * Not thread-safe: queries must not be made while recording, nor from several threads at once.
+ */
+public final class SimulationHistory implements SimulationListener {
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    private final Supplier<Simulation> simulationFactory;
+    private final long maxBytes;
+    private long turnsInterval;
+    /**
+     * In increasing turns order, as recorded.
+     */
+    private final List<SimulationSnapshot> snapshots = new ArrayList<>();
+    private long snapshotsBytes;
+    /**
+     * Replays the turns queried, <code>null</code> until the first query.
+     */
+    private Simulation simulation;
+    private SimulationSnapshot initialState;
+    private List<CommandScript> scripts;
+
+    /**
+     * @param simulationFactory builds a new simulation from the same input as the recorded one, called once
+     * @param turnsInterval     number of turns between two snapshots at first, see the other constructor
+     */
+    public SimulationHistory(Supplier<Simulation> simulationFactory, long turnsInterval) {
+        this(simulationFactory, turnsInterval, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * All the snapshots of a run have the same size, which grows with its players and treasures: <code>maxBytes</code>
+     * thus fits <code>K = maxBytes / SimulationSnapshot.bytes()</code> of them, none at all if a single one does not
+     * fit, in which case queries replay from the first turn.
+     *
+     * @param simulationFactory builds a new simulation from the same input as the recorded one, called once
+     * @param turnsInterval     number of turns between two snapshots at first. Doubled each time the snapshots fill
+     *                          <code>maxBytes</code>, so that a run of <code>T</code> turns ends with an interval of
+     *                          <code>T / K</code> to <code>2 T / K</code> turns, the most a query then replays
+     * @param maxBytes          heap footprint of the snapshots kept at most, as estimated by
+     *                          <code>SimulationSnapshot.bytes()</code>
+     */
+    public SimulationHistory(Supplier<Simulation> simulationFactory, long turnsInterval, long maxBytes) {
+        if (turnsInterval <= 0) {
+            throw new IllegalArgumentException("History turns interval must be greater than zero but was %d"
+                    .formatted(turnsInterval));
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("History bytes must be greater than zero but was %d"
+                    .formatted(maxBytes));
+        }
+        this.simulationFactory = simulationFactory;
+        this.turnsInterval = turnsInterval;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        if (simulation.getTurn() % turnsInterval != 0) {
+            return;
+        }
+        SimulationSnapshot snapshot = simulation.snapshot();
+        while (snapshotsBytes + snapshot.bytes() > maxBytes && !snapshots.isEmpty()) {
+            thinOut();
+        }
+        if (simulation.getTurn() % turnsInterval != 0 || snapshot.bytes() > maxBytes) {
+            return;
+        }
+        snapshots.add(snapshot);
+        snapshotsBytes += snapshot.bytes();
+    }
+
+    /**
+     * Doubles the interval, dropping the snapshots no longer on it: every other one, as they were all taken on the
+     * previous interval.
+     */
+    private void thinOut() {
+        turnsInterval *= 2;
+        snapshots.removeIf(snapshot -> snapshot.turn() % turnsInterval != 0);
+        snapshotsBytes = snapshots.stream().mapToLong(SimulationSnapshot::bytes).sum();
+    }
+
+    /**
+     * @return number of turns between two snapshots, doubled every time the snapshots are thinned out
+     */
+    long getTurnsInterval() {
+        return turnsInterval;
+    }
+
+    int getSnapshotsCount() {
+        return snapshots.size();
+    }
+
+    long getSnapshotsBytes() {
+        return snapshotsBytes;
+    }
+
+    /**
+     * @param turn number of turns played, past the end of the run giving the final state
+     * @return a copy of the player at that turn
+     */
+    public Player playerAt(String name, long turn) {
+        for (Player player : simulationAt(turn).getPlayers()) {
+            if (player.getName().equals(name)) {
+                return player.withCoordinates(player.getCoordinates());
+            }
+        }
+        throw new IllegalArgumentException("No player named %s in the simulation".formatted(name));
+    }
+
+    /**
+     * @param turn number of turns played, past the end of the run giving the final state
+     * @return copies of the treasures with their quantities at that turn, empty ones included, in input order
+     */
+    public List<Treasure> treasuresAt(long turn) {
+        return simulationAt(turn).getTreasures();
+    }
+
+    private Simulation simulationAt(long turn) {
+        if (turn < 0) {
+            throw new IllegalArgumentException("Turn must not be negative but was %d".formatted(turn));
+        }
+        if (simulation == null) {
+            simulation = simulationFactory.get();
+            initialState = simulation.snapshot();
+            scripts = simulation.getPlayers().stream().map(Player::getCommands).toList();
+        }
+        SimulationSnapshot snapshot = latestSnapshotAtOrBefore(turn);
+        if (snapshot == null) {
+            snapshot = initialState;
+        }
+        // the turns already played towards the requested one are kept
+        if (simulation.getTurn() > turn || simulation.getTurn() < snapshot.turn()) {
+            simulation.rewind(snapshot, scripts);
+        }
+        while (simulation.getTurn() < turn && simulation.areCommandsRemaining()) {
+            simulation.playTurn();
+        }
+        return simulation;
+    }
+
+    /**
+     * @return <code>null</code> if none was taken that early
+     */
+    private SimulationSnapshot latestSnapshotAtOrBefore(long turn) {
+        int low = 0;
+        int high = snapshots.size() - 1;
+        SimulationSnapshot latest = null;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            SimulationSnapshot snapshot = snapshots.get(middle);
+            if (snapshot.turn() <= turn) {
+                latest = snapshot;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.domain;
+
+import java.util.Arrays;
+
+/**
+ * Hook into <code>Simulation.run()</code>, called on the simulation thread. Implementations must be quick or hand the
+ * work over to another thread, as the simulation waits for them.
+ * <p>
+ * Players are identified by their index in <code>Simulation.getPlayers()</code>, and treasures by their index in
+ * <code>Simulation.getTreasures()</code>. Within a turn, players are notified in the order they play, each one executing
+ * a single command notified as a move, a blocked move or a turn.
+ */
+public interface SimulationListener {
+    SimulationListener NONE = new SimulationListener() {
+    };
+
+    /**
+     * @return a listener notifying each of the given ones in turn, or <code>NONE</code> if there are none
+     */
+    static SimulationListener of(SimulationListener... listeners) {
+        SimulationListener[] notified = Arrays.stream(listeners)
+                .filter(listener -> listener != NONE)
+                .toArray(SimulationListener[]::new);
+        return switch (notified.length) {
+            case 0 -> NONE;
+            case 1 -> notified[0];
+            default -> new SimulationListeners(notified);
+        };
+    }
+
+    /**
+     * Called once all the active players played their command of the turn, <code>Simulation.getTurn()</code> being the
+     * number of turns played so far.
+     */
+    default void turnPlayed(Simulation simulation) {
+    }
+
+    default void playerMoved(int player) {
+    }
+
+    default void playerBlocked(int player, BlockReason reason) {
+    }
+
+    default void playerTurnedLeft(int player) {
+    }
+
+    default void playerTurnedRight(int player) {
+    }
+
+    /**
+     * Follows the move of the player onto the treasure.
+     */
+    default void treasureCollected(int player, int treasure) {
+    }
+
+    /**
+     * The player executed its last command, after its own notification.
+     */
+    default void playerDone(int player) {
+    }
+}
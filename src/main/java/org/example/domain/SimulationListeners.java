@@ -0,0 +1,94 @@
+package org.example.domain;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Several listeners notified in turn, built by <code>SimulationListener.of</code>.
+ */
+final class SimulationListeners implements SimulationListener {
+    private final SimulationListener[] listeners;
+
+    SimulationListeners(SimulationListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * @return the listener to notify of what each player does: the given one if it listens to anything but the end of
+     * turns, or, if it is a composite, the only member doing so or a composite of them, or <code>NONE</code>
+     */
+    static SimulationListener stepListener(SimulationListener listener) {
+        if (listener instanceof SimulationListeners composite) {
+            return SimulationListener.of(Arrays.stream(composite.listeners)
+                    .filter(SimulationListeners::listensToSteps)
+                    .toArray(SimulationListener[]::new));
+        }
+        return listensToSteps(listener) ? listener : SimulationListener.NONE;
+    }
+
+    private static boolean listensToSteps(SimulationListener listener) {
+        for (Method method : SimulationListener.class.getMethods()) {
+            if (!method.isDefault() || method.getName().equals("turnPlayed")) {
+                continue;
+            }
+            try {
+                Method implementation = listener.getClass().getMethod(method.getName(), method.getParameterTypes());
+                if (implementation.getDeclaringClass() != SimulationListener.class) {
+                    return true;
+                }
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        for (SimulationListener listener : listeners) {
+            listener.turnPlayed(simulation);
+        }
+    }
+
+    @Override
+    public void playerMoved(int player) {
+        for (SimulationListener listener : listeners) {
+            listener.playerMoved(player);
+        }
+    }
+
+    @Override
+    public void playerBlocked(int player, BlockReason reason) {
+        for (SimulationListener listener : listeners) {
+            listener.playerBlocked(player, reason);
+        }
+    }
+
+    @Override
+    public void playerTurnedLeft(int player) {
+        for (SimulationListener listener : listeners) {
+            listener.playerTurnedLeft(player);
+        }
+    }
+
+    @Override
+    public void playerTurnedRight(int player) {
+        for (SimulationListener listener : listeners) {
+            listener.playerTurnedRight(player);
+        }
+    }
+
+    @Override
+    public void treasureCollected(int player, int treasure) {
+        for (SimulationListener listener : listeners) {
+            listener.treasureCollected(player, treasure);
+        }
+    }
+
+    @Override
+    public void playerDone(int player) {
+        for (SimulationListener listener : listeners) {
+            listener.playerDone(player);
+        }
+    }
+}
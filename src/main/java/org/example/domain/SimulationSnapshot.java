@@ -0,0 +1,46 @@
+package org.example.domain;
+
+/**
+ * Copy of the whole mutable state of a simulation between two turns, from which it can be restored. Players and
+ * treasures are identified by their index in the simulation lists, which only makes sense for a simulation built from
+ * the same input.
+ * <p>
+ * Arrays are owned by the snapshot and must not be modified.
+ *
+ * @param orientations   ordinals of <code>Orientation</code>
+ * @param commandCursors index of the next command of each player, or <code>FINISHED</code> once all are executed
+ */
+public record SimulationSnapshot(long turn,
+                                 int[] westEast,
+                                 int[] northSouth,
+                                 byte[] orientations,
+                                 int[] collectedTreasures,
+                                 int[] commandCursors,
+                                 int[] treasuresQuantities) {
+    /**
+     * Fully consumed scripts are released by players, so the cursor alone cannot tell a player who is done from one
+     * who has not started.
+     */
+    public static final int FINISHED = -1;
+
+    public int playersCount() {
+        return westEast.length;
+    }
+
+    public int treasuresCount() {
+        return treasuresQuantities.length;
+    }
+
+    /**
+     * @return approximate heap footprint of the snapshot and its arrays
+     */
+    public long bytes() {
+        return HeapSizes.object(Long.BYTES + 6 * HeapSizes.REFERENCE_BYTES)
+               + HeapSizes.array(westEast.length, Integer.BYTES)
+               + HeapSizes.array(northSouth.length, Integer.BYTES)
+               + HeapSizes.array(orientations.length, Byte.BYTES)
+               + HeapSizes.array(collectedTreasures.length, Integer.BYTES)
+               + HeapSizes.array(commandCursors.length, Integer.BYTES)
+               + HeapSizes.array(treasuresQuantities.length, Integer.BYTES);
+    }
+}
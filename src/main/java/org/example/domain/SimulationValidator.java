@@ -29,10 +29,18 @@ class SimulationValidator {
 
     void validateObjectsCoordinates(Simulation simulation) {
         List<Coordinates> objectsCoordinates = this.getAllObjectsCoordinates(simulation);
-        validateNoOverlappingObjects(objectsCoordinates);
+        validateNoOverlappingObjects(simulation, objectsCoordinates);
         validateNoObjectOutOfBound(simulation, objectsCoordinates);
     }
 
+    /**
+     * Mountains given as a list end up in a <code>MountainBitmap</code>, small enough to be listed along with the other
+     * features. Any other terrain may not fit in the heap, so it is only queried.
+     */
+    private static boolean isTerrainListed(Simulation simulation) {
+        return simulation.getTerrain() instanceof MountainBitmap;
+    }
+
     void validateSimulationSize(Simulation.Size simulationSize) {
         if (simulationSize.width() <= 0 || simulationSize.height() <= 0) {
             String message = INVALID_SIMULATION_SIZE_ERROR_MESSAGE_FORMAT.formatted(simulationSize.width(), simulationSize.height());
@@ -46,13 +54,16 @@ class SimulationValidator {
      *
      * @param allObjectsCoordinates
      */
-    private void validateNoOverlappingObjects(List<Coordinates> allObjectsCoordinates) {
+    private void validateNoOverlappingObjects(Simulation simulation, List<Coordinates> allObjectsCoordinates) {
         Map<Coordinates, Long> featuresCountByCoordinate = allObjectsCoordinates.stream()
                 .collect(groupingBy(identity(),
                         counting()));
 
+        Terrain terrain = simulation.getTerrain();
+        boolean terrainListed = isTerrainListed(simulation);
         Map<Coordinates, Long> overlapsCountByCoordinate = MapStream.of(featuresCountByCoordinate)
-                .filterValue(count -> count > 1)
+                .filter((coordinates, count) -> count > 1
+                        || !terrainListed && terrain.hasMountainAt(coordinates.westEast(), coordinates.northSouth()))
                 .toMap();
 
         if (!overlapsCountByCoordinate.isEmpty()) {
@@ -66,17 +77,25 @@ class SimulationValidator {
         Map<Coordinates, Long> outOfBoundFeatureCoordinates = allObjectsCoordinates.stream()
                 .filter(simulation::isOutOfBound)
                 .collect(groupingBy(identity(), counting()));
-        if (!outOfBoundFeatureCoordinates.isEmpty()) {
-            String message = FEATURES_COORDINATES_OUT_OF_BOUND_ERROR_MESSAGE
-                    .formatted(outOfBoundFeatureCoordinates.keySet());
+        List<Object> outOfBoundFeatures = new ArrayList<>(outOfBoundFeatureCoordinates.keySet());
+        if (!isTerrainListed(simulation) && !simulation.getTerrain().fitsIn(simulation.getSize())) {
+            outOfBoundFeatures.add("mountains of the terrain");
+        }
+        if (!outOfBoundFeatures.isEmpty()) {
+            String message = FEATURES_COORDINATES_OUT_OF_BOUND_ERROR_MESSAGE.formatted(outOfBoundFeatures);
             throw new IllegalArgumentException(message);
         }
     }
 
 
+    /**
+     * @return the coordinates of the treasures, of the mountains if the terrain is listed, and of the players
+     */
     List<Coordinates> getAllObjectsCoordinates(Simulation simulation) {
         List<Coordinates> treasuresCoordinates = simulation.getTreasures().stream().map(Treasure::getCoordinates).toList();
-        List<Coordinates> mountainsCoordinates = simulation.getMountains().stream().map(Mountain::getCoordinates).toList();
+        List<Coordinates> mountainsCoordinates = isTerrainListed(simulation)
+                ? simulation.getMountains().stream().map(Mountain::getCoordinates).toList()
+                : List.of();
         List<Coordinates> playersCoordinates = simulation.getPlayers().stream().map(Player::getCoordinates).toList();
         List<Coordinates> allObjectsCoordinates = new ArrayList<>();
         allObjectsCoordinates.addAll(treasuresCoordinates);
@@ -0,0 +1,358 @@
+package org.example.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+import static org.example.domain.LongIntHashMap.NO_VALUE;
+
+/**
+ * Opt-in rule set where the players of a turn all act at the same time, instead of one after the other as in
+ * <code>Simulation.run()</code>. Results differ from the sequential rules whenever players interfere within a turn.
+ * <p>
+ * Every player declares the cell it wants to move to from the state at the start of the turn. Moves out of the map
+ * or into a mountain are blocked as usual, the other ones are resolved as follows:
+ * <ul>
+ *     <li>several players targeting the same cell: the first one in the players list gets to try, the others stay</li>
+ *     <li>two players targeting each other's cell: they would cross, both stay</li>
+ *     <li>a player targeting a cell occupied at the start of the turn moves if and only if the occupant leaves it,
+ *     which lets queues of players move forward together, and rotations of three players or more happen</li>
+ * </ul>
+ * Treasures are collected by the players moving onto them, at most one per cell per turn as targets are distinct.
+ * <p>
+ * No rule depends on the order in which players are evaluated, so every step of a turn is done in parallel. While it
+ * plays, the engine indexes the players in its own map, split into shards by cell: targets are claimed and cells are
+ * updated one shard per task, a shard only holding cells of its own. The players of a shard are claimed in players
+ * order, so that the first one of the list still gets to try a contested cell. Grouping the active players by shard
+ * only has a short sequential step, linear in the number of shards times the chunks of active players. Depleted
+ * treasures are dropped from the grid once the run is over, collecting checking the quantity left meanwhile.
+ */
+public final class SimultaneousSimulationEngine {
+    private static final int GRAIN = 4096;
+    private static final int SHARDS = 64;
+    private static final int NO_SHARD = -1;
+    private static final byte STAYS = 0;
+    private static final byte PENDING = 1;
+    private static final byte BLOCKED = 2;
+    private static final byte MOVES = 3;
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+    private final Simulation simulation;
+    private final ForkJoinPool pool;
+    private final OccupancyGrid occupancyGrid;
+    private final TreasureStore treasures;
+    private final PlayerStates players;
+    private final int[] activePlayers;
+    private int activePlayersCount;
+    private long turnsPlayed;
+
+    private final long[] targets;
+    private final byte[] statuses;
+    private final int[] occupants;
+    /**
+     * Player allowed to target the cell of a given player, if any. Unique, as players with the same target are
+     * resolved first.
+     */
+    private final int[] followers;
+    /**
+     * Cells of the players during the run, in place of the ones of the occupancy grid.
+     */
+    private final ShardedLongIntHashMap playerCells;
+    private final ShardedLongIntHashMap claimedTargets;
+
+    /**
+     * Pending players grouped by the shard of their target, in players order within a shard.
+     */
+    private final int[] byTargetShard;
+    private final int[] targetShardStarts = new int[SHARDS + 1];
+    /**
+     * Moving players grouped by the shard of their position, in players order within a shard.
+     */
+    private final int[] byPositionShard;
+    private final int[] positionShardStarts = new int[SHARDS + 1];
+    /**
+     * For each chunk of <code>GRAIN</code> active players, the number of its players in each shard, then the index of
+     * the first one in the grouped players.
+     */
+    private final int[] chunkShardOffsets;
+    private boolean groupingByTarget;
+    private int[] grouped;
+
+    private final IntConsumer declare = this::declare;
+    private final IntConsumer countChunk = this::countChunk;
+    private final IntConsumer scatterChunk = this::scatterChunk;
+    private final IntConsumer claimTargets = this::claimTargets;
+    private final IntConsumer findOccupant = this::findOccupant;
+    private final IntConsumer linkFollower = this::linkFollower;
+    private final IntConsumer blockIfStuck = this::blockIfStuck;
+    private final IntConsumer confirmMove = this::confirmMove;
+    private final IntConsumer updateCells = this::updateCells;
+    private final IntConsumer move = this::move;
+
+    public SimultaneousSimulationEngine(Simulation simulation) {
+        this(simulation, ForkJoinPool.commonPool());
+    }
+
+    public SimultaneousSimulationEngine(Simulation simulation, ForkJoinPool pool) {
+        this.simulation = simulation;
+        this.pool = pool;
+        this.occupancyGrid = simulation.getOccupancyGrid();
+        this.treasures = simulation.getTreasureStore();
+        this.players = PlayerStates.of(simulation.handOverPlayers());
+        int count = players.count();
+        this.activePlayers = new int[count];
+        this.playerCells = new ShardedLongIntHashMap(SHARDS, count);
+        for (int player = 0; player < count; player++) {
+            playerCells.put(players.position(player), player);
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[activePlayersCount++] = player;
+            }
+        }
+        occupancyGrid.removeAllPlayers();
+        this.targets = new long[count];
+        this.statuses = new byte[count];
+        this.occupants = new int[count];
+        this.followers = new int[count];
+        this.claimedTargets = new ShardedLongIntHashMap(SHARDS, count);
+        this.byTargetShard = new int[count];
+        this.byPositionShard = new int[count];
+        this.chunkShardOffsets = new int[chunksCount(count) * SHARDS];
+    }
+
+    public void run() {
+        while (activePlayersCount > 0) {
+            playTurn();
+        }
+        for (int player = 0; player < players.count(); player++) {
+            occupancyGrid.placePlayer(players.position(player), player);
+        }
+        dropDepletedTreasures();
+        simulation.takeBackPlayers(players.toPlayers(), turnsPlayed);
+    }
+
+    void playTurn() {
+        // below a chunk of players, shards are visited inline rather than forked
+        int shardsGrain = activePlayersCount > GRAIN ? 1 : SHARDS;
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, declare);
+        groupByShard(true, byTargetShard, targetShardStarts);
+        ParallelLoop.forEach(pool, 0, SHARDS, shardsGrain, claimTargets);
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, findOccupant);
+        resolveConflicts();
+        groupByShard(false, byPositionShard, positionShardStarts);
+        ParallelLoop.forEach(pool, 0, SHARDS, shardsGrain, updateCells);
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, move);
+
+        int stillActiveCount = 0;
+        for (int i = 0; i < activePlayersCount; i++) {
+            int player = activePlayers[i];
+            if (players.hasRemainingCommands(player)) {
+                activePlayers[stillActiveCount++] = player;
+            } else {
+                // players who are done stay where they are for the rest of the run
+                statuses[player] = STAYS;
+            }
+        }
+        activePlayersCount = stillActiveCount;
+        turnsPlayed++;
+    }
+
+    /**
+     * Consumes the command of the player, turning it right away or declaring the cell it wants to move to.
+     */
+    private void declare(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        int cursor = players.commandCursors[player];
+        players.commandCursors[player] = cursor + 1;
+        statuses[player] = STAYS;
+        followers[player] = NO_VALUE;
+        switch (players.commands[player].commandAt(cursor)) {
+            case A -> {
+                long target = PackedCoordinates.next(players.position(player),
+                        ORIENTATIONS[players.orientations[player]]);
+                if (!simulation.isOutOfBound(target) && !occupancyGrid.hasMountainAt(target)) {
+                    targets[player] = target;
+                    statuses[player] = PENDING;
+                }
+            }
+            case G -> players.turnLeft(player);
+            case D -> players.turnRight(player);
+        }
+    }
+
+    /**
+     * Counting sort of the active players by shard, each chunk of players counting then placing its own, so that the
+     * players of a shard keep the order of the active players.
+     *
+     * @param byTarget whether to group the pending players by target, or else the moving ones by position
+     */
+    private void groupByShard(boolean byTarget, int[] groupedPlayers, int[] shardStarts) {
+        groupingByTarget = byTarget;
+        grouped = groupedPlayers;
+        int chunks = chunksCount(activePlayersCount);
+        ParallelLoop.forEach(pool, 0, chunks, 1, countChunk);
+        int offset = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            shardStarts[shard] = offset;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = chunkShardOffsets[chunk * SHARDS + shard];
+                chunkShardOffsets[chunk * SHARDS + shard] = offset;
+                offset += count;
+            }
+        }
+        shardStarts[SHARDS] = offset;
+        ParallelLoop.forEach(pool, 0, chunks, 1, scatterChunk);
+    }
+
+    private static int chunksCount(int playersCount) {
+        return (playersCount + GRAIN - 1) / GRAIN;
+    }
+
+    private void countChunk(int chunk) {
+        int offsets = chunk * SHARDS;
+        Arrays.fill(chunkShardOffsets, offsets, offsets + SHARDS, 0);
+        int to = Math.min(activePlayersCount, (chunk + 1) * GRAIN);
+        for (int i = chunk * GRAIN; i < to; i++) {
+            int shard = groupingShard(activePlayers[i]);
+            if (shard != NO_SHARD) {
+                chunkShardOffsets[offsets + shard]++;
+            }
+        }
+    }
+
+    private void scatterChunk(int chunk) {
+        int offsets = chunk * SHARDS;
+        int to = Math.min(activePlayersCount, (chunk + 1) * GRAIN);
+        for (int i = chunk * GRAIN; i < to; i++) {
+            int player = activePlayers[i];
+            int shard = groupingShard(player);
+            if (shard != NO_SHARD) {
+                grouped[chunkShardOffsets[offsets + shard]++] = player;
+            }
+        }
+    }
+
+    private int groupingShard(int player) {
+        if (groupingByTarget) {
+            return statuses[player] == PENDING ? playerCells.shardOf(targets[player]) : NO_SHARD;
+        }
+        return statuses[player] == MOVES ? playerCells.shardOf(players.position(player)) : NO_SHARD;
+    }
+
+    private void claimTargets(int shard) {
+        LongIntHashMap claimed = claimedTargets.shard(shard);
+        claimed.clear();
+        for (int i = targetShardStarts[shard]; i < targetShardStarts[shard + 1]; i++) {
+            int player = byTargetShard[i];
+            if (claimed.containsKey(targets[player])) {
+                statuses[player] = STAYS;
+            } else {
+                claimed.put(targets[player], player);
+            }
+        }
+    }
+
+    private void findOccupant(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        if (statuses[player] == PENDING) {
+            occupants[player] = playerCells.get(targets[player]);
+        }
+    }
+
+    /**
+     * Blocks the players whose target is occupied by a player who stays or who swaps places with them, as well as the
+     * players transitively waiting for them. The remaining ones either target a free cell, or wait in a chain ending in
+     * a free cell or in a rotation, so they all move.
+     * <p>
+     * Blocking runs on several threads at once, each one only ever writing <code>BLOCKED</code> over
+     * <code>PENDING</code>. A player seeing its occupant blocked by another thread blocks itself, as it would have been
+     * by that thread, its follower; one seeing it still pending while it is being blocked is left to that thread. Any
+     * interleaving thus blocks the same players.
+     */
+    private void resolveConflicts() {
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, linkFollower);
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, blockIfStuck);
+        ParallelLoop.forEach(pool, 0, activePlayersCount, GRAIN, confirmMove);
+    }
+
+    /**
+     * Targets being distinct once claimed, every occupant gets a single follower.
+     */
+    private void linkFollower(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        if (statuses[player] == PENDING && occupants[player] != NO_VALUE) {
+            followers[occupants[player]] = player;
+        }
+    }
+
+    private void blockIfStuck(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        if (statuses[player] != PENDING) {
+            return;
+        }
+        int occupant = occupants[player];
+        if (occupant == NO_VALUE) {
+            return;
+        }
+        boolean occupantStays = statuses[occupant] != PENDING;
+        boolean swap = !occupantStays && targets[occupant] == players.position(player);
+        if (occupantStays || swap) {
+            block(player);
+        }
+    }
+
+    private void block(int player) {
+        int blocked = player;
+        while (blocked != NO_VALUE && statuses[blocked] == PENDING) {
+            statuses[blocked] = BLOCKED;
+            blocked = followers[blocked];
+        }
+    }
+
+    private void confirmMove(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        if (statuses[player] == PENDING) {
+            statuses[player] = MOVES;
+        }
+    }
+
+    /**
+     * All the moving players of a shard are removed before being placed again, as some move to the former cell of
+     * another. Cells of other shards belong to other maps, so the order between shards does not matter.
+     */
+    private void updateCells(int shard) {
+        LongIntHashMap cells = playerCells.shard(shard);
+        for (int i = positionShardStarts[shard]; i < positionShardStarts[shard + 1]; i++) {
+            cells.remove(players.position(byPositionShard[i]));
+        }
+        for (int i = targetShardStarts[shard]; i < targetShardStarts[shard + 1]; i++) {
+            int player = byTargetShard[i];
+            if (statuses[player] == MOVES) {
+                cells.put(targets[player], player);
+            }
+        }
+    }
+
+    private void move(int activeIndex) {
+        int player = activePlayers[activeIndex];
+        if (statuses[player] != MOVES) {
+            return;
+        }
+        long target = targets[player];
+        players.westEast[player] = PackedCoordinates.westEast(target);
+        players.northSouth[player] = PackedCoordinates.northSouth(target);
+        int treasureIndex = occupancyGrid.nonEmptyTreasureAt(target);
+        if (treasureIndex != OccupancyGrid.NONE && treasures.quantity(treasureIndex) > 0) {
+            treasures.collect(treasureIndex);
+            players.collectedTreasures[player]++;
+        }
+    }
+
+    private void dropDepletedTreasures() {
+        for (int treasure = 0; treasure < treasures.size(); treasure++) {
+            long position = treasures.position(treasure);
+            if (treasures.quantity(treasure) == 0 && occupancyGrid.nonEmptyTreasureAt(position) == treasure) {
+                occupancyGrid.treasureDepleted(position);
+            }
+        }
+    }
+}
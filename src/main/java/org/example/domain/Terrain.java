@@ -0,0 +1,22 @@
+package org.example.domain;
+
+/**
+ * Cells holding a mountain, which never change once a simulation is built. Checked on every forward move by all the
+ * engines, possibly from several threads at once, so implementations must support concurrent lookups.
+ * <p>
+ * Only mountains are abstracted this way, treasures and players always being held by the simulation itself.
+ */
+public interface Terrain {
+
+    boolean hasMountainAt(int westEast, int northSouth);
+
+    /**
+     * @return whether all the mountains are within a map of the given size
+     */
+    boolean fitsIn(Simulation.Size size);
+
+    /**
+     * @return a cursor over the mountains, in the order they are written to the output
+     */
+    MountainCursor mountains();
+}
@@ -0,0 +1,148 @@
+package org.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Quantities of the treasures of a simulation as primitive arrays, the treasure index being its position in the input.
+ * Collecting is a decrement of an array slot, with no <code>Treasure</code> object kept around during a run.
+ * <p>
+ * Cells are mapped to the index of their non-empty treasure by <code>OccupancyGrid</code>, which drops a cell as soon as
+ * its treasure is depleted. Non-empty treasures are also listed in input order for the output, the list being compacted
+ * lazily when iterated: depleting a treasure only writes its own slot, so that engines playing on several threads can
+ * collect distinct treasures concurrently, and iterating costs as many steps as treasures non-empty at the previous
+ * iteration rather than as treasures in the input.
+ */
+public final class TreasureStore {
+    private final long[] positions;
+    private final int[] quantities;
+    /**
+     * Indexes of the treasures that were non-empty when last compacted, in input order.
+     */
+    private final int[] nonEmpty;
+    private int nonEmptyCount;
+
+    private TreasureStore(long[] positions, int[] quantities) {
+        this.positions = positions;
+        this.quantities = quantities;
+        this.nonEmpty = new int[quantities.length];
+        listNonEmpty();
+    }
+
+    static TreasureStore of(List<Treasure> treasures) {
+        long[] positions = new long[treasures.size()];
+        int[] quantities = new int[treasures.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Treasure treasure = treasures.get(i);
+            positions[i] = PackedCoordinates.pack(treasure.getCoordinates());
+            quantities[i] = treasure.quantity();
+        }
+        return new TreasureStore(positions, quantities);
+    }
+
+    public int size() {
+        return quantities.length;
+    }
+
+    public int quantity(int treasure) {
+        return quantities[treasure];
+    }
+
+    public int westEast(int treasure) {
+        return PackedCoordinates.westEast(positions[treasure]);
+    }
+
+    public int northSouth(int treasure) {
+        return PackedCoordinates.northSouth(positions[treasure]);
+    }
+
+    long position(int treasure) {
+        return positions[treasure];
+    }
+
+    /**
+     * @return the quantity left, the cell of the treasure having to be dropped from the grid when it reaches 0
+     */
+    int collect(int treasure) {
+        int quantity = quantities[treasure];
+        if (quantity <= 0) {
+            throw new IllegalStateException(Treasure.COLLECT_EMPTY_TREASURE_ERROR_MESSAGE);
+        }
+        quantities[treasure] = quantity - 1;
+        return quantity - 1;
+    }
+
+    int[] copyQuantities() {
+        return quantities.clone();
+    }
+
+    /**
+     * Sets back the quantities recorded at some point of a simulation, validated as on creation.
+     */
+    void restoreQuantities(int[] restored) {
+        for (int quantity : restored) {
+            if (quantity < 0) {
+                throw new IllegalArgumentException(Treasure.CREATE_WITH_NEGATIVE_QUANTITY_ERROR_MESSAGE);
+            }
+        }
+        System.arraycopy(restored, 0, quantities, 0, quantities.length);
+        listNonEmpty();
+    }
+
+    /**
+     * Must be called between two turns, as it compacts the list of non-empty treasures.
+     *
+     * @return the indexes of the non-empty treasures, in input order
+     */
+    public PrimitiveIterator.OfInt nonEmptyTreasures() {
+        compactNonEmpty();
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < nonEmptyCount;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return nonEmpty[next++];
+            }
+        };
+    }
+
+    /**
+     * @return copies of all the treasures with their current quantities, empty ones included, in input order
+     */
+    List<Treasure> toTreasures() {
+        List<Treasure> treasures = new ArrayList<>(quantities.length);
+        for (int i = 0; i < quantities.length; i++) {
+            treasures.add(new Treasure(westEast(i), northSouth(i), quantities[i]));
+        }
+        return treasures;
+    }
+
+    private void listNonEmpty() {
+        nonEmptyCount = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] > 0) {
+                nonEmpty[nonEmptyCount++] = i;
+            }
+        }
+    }
+
+    private void compactNonEmpty() {
+        int stillNonEmptyCount = 0;
+        for (int i = 0; i < nonEmptyCount; i++) {
+            if (quantities[nonEmpty[i]] > 0) {
+                nonEmpty[stillNonEmptyCount++] = nonEmpty[i];
+            }
+        }
+        nonEmptyCount = stillNonEmptyCount;
+    }
+}
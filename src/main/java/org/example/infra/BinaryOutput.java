@@ -0,0 +1,122 @@
+package org.example.infra;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable byte array for the binary files of the application, with variable-length encodings of integers: small
+ * values, which are the most common ones once delta-encoded, take a single byte.
+ * <p>
+ * Not thread-safe.
+ */
+final class BinaryOutput {
+    private byte[] bytes;
+    private int size;
+
+    BinaryOutput(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    BinaryOutput writeByte(int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    BinaryOutput write(ByteBuffer source) {
+        int length = source.remaining();
+        ensureCapacity(length);
+        source.get(bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    BinaryOutput write(byte[] source, int length) {
+        ensureCapacity(length);
+        System.arraycopy(source, 0, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * Big-endian, fixed 4 bytes.
+     */
+    BinaryOutput writeInt(int value) {
+        ensureCapacity(4);
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Big-endian, fixed 8 bytes.
+     */
+    BinaryOutput writeLong(long value) {
+        return writeInt((int) (value >>> 32)).writeInt((int) value);
+    }
+
+    /**
+     * LEB128: 7 bits per byte, least significant first, the high bit telling whether more bytes follow.
+     */
+    BinaryOutput writeVarLong(long value) {
+        ensureCapacity(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[size++] = (byte) remaining;
+        return this;
+    }
+
+    /**
+     * Zigzag encoding first, so that small negative values are small too.
+     */
+    BinaryOutput writeSignedVarLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * @return a view of the bytes written so far, only valid until the next write
+     */
+    ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    private void ensureCapacity(int additionalBytes) {
+        if (size + additionalBytes > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additionalBytes));
+        }
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift >= 64) {
+                throw new IllegalArgumentException("Malformed variable-length integer");
+            }
+        }
+    }
+
+    static long readSignedVarLong(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.infra;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes lines of text into a reusable byte buffer, flushed to a channel whenever it is full, so that memory use does
+ * not depend on how much is written. Numbers are written as ASCII digits without going through a <code>String</code>,
+ * and text as UTF-8.
+ * <p>
+ * Not thread-safe.
+ */
+final class ChannelLineWriter {
+    static final int DEFAULT_CAPACITY = 64 << 10;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[11];
+
+    ChannelLineWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY);
+    }
+
+    ChannelLineWriter(WritableByteChannel channel, int capacity) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(capacity, digits.length));
+    }
+
+    /**
+     * @param text must only contain ASCII characters
+     */
+    ChannelLineWriter ascii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            put((byte) text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * @param character must be an ASCII character
+     */
+    ChannelLineWriter ascii(char character) throws IOException {
+        put((byte) character);
+        return this;
+    }
+
+    ChannelLineWriter text(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character >= 0x80) {
+                // rare enough to afford encoding the whole text
+                return bytes(text.substring(i).getBytes(StandardCharsets.UTF_8));
+            }
+            put((byte) character);
+        }
+        return this;
+    }
+
+    ChannelLineWriter number(int value) throws IOException {
+        if (buffer.remaining() < digits.length) {
+            flush();
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        buffer.put(digits, position, digits.length - position);
+        return this;
+    }
+
+    ChannelLineWriter newLine() throws IOException {
+        return bytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes what is buffered to the channel, which is left open.
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private ChannelLineWriter bytes(byte[] bytes) throws IOException {
+        for (byte value : bytes) {
+            put(value);
+        }
+        return this;
+    }
+
+    private void put(byte value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(value);
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.infra;
+
+import org.example.domain.SimulationSnapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary format of checkpoint files: a header, a keyframe holding a whole snapshot, then deltas against the previous
+ * snapshot, each record being checksummed. A record truncated by a crash is ignored, and the snapshot of the last
+ * complete record is the one resumed from.
+ * <pre>
+ * header:  magic (int) | version (byte) | input fingerprint (long) | players count (int) | treasures count (int)
+ * record:  type (byte) | payload length (int) | payload CRC32 (int) | payload
+ * payload: turn (varint), then players west-east, north-south, orientations, collected treasures, command cursors
+ *          and treasures quantities
+ * </pre>
+ * A keyframe payload holds every value, a delta payload only the values that changed, as the count of changed values
+ * followed by pairs of gap since the previous changed index and difference with the previous value. All the integers of
+ * payloads are zigzag varints, so most values take one byte.
+ * <p>
+ * The input fingerprint is a checksum of the input file the simulation was built from, so that a checkpoint is never
+ * resumed on another input, even one with as many players and treasures.
+ */
+public final class CheckpointFile {
+    static final int MAGIC = 0x54484350;
+    static final byte VERSION = 2;
+    static final byte KEYFRAME = 0;
+    static final byte DELTA = 1;
+    static final int HEADER_SIZE = 21;
+    static final int RECORD_HEADER_SIZE = 9;
+    private static final int FIELDS_COUNT = 6;
+    private static final int FINGERPRINT_BUFFER_SIZE = 1 << 20;
+
+    private CheckpointFile() {
+    }
+
+    /**
+     * @return checksum of the content of the input file, to be given to <code>CheckpointWriter</code>
+     */
+    public static long fingerprint(Path input) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FINGERPRINT_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (channel.read(buffer.clear()) >= 0) {
+                crc.update(buffer.flip());
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * @param inputFingerprint the one of the input the simulation to resume was built from
+     * @return the snapshot of the last complete record, or nothing if there is no checkpoint file yet
+     * @throws IllegalArgumentException if the checkpoints were taken from a simulation of another input
+     */
+    public static Optional<SimulationSnapshot> readLatest(Path path, long inputFingerprint) throws IOException {
+        return read(path, inputFingerprint, true);
+    }
+
+    /**
+     * Same as <code>readLatest(Path, long)</code>, whatever the input the checkpoints were taken from.
+     */
+    public static Optional<SimulationSnapshot> readLatest(Path path) throws IOException {
+        return read(path, 0, false);
+    }
+
+    private static Optional<SimulationSnapshot> read(Path path, long inputFingerprint, boolean checkingInput)
+            throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("%s is not a checkpoint file".formatted(path));
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported checkpoint version %d in %s".formatted(version, path));
+        }
+        long fingerprint = buffer.getLong();
+        if (checkingInput && fingerprint != inputFingerprint) {
+            throw new IllegalArgumentException("%s was not checkpointed from the same input".formatted(path));
+        }
+        int playersCount = buffer.getInt();
+        int treasuresCount = buffer.getInt();
+
+        SimulationSnapshot latest = null;
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            byte type = buffer.get();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum || (type == DELTA && latest == null)) {
+                break;
+            }
+            try {
+                latest = type == KEYFRAME
+                        ? decodeKeyframe(payload, playersCount, treasuresCount)
+                        : decodeDelta(payload, latest);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+            buffer.position(buffer.position() + length);
+        }
+        return Optional.ofNullable(latest);
+    }
+
+    static void writeHeader(BinaryOutput output, long inputFingerprint, SimulationSnapshot snapshot) {
+        output.writeInt(MAGIC)
+                .writeByte(VERSION)
+                .writeLong(inputFingerprint)
+                .writeInt(snapshot.playersCount())
+                .writeInt(snapshot.treasuresCount());
+    }
+
+    static void writeRecord(BinaryOutput output, byte type, BinaryOutput payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.asByteBuffer());
+        output.writeByte(type)
+                .writeInt(payload.size())
+                .writeInt((int) crc.getValue())
+                .write(payload.asByteBuffer());
+    }
+
+    static void encodeKeyframe(SimulationSnapshot snapshot, BinaryOutput payload) {
+        payload.writeVarLong(snapshot.turn());
+        for (int[] field : fields(snapshot)) {
+            for (int value : field) {
+                payload.writeSignedVarLong(value);
+            }
+        }
+    }
+
+    static void encodeDelta(SimulationSnapshot previous, SimulationSnapshot snapshot, BinaryOutput payload) {
+        payload.writeVarLong(snapshot.turn());
+        int[][] previousFields = fields(previous);
+        int[][] fields = fields(snapshot);
+        for (int f = 0; f < FIELDS_COUNT; f++) {
+            int[] previousValues = previousFields[f];
+            int[] values = fields[f];
+            int changedCount = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != previousValues[i]) {
+                    changedCount++;
+                }
+            }
+            payload.writeVarLong(changedCount);
+            int nextIndex = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != previousValues[i]) {
+                    payload.writeVarLong(i - nextIndex);
+                    payload.writeSignedVarLong((long) values[i] - previousValues[i]);
+                    nextIndex = i + 1;
+                }
+            }
+        }
+    }
+
+    private static SimulationSnapshot decodeKeyframe(ByteBuffer payload, int playersCount, int treasuresCount) {
+        long turn = BinaryOutput.readVarLong(payload);
+        int[][] fields = new int[FIELDS_COUNT][];
+        for (int f = 0; f < FIELDS_COUNT; f++) {
+            fields[f] = new int[f == FIELDS_COUNT - 1 ? treasuresCount : playersCount];
+            for (int i = 0; i < fields[f].length; i++) {
+                fields[f][i] = (int) BinaryOutput.readSignedVarLong(payload);
+            }
+        }
+        return snapshot(turn, fields);
+    }
+
+    private static SimulationSnapshot decodeDelta(ByteBuffer payload, SimulationSnapshot previous) {
+        long turn = BinaryOutput.readVarLong(payload);
+        int[][] fields = fields(previous);
+        for (int f = 0; f < FIELDS_COUNT; f++) {
+            int[] values = fields[f].clone();
+            long changedCount = BinaryOutput.readVarLong(payload);
+            int index = 0;
+            for (long c = 0; c < changedCount; c++) {
+                index += (int) BinaryOutput.readVarLong(payload);
+                if (index < 0 || index >= values.length) {
+                    throw new IllegalArgumentException("Delta index %d out of %d values".formatted(index, values.length));
+                }
+                values[index] = (int) (values[index] + BinaryOutput.readSignedVarLong(payload));
+                index++;
+            }
+            fields[f] = values;
+        }
+        return snapshot(turn, fields);
+    }
+
+    /**
+     * @return the arrays of the snapshot in the order of the file, orientations widened to <code>int</code>
+     */
+    private static int[][] fields(SimulationSnapshot snapshot) {
+        int[] orientations = new int[snapshot.orientations().length];
+        for (int i = 0; i < orientations.length; i++) {
+            orientations[i] = snapshot.orientations()[i];
+        }
+        return new int[][]{
+                snapshot.westEast(),
+                snapshot.northSouth(),
+                orientations,
+                snapshot.collectedTreasures(),
+                snapshot.commandCursors(),
+                snapshot.treasuresQuantities()
+        };
+    }
+
+    private static SimulationSnapshot snapshot(long turn, int[][] fields) {
+        byte[] orientations = new byte[fields[2].length];
+        for (int i = 0; i < orientations.length; i++) {
+            orientations[i] = (byte) fields[2][i];
+        }
+        return new SimulationSnapshot(turn, fields[0], fields[1], orientations, fields[3], fields[4], fields[5]);
+    }
+}
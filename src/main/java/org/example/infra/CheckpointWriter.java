@@ -0,0 +1,181 @@
+package org.example.infra;
+
+import org.example.domain.Simulation;
+import org.example.domain.SimulationListener;
+import org.example.domain.SimulationSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Periodically checkpoints a running simulation to a <code>CheckpointFile</code>, every given number of turns or
+ * given duration, whichever comes first.
+ * <p>
+ * The simulation thread only copies its state into a snapshot, which is encoded and written by a background thread. If
+ * the writer is still busy when the next snapshot is taken, the pending one is replaced, as only the latest matters.
+ * <p>
+ * Every <code>KEYFRAME_INTERVAL</code> records, the file is rewritten from a keyframe and atomically renamed over the
+ * previous one, which bounds its size. Other snapshots are appended as deltas against the previous one. Every record is
+ * forced to the storage device before the next one is written.
+ */
+public final class CheckpointWriter implements SimulationListener, AutoCloseable {
+    static final int KEYFRAME_INTERVAL = 32;
+
+    private final Path path;
+    private final long inputFingerprint;
+    private final long turnsInterval;
+    private final long nanosInterval;
+    private final ExecutorService executor;
+    private final AtomicReference<SimulationSnapshot> pending = new AtomicReference<>();
+    private long lastCheckpointNanos = System.nanoTime();
+    private volatile Throwable failure;
+
+    // only accessed by the writer thread
+    private FileChannel channel;
+    private SimulationSnapshot previous;
+    private int recordsSinceKeyframe;
+    private final BinaryOutput payload = new BinaryOutput(1 << 16);
+    private final BinaryOutput record = new BinaryOutput(1 << 16);
+
+    /**
+     * @param inputFingerprint <code>CheckpointFile.fingerprint</code> of the input the simulation was built from
+     */
+    public CheckpointWriter(Path path, long inputFingerprint, long turnsInterval, Duration interval) {
+        if (turnsInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoints turns interval must be greater than zero but was %d"
+                    .formatted(turnsInterval));
+        }
+        this.path = path.toAbsolutePath();
+        this.inputFingerprint = inputFingerprint;
+        this.turnsInterval = turnsInterval;
+        this.nanosInterval = interval.toNanos();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        long now = System.nanoTime();
+        if (simulation.getTurn() % turnsInterval != 0 && now - lastCheckpointNanos < nanosInterval) {
+            return;
+        }
+        lastCheckpointNanos = now;
+        checkpoint(simulation);
+    }
+
+    /**
+     * Snapshots the simulation right away, to be written in the background.
+     */
+    public void checkpoint(Simulation simulation) {
+        if (pending.getAndSet(simulation.snapshot()) == null) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Waits for the pending snapshot to be written.
+     *
+     * @throws IOException if any checkpoint could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        awaitWrites();
+        if (channel != null) {
+            channel.close();
+        }
+        if (failure != null) {
+            throw new IOException("Could not write checkpoint to %s".formatted(path), failure);
+        }
+    }
+
+    /**
+     * Waits even if interrupted, as giving up would leave the checkpoint file behind the last snapshot taken, the interrupt being restored once done.
+     */
+    private void awaitWrites() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending() {
+        SimulationSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null || failure != null) {
+            return;
+        }
+        try {
+            if (previous == null || recordsSinceKeyframe == KEYFRAME_INTERVAL) {
+                writeKeyframe(snapshot);
+            } else {
+                appendDelta(snapshot);
+            }
+            previous = snapshot;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void writeKeyframe(SimulationSnapshot snapshot) throws IOException {
+        payload.reset();
+        record.reset();
+        CheckpointFile.encodeKeyframe(snapshot, payload);
+        CheckpointFile.writeHeader(record, inputFingerprint, snapshot);
+        CheckpointFile.writeRecord(record, CheckpointFile.KEYFRAME, payload);
+
+        if (channel != null) {
+            channel.close();
+        }
+        Path temporaryFile = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel temporary = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(temporary, record.asByteBuffer());
+            temporary.force(true);
+        }
+        try {
+            Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        recordsSinceKeyframe = 1;
+    }
+
+    private void appendDelta(SimulationSnapshot snapshot) throws IOException {
+        payload.reset();
+        record.reset();
+        CheckpointFile.encodeDelta(previous, snapshot, payload);
+        CheckpointFile.writeRecord(record, CheckpointFile.DELTA, payload);
+        writeFully(channel, record.asByteBuffer());
+        channel.force(false);
+        recordsSinceKeyframe++;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
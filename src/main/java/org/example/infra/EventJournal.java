@@ -0,0 +1,226 @@
+package org.example.infra;
+
+import org.example.domain.BlockReason;
+import org.example.domain.Coordinates;
+import org.example.domain.Orientation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Binary format of event journals, written by <code>EventJournalWriter</code>: length-prefixed blocks, the first one
+ * being the header, the others holding whole turns.
+ * <pre>
+ * header: magic (int) | version (byte) | first turn (varint) | players count (varint), then for each player:
+ *         name length (varint) | UTF-8 name | west-east (zigzag varint) | north-south (zigzag varint)
+ *         | orientation (byte) | still playing (byte)
+ * turn:   steps count (varint) | steps, 2 bits each, 4 per byte | extras count (varint)
+ *         | extras, as gap since the step of the previous extra (varint) and tag (varint)
+ * </pre>
+ * Each player still playing takes one step per turn, in the order of the players, telling whether it moved, was blocked,
+ * or turned left or right. Its position and orientation are deduced from the previous ones, so that a trajectory only
+ * takes 2 bits per step. The rarer events are extras: a blocked step has the reason as tag, then a collected treasure
+ * has <code>COLLECTED_TAG</code> plus the index of the treasure, and the last step of a player has
+ * <code>DONE_TAG</code>.
+ */
+public final class EventJournal {
+    static final int MAGIC = 0x5448454A;
+    static final byte VERSION = 1;
+    static final int MOVED = 0;
+    static final int BLOCKED = 1;
+    static final int TURNED_LEFT = 2;
+    static final int TURNED_RIGHT = 3;
+    static final int DONE_TAG = BlockReason.values().length;
+    static final int COLLECTED_TAG = DONE_TAG + 1;
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+    private static final BlockReason[] BLOCK_REASONS = BlockReason.values();
+
+    private EventJournal() {
+    }
+
+    /**
+     * Replays the journal, in the order the events happened. A block truncated by a crash ends the replay.
+     */
+    public static void forEachEvent(Path path, Consumer<Event> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readBlock(channel);
+            if (header == null || header.remaining() < 5 || header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("%s is not an event journal".formatted(path));
+            }
+            byte version = header.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported event journal version %d in %s".formatted(version, path));
+            }
+            Replay replay = new Replay(header, consumer);
+            for (ByteBuffer block = readBlock(channel); block != null; block = readBlock(channel)) {
+                while (block.hasRemaining()) {
+                    replay.turn(block);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the next block, or <code>null</code> if there is no complete one left
+     */
+    private static ByteBuffer readBlock(FileChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        if (!readFully(channel, length)) {
+            return null;
+        }
+        ByteBuffer block = ByteBuffer.allocate(length.getInt(0));
+        return readFully(channel, block) ? block.flip() : null;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param coordinates of the player once the event happened: where it collected a treasure, or where it was
+     *                    blocked
+     * @param blockReason only set for blocked moves
+     */
+    public record Event(long turn,
+                        String player,
+                        Type type,
+                        Coordinates coordinates,
+                        Orientation orientation,
+                        BlockReason blockReason) {
+    }
+
+    public enum Type {
+        MOVED, BLOCKED, TURNED_LEFT, TURNED_RIGHT, COLLECTED, DONE
+    }
+
+    /**
+     * State of the players, updated turn after turn.
+     */
+    private static final class Replay {
+        private final Consumer<Event> consumer;
+        private final String[] names;
+        private final int[] westEast;
+        private final int[] northSouth;
+        private final Orientation[] orientations;
+        private final int[] activePlayers;
+        private int activePlayersCount;
+        private long turn;
+        private int[] extraSlots = new int[16];
+        private int[] extraTags = new int[16];
+
+        Replay(ByteBuffer header, Consumer<Event> consumer) {
+            this.consumer = consumer;
+            this.turn = BinaryOutput.readVarLong(header);
+            int playersCount = (int) BinaryOutput.readVarLong(header);
+            names = new String[playersCount];
+            westEast = new int[playersCount];
+            northSouth = new int[playersCount];
+            orientations = new Orientation[playersCount];
+            activePlayers = new int[playersCount];
+            for (int i = 0; i < playersCount; i++) {
+                byte[] name = new byte[(int) BinaryOutput.readVarLong(header)];
+                header.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                westEast[i] = (int) BinaryOutput.readSignedVarLong(header);
+                northSouth[i] = (int) BinaryOutput.readSignedVarLong(header);
+                orientations[i] = ORIENTATIONS[header.get()];
+                if (header.get() != 0) {
+                    activePlayers[activePlayersCount++] = i;
+                }
+            }
+        }
+
+        void turn(ByteBuffer block) {
+            turn++;
+            int stepsCount = (int) BinaryOutput.readVarLong(block);
+            if (stepsCount != activePlayersCount) {
+                throw new IllegalArgumentException("Turn %d has %d steps for %d players still playing"
+                        .formatted(turn, stepsCount, activePlayersCount));
+            }
+            ByteBuffer steps = block.slice(block.position(), (stepsCount + 3) / 4);
+            block.position(block.position() + steps.limit());
+            readExtras(block);
+
+            int extra = 0;
+            int stillActiveCount = 0;
+            for (int slot = 0; slot < stepsCount; slot++) {
+                int player = activePlayers[slot];
+                int code = (steps.get(slot >> 2) >> ((slot & 3) << 1)) & 3;
+                boolean done = false;
+                switch (code) {
+                    case MOVED -> {
+                        move(player);
+                        emit(player, Type.MOVED, null);
+                    }
+                    case BLOCKED -> emit(player, Type.BLOCKED, BLOCK_REASONS[extraTags[extra++]]);
+                    case TURNED_LEFT -> {
+                        orientations[player] = orientations[player].leftOf();
+                        emit(player, Type.TURNED_LEFT, null);
+                    }
+                    default -> {
+                        orientations[player] = orientations[player].rightOf();
+                        emit(player, Type.TURNED_RIGHT, null);
+                    }
+                }
+                for (; extra < extraSlots.length && extraSlots[extra] == slot; extra++) {
+                    if (extraTags[extra] == DONE_TAG) {
+                        done = true;
+                        emit(player, Type.DONE, null);
+                    } else {
+                        emit(player, Type.COLLECTED, null);
+                    }
+                }
+                if (!done) {
+                    activePlayers[stillActiveCount++] = player;
+                }
+            }
+            activePlayersCount = stillActiveCount;
+        }
+
+        /**
+         * Decodes the extras of the turn, followed by a sentinel slot.
+         */
+        private void readExtras(ByteBuffer block) {
+            int extrasCount = (int) BinaryOutput.readVarLong(block);
+            if (extraSlots.length <= extrasCount) {
+                extraSlots = new int[extrasCount + 1];
+                extraTags = new int[extrasCount + 1];
+            }
+            int slot = 0;
+            for (int i = 0; i < extrasCount; i++) {
+                slot += (int) BinaryOutput.readVarLong(block);
+                extraSlots[i] = slot;
+                extraTags[i] = (int) BinaryOutput.readVarLong(block);
+            }
+            extraSlots[extrasCount] = -1;
+        }
+
+        private void move(int player) {
+            switch (orientations[player]) {
+                case NORTH -> northSouth[player]--;
+                case EAST -> westEast[player]++;
+                case SOUTH -> northSouth[player]++;
+                case WEST -> westEast[player]--;
+            }
+        }
+
+        private void emit(int player, Type type, BlockReason blockReason) {
+            consumer.accept(new Event(turn,
+                    names[player],
+                    type,
+                    new Coordinates(westEast[player], northSouth[player]),
+                    orientations[player],
+                    blockReason));
+        }
+    }
+}
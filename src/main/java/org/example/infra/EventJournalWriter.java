@@ -0,0 +1,220 @@
+package org.example.infra;
+
+import org.example.domain.BlockReason;
+import org.example.domain.Player;
+import org.example.domain.Simulation;
+import org.example.domain.SimulationListener;
+import org.example.domain.SimulationSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the events of a running simulation to an <code>EventJournal</code> file.
+ * <p>
+ * The simulation thread only packs each step in 2 bits of the current turn, and the rarer events next to them, into an
+ * in-memory block. Steps are written in place in an array sized for a step of every player, so that a move, the most
+ * common step and coded as zero, only costs a counter increment. Full blocks are written by a background thread, at
+ * most <code>MAX_PENDING_BLOCKS</code> of them waiting at once, after which the simulation waits for the writer rather
+ * than filling the memory.
+ */
+public final class EventJournalWriter implements SimulationListener, AutoCloseable {
+    static final int BLOCK_SIZE = 1 << 16;
+    static final int MAX_PENDING_BLOCKS = 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ExecutorService executor;
+    private final Semaphore pendingBlocks = new Semaphore(MAX_PENDING_BLOCKS);
+    private final Queue<BinaryOutput> spareBlocks = new ConcurrentLinkedQueue<>();
+    private volatile Throwable failure;
+
+    // only accessed by the simulation thread
+    private BinaryOutput block = new BinaryOutput(BLOCK_SIZE);
+    private final byte[] steps;
+    private final BinaryOutput extras = new BinaryOutput(1 << 10);
+    private int stepsCount;
+    private int extrasCount;
+    private int lastExtraSlot;
+
+    /**
+     * Starts the journal from the current state of the simulation, which may have been restored from a checkpoint.
+     */
+    public EventJournalWriter(Path path, Simulation simulation) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-journal-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.steps = new byte[bytesFor(simulation.getPlayers().size())];
+        writeHeader(simulation);
+    }
+
+    private void writeHeader(Simulation simulation) {
+        SimulationSnapshot snapshot = simulation.snapshot();
+        List<Player> players = simulation.getPlayers();
+        block.writeInt(EventJournal.MAGIC)
+                .writeByte(EventJournal.VERSION)
+                .writeVarLong(snapshot.turn())
+                .writeVarLong(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            byte[] name = players.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            block.writeVarLong(name.length)
+                    .write(ByteBuffer.wrap(name))
+                    .writeSignedVarLong(snapshot.westEast()[i])
+                    .writeSignedVarLong(snapshot.northSouth()[i])
+                    .writeByte(snapshot.orientations()[i])
+                    .writeByte(snapshot.commandCursors()[i] == SimulationSnapshot.FINISHED ? 0 : 1);
+        }
+        submitBlock();
+    }
+
+    @Override
+    public void playerMoved(int player) {
+        // MOVED being zero, the step is already written
+        stepsCount++;
+    }
+
+    @Override
+    public void playerBlocked(int player, BlockReason reason) {
+        step(EventJournal.BLOCKED);
+        extra(reason.ordinal());
+    }
+
+    @Override
+    public void playerTurnedLeft(int player) {
+        step(EventJournal.TURNED_LEFT);
+    }
+
+    @Override
+    public void playerTurnedRight(int player) {
+        step(EventJournal.TURNED_RIGHT);
+    }
+
+    @Override
+    public void treasureCollected(int player, int treasure) {
+        extra(EventJournal.COLLECTED_TAG + treasure);
+    }
+
+    @Override
+    public void playerDone(int player) {
+        extra(EventJournal.DONE_TAG);
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        int stepsSize = bytesFor(stepsCount);
+        block.writeVarLong(stepsCount)
+                .write(steps, stepsSize)
+                .writeVarLong(extrasCount)
+                .write(extras.asByteBuffer());
+        Arrays.fill(steps, 0, stepsSize, (byte) 0);
+        extras.reset();
+        stepsCount = 0;
+        extrasCount = 0;
+        lastExtraSlot = 0;
+        if (block.size() >= BLOCK_SIZE) {
+            submitBlock();
+        }
+    }
+
+    private void step(int code) {
+        steps[stepsCount >>> 2] |= (byte) (code << ((stepsCount & 3) << 1));
+        stepsCount++;
+    }
+
+    private static int bytesFor(int stepsCount) {
+        return (stepsCount + 3) >>> 2;
+    }
+
+    /**
+     * Attached to the step notified last.
+     */
+    private void extra(int tag) {
+        int slot = stepsCount - 1;
+        extras.writeVarLong(slot - lastExtraSlot).writeVarLong(tag);
+        lastExtraSlot = slot;
+        extrasCount++;
+    }
+
+    private void submitBlock() {
+        BinaryOutput full = block;
+        BinaryOutput spare = spareBlocks.poll();
+        block = spare != null ? spare : new BinaryOutput(BLOCK_SIZE);
+        pendingBlocks.acquireUninterruptibly();
+        executor.execute(() -> write(full));
+    }
+
+    private void write(BinaryOutput full) {
+        try {
+            if (failure == null) {
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).putInt(0, full.size());
+                writeFully(length);
+                writeFully(full.asByteBuffer());
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            full.reset();
+            spareBlocks.offer(full);
+            pendingBlocks.release();
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the turns recorded so far and waits for every block to be written. Turns played after are not recorded.
+     *
+     * @throws IOException if any block could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (block.size() > 0) {
+            submitBlock();
+        }
+        executor.shutdown();
+        awaitWrites();
+        channel.close();
+        if (failure != null) {
+            throw new IOException("Could not write event journal to %s".formatted(path), failure);
+        }
+    }
+
+    /**
+     * Waits even if interrupted, as giving up would leave the journal without its last blocks, the interrupt being restored once done.
+     */
+    private void awaitWrites() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
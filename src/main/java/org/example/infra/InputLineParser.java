@@ -0,0 +1,239 @@
+package org.example.infra;
+
+import org.example.domain.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.example.infra.InputReader.SIZE_ALREADY_DEFINED_ERROR_MESSAGE_FORMAT;
+
+/**
+ * Parses input lines directly from their bytes, and feeds a <code>SimulationBuilder</code> with them. Record types,
+ * separators and numbers are all ASCII, so they are scanned in place: a mountain or treasure line allocates nothing
+ * but the domain object it describes, and only player names are decoded, as UTF-8.
+ * <p>
+ * Accepts and rejects the same lines as the former <code>String</code> based reader: fields are separated by
+ * <code>-</code> and trimmed, lines not starting with a record type are ignored. Text is only decoded to build the
+ * message of an error.
+ * <p>
+ * Long command scripts keep referencing the buffer, which must therefore not be modified afterward. A mapped window
+ * stays mapped as long as such a script is in use, its pages being loaded and evicted by the operating system.
+ * <p>
+ * Not thread-safe, meant to be used for a single builder.
+ */
+final class InputLineParser {
+    private static final String COMMAND_ERROR_PREFIX = "No enum constant " + Command.class.getCanonicalName() + ".";
+    private static final String ORIENTATION_ERROR_PREFIX =
+            "No enum constant " + OrientationData.class.getCanonicalName() + ".";
+
+    /**
+     * Length from which a script is read from the input on demand instead of being packed on the heap.
+     */
+    static final int TEXT_SCRIPT_MIN_LENGTH = 4096;
+
+    private final SimulationBuilder builder;
+
+    private ByteBuffer buffer;
+    private int lineStart;
+    private int lineEnd;
+    /**
+     * Bounds of the current field, trimmed.
+     */
+    private int fieldStart;
+    private int fieldEnd;
+    /**
+     * Start of the next field, after the previous separator, or past the end of the line if there is none.
+     */
+    private int nextFieldStart;
+    private byte[] scratch = new byte[64];
+    /**
+     * Line the size was read from, kept to report a size defined again in a later chunk of the file.
+     */
+    private String sizeLine;
+
+    InputLineParser(SimulationBuilder builder) {
+        this.builder = builder;
+    }
+
+    void parse(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        this.buffer = buffer;
+        this.lineStart = start;
+        this.lineEnd = end;
+        this.nextFieldStart = start;
+        switch (buffer.get(start)) {
+            case 'C' -> parseSize();
+            case 'M' -> parseMountain();
+            case 'T' -> parseTreasure();
+            case 'A' -> parsePlayer();
+            default -> {
+            }
+        }
+    }
+
+    private void parseSize() {
+        if (builder.getSize() != null) {
+            throw new IllegalArgumentException(SIZE_ALREADY_DEFINED_ERROR_MESSAGE_FORMAT.formatted(decode(lineStart, lineEnd)));
+        }
+        skipRecordType();
+        int width = nextInt();
+        int height = nextInt();
+        builder.withSize(width, height);
+        sizeLine = decode(lineStart, lineEnd);
+    }
+
+    String getSizeLine() {
+        return sizeLine;
+    }
+
+    private void parseMountain() {
+        skipRecordType();
+        int westEast = nextInt();
+        int northSouth = nextInt();
+        builder.addMountain(westEast, northSouth);
+    }
+
+    private void parseTreasure() {
+        skipRecordType();
+        int westEast = nextInt();
+        int northSouth = nextInt();
+        int quantity = nextInt();
+        builder.addTreasure(westEast, northSouth, quantity);
+    }
+
+    private void parsePlayer() {
+        skipRecordType();
+        nextField();
+        String name = decode(fieldStart, fieldEnd);
+        int westEast = nextInt();
+        int northSouth = nextInt();
+        Orientation orientation = nextOrientation();
+        CommandScript commands = nextCommands();
+        builder.addPlayer(new Player(name, new Coordinates(westEast, northSouth), orientation, commands));
+    }
+
+    private void skipRecordType() {
+        nextField();
+    }
+
+    private void nextField() {
+        if (nextFieldStart > lineEnd) {
+            throw new IllegalArgumentException("Missing field in line %s".formatted(decode(lineStart, lineEnd)));
+        }
+        int start = nextFieldStart;
+        int end = start;
+        while (end < lineEnd && buffer.get(end) != '-') {
+            end++;
+        }
+        nextFieldStart = end + 1;
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        fieldStart = start;
+        fieldEnd = end;
+    }
+
+    /**
+     * Same grammar as <code>Integer.parseInt</code> for the ASCII digits, the sign being necessarily positive as
+     * <code>-</code> separates fields.
+     */
+    private int nextInt() {
+        nextField();
+        int i = fieldStart;
+        if (i < fieldEnd && buffer.get(i) == '+') {
+            i++;
+        }
+        if (i == fieldEnd) {
+            throw invalidNumber();
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber();
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                throw invalidNumber();
+            }
+        }
+        return (int) value;
+    }
+
+    private Orientation nextOrientation() {
+        nextField();
+        if (fieldEnd - fieldStart == 1) {
+            switch (buffer.get(fieldStart)) {
+                case 'N' -> {
+                    return Orientation.NORTH;
+                }
+                case 'E' -> {
+                    return Orientation.EAST;
+                }
+                case 'S' -> {
+                    return Orientation.SOUTH;
+                }
+                case 'W' -> {
+                    return Orientation.WEST;
+                }
+                default -> {
+                }
+            }
+        }
+        throw new IllegalArgumentException(ORIENTATION_ERROR_PREFIX + decode(fieldStart, fieldEnd));
+    }
+
+    /**
+     * Long scripts are kept as a view of their text rather than copied, so that their heap footprint does not depend
+     * on their length. They are validated right away all the same.
+     */
+    private CommandScript nextCommands() {
+        nextField();
+        if (fieldStart == fieldEnd) {
+            throw new IllegalArgumentException(COMMAND_ERROR_PREFIX);
+        }
+        int length = fieldEnd - fieldStart;
+        if (length >= TEXT_SCRIPT_MIN_LENGTH) {
+            for (int i = fieldStart; i < fieldEnd; i++) {
+                byte command = buffer.get(i);
+                if (command != 'A' && command != 'G' && command != 'D') {
+                    throw new IllegalArgumentException(COMMAND_ERROR_PREFIX + decode(i, i + 1));
+                }
+            }
+            return CommandScript.ofAscii(buffer.slice(fieldStart, length));
+        }
+        CommandScript.Builder commands = CommandScript.builder();
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            switch (buffer.get(i)) {
+                case 'A' -> commands.append(Command.A);
+                case 'G' -> commands.append(Command.G);
+                case 'D' -> commands.append(Command.D);
+                default -> throw new IllegalArgumentException(COMMAND_ERROR_PREFIX + decode(i, i + 1));
+            }
+        }
+        return commands.build();
+    }
+
+    private NumberFormatException invalidNumber() {
+        return new NumberFormatException("For input string: \"%s\"".formatted(decode(fieldStart, fieldEnd)));
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isWhitespace(byte value) {
+        // same as String.trim(), non-ASCII bytes are negative
+        return value >= 0 && value <= ' ';
+    }
+}
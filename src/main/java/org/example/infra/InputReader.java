@@ -1,94 +1,163 @@
 package org.example.infra;
 
 import lombok.SneakyThrows;
-import org.example.domain.*;
+import org.example.domain.SimulationBuilder;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
+/**
+ * Reads simulation files. The file is mapped in memory and its lines are parsed from their bytes by
+ * <code>InputLineParser</code>, so that reading worlds of tens of millions of lines does not decode nor split any of
+ * them.
+ * <p>
+ * Large files are split in line-aligned chunks parsed concurrently into partial builders, which are then merged in
+ * file order: the players order, which the simulation depends on, is the one of the file, and the first error in the
+ * file is the one reported, as if it had been read sequentially. Partial builders only fill their lists, the features
+ * being indexed once, when the merged builder is built.
+ */
 public class InputReader {
     static final String SIZE_ALREADY_DEFINED_ERROR_MESSAGE_FORMAT = "Error reading line %s. Size already defined";
+    static final long MIN_CHUNK_SIZE = 16L << 20;
 
-    @SneakyThrows
     public static SimulationBuilder readFile(String pathString) {
-        SimulationBuilder simulationBuilder = new SimulationBuilder();
-        Path path = Paths.get(pathString);
+        return readFile(pathString, Runtime.getRuntime().availableProcessors());
+    }
 
-        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8);) {
-            lines.forEach(line -> {
-                readLine(line, simulationBuilder);
-            });
+    /**
+     * Reads an input file listing no mountain, the mountains being those of a <code>TiledTerrain</code> file instead,
+     * for maps whose mountains do not fit in the heap.
+     */
+    @SneakyThrows
+    public static SimulationBuilder readFile(String pathString, Path terrainPath) {
+        SimulationBuilder builder = readFile(pathString);
+        if (!builder.getMountains().isEmpty()) {
+            throw new IllegalArgumentException("%s must not list any mountain, those of the terrain %s being used"
+                    .formatted(pathString, terrainPath));
         }
-
-        return simulationBuilder;
+        return builder.withTerrain(TiledTerrain.open(terrainPath));
     }
 
-    static void readLine(String line, SimulationBuilder simulationData) {
-        if (line.startsWith("C")) {
-            readSize(line, simulationData);
-        } else if (line.startsWith("M")) {
-            readMountain(line, simulationData);
-        } else if (line.startsWith("T")) {
-            readTreasure(line, simulationData);
-        } else if (line.startsWith("A")) {
-            readPlayer(line, simulationData);
+    /**
+     * @param maxChunksCount maximum number of chunks parsed concurrently, files being split in chunks of at least
+     *                       <code>MIN_CHUNK_SIZE</code> bytes
+     */
+    @SneakyThrows
+    public static SimulationBuilder readFile(String pathString, int maxChunksCount) {
+        Path path = Paths.get(pathString);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int chunksCount = (int) Math.max(1, Math.min(maxChunksCount, channel.size() / MIN_CHUNK_SIZE));
+            return readChunks(channel, chunksCount);
         }
     }
 
-    private static void readPlayer(String line, SimulationBuilder simulationData) {
-        String[] split = line.split("-");
-        String name = split[1].trim();
-        Coordinates coordinates = readCoordinates(split[2], split[3]);
-        Orientation orientation = readOrientation(split[4]);
-        List<Command> commands = readCommands(split[5]);
-        Player player = new Player(name, coordinates, orientation, commands);
-        simulationData.addPlayer(player);
+    @SneakyThrows
+    static SimulationBuilder readChunks(FileChannel channel, int chunksCount) {
+        long[] boundaries = chunksBoundaries(channel, chunksCount);
+        if (boundaries.length == 2) {
+            Chunk chunk = readChunk(channel, boundaries[0], boundaries[1]);
+            if (chunk.error() != null) {
+                throw chunk.error();
+            }
+            return chunk.builder();
+        }
+        List<Chunk> chunks = IntStream.range(0, boundaries.length - 1)
+                .parallel()
+                .mapToObj(i -> readChunk(channel, boundaries[i], boundaries[i + 1]))
+                .toList();
+        return merge(chunks);
     }
 
-    private static Orientation readOrientation(String orientationString) {
-        OrientationData orientationInput = OrientationData.valueOf(orientationString.trim());
-        return orientationInput.toDomainValue();
+    static void readLine(String line, SimulationBuilder simulationData) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        new InputLineParser(simulationData).parse(ByteBuffer.wrap(bytes), 0, bytes.length);
     }
 
-    private static List<Command> readCommands(String commandsString) {
-        String[] commandsStrings = commandsString.trim().split("");
-        return Arrays.stream(commandsStrings)
-                .map(Command::valueOf)
-                .toList();
+    /**
+     * Splits the file evenly, then moves every boundary forward to the start of the next line. Long lines may make
+     * boundaries collapse, so there may be fewer chunks than requested.
+     *
+     * @return offsets of the start of each chunk, followed by the size of the file
+     */
+    private static long[] chunksBoundaries(FileChannel channel, int chunksCount) throws IOException {
+        long size = channel.size();
+        long[] boundaries = new long[chunksCount + 1];
+        int count = 1;
+        for (int i = 1; i < chunksCount; i++) {
+            long boundary = nextLineStart(channel, Math.max(size / chunksCount * i, boundaries[count - 1]));
+            if (boundary > boundaries[count - 1] && boundary < size) {
+                boundaries[count++] = boundary;
+            }
+        }
+        boundaries[count++] = size;
+        return Arrays.copyOf(boundaries, count);
     }
 
-    private static void readTreasure(String line, SimulationBuilder simulationData) {
-        String[] split = line.split("-");
-        int weCoordinates = Integer.parseInt(split[1].trim());
-        int nsCoordinates = Integer.parseInt(split[2].trim());
-        int quantity = Integer.parseInt(split[3].trim());
-        Treasure treasure = new Treasure(weCoordinates, nsCoordinates, quantity);
-        simulationData.addTreasure(treasure);
+    private static long nextLineStart(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte current = buffer.get(i);
+                if (current == '\n' || current == '\r') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
     }
 
-    private static void readSize(String line, SimulationBuilder simulationData) {
-        if (simulationData.getSize() != null) {
-            throw new IllegalArgumentException(SIZE_ALREADY_DEFINED_ERROR_MESSAGE_FORMAT.formatted(line));
+    private static Chunk readChunk(FileChannel channel, long from, long to) {
+        SimulationBuilder builder = new SimulationBuilder().deferIndexing();
+        InputLineParser parser = new InputLineParser(builder);
+        try {
+            MappedLines.forEachLine(channel, from, to, MappedLines.DEFAULT_WINDOW_SIZE, parser::parse);
+            return new Chunk(builder, parser.getSizeLine(), null);
+        } catch (IOException | RuntimeException e) {
+            return new Chunk(builder, parser.getSizeLine(), e);
         }
-        String[] split = line.split("-");
-        int width = Integer.parseInt(split[1].trim());
-        int height = Integer.parseInt(split[2].trim());
-        simulationData.withSize(width, height);
     }
 
-    private static void readMountain(String line, SimulationBuilder simulationData) {
-        String[] split = line.split("-");
-        Mountain mountain = new Mountain(readCoordinates(split[1], split[2]));
-        simulationData.addMountain(mountain);
+    /**
+     * A chunk stops at its first error, so the size it read, if any, was defined before that error in the file.
+     */
+    @SneakyThrows
+    private static SimulationBuilder merge(List<Chunk> chunks) {
+        SimulationBuilder merged = new SimulationBuilder()
+                .withMountains(new ArrayList<>(chunks.stream().mapToInt(chunk -> chunk.builder().getMountains().size()).sum()))
+                .withTreasures(new ArrayList<>(chunks.stream().mapToInt(chunk -> chunk.builder().getTreasures().size()).sum()))
+                .withPlayers(new ArrayList<>(chunks.stream().mapToInt(chunk -> chunk.builder().getPlayers().size()).sum()));
+        for (Chunk chunk : chunks) {
+            if (chunk.sizeLine() != null) {
+                if (merged.getSize() != null) {
+                    throw new IllegalArgumentException(SIZE_ALREADY_DEFINED_ERROR_MESSAGE_FORMAT.formatted(chunk.sizeLine()));
+                }
+                merged.withSize(chunk.builder().getSize());
+            }
+            if (chunk.error() != null) {
+                throw chunk.error();
+            }
+            merged.getMountains().addAll(chunk.builder().getMountains());
+            merged.getTreasures().addAll(chunk.builder().getTreasures());
+            merged.getPlayers().addAll(chunk.builder().getPlayers());
+        }
+        return merged;
     }
 
-    private static Coordinates readCoordinates(String weCoordinates, String nsCoordinates) {
-        return new Coordinates(Integer.parseInt(weCoordinates.trim()),
-                Integer.parseInt(nsCoordinates.trim()));
+    private record Chunk(SimulationBuilder builder, String sizeLine, Exception error) {
     }
 }
@@ -0,0 +1,82 @@
+package org.example.infra;
+
+/**
+ * Histogram of durations in nanoseconds, recording a value by incrementing a counter, without allocating.
+ * <p>
+ * Buckets are log-linear: each power of two is split into <code>SUB_BUCKETS</code> buckets of equal width, so that
+ * percentiles are reported within about 6% of the exact value, whatever the magnitude of the durations.
+ * <p>
+ * Not thread-safe.
+ */
+final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * @param value negative values, which a clock going backward could give, are recorded as 0
+     */
+    void record(long value) {
+        long recorded = Math.max(0, value);
+        counts[bucketIndex(recorded)]++;
+        count++;
+        sum += recorded;
+        max = Math.max(max, recorded);
+    }
+
+    long count() {
+        return count;
+    }
+
+    long max() {
+        return max;
+    }
+
+    double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the highest value of the bucket holding the quantile, capped by the maximum recorded, or 0 if nothing was
+     * recorded
+     */
+    long valueAt(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS_COUNT; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(max, highestValue(index));
+            }
+        }
+        return max;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.infra;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Iterates over the lines of a file mapped in memory, without decoding them. The file is mapped by windows, as a
+ * single mapping cannot exceed 2 GiB; a line crossing the end of a window is read again from the start of the next
+ * one, which is remapped from the beginning of that line.
+ * <p>
+ * Lines are terminated by <code>\n</code>, <code>\r</code> or <code>\r\n</code>, like
+ * <code>BufferedReader.readLine()</code>, and a <code>\r\n</code> split across two windows yields an additional empty
+ * line, which no reader cares about.
+ */
+final class MappedLines {
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    @FunctionalInterface
+    interface LineConsumer {
+        /**
+         * @param buffer window the line belongs to, only valid until the next window is mapped
+         * @param start  absolute index of the first byte of the line in the buffer
+         * @param end    absolute index following the last byte of the line, terminator excluded
+         */
+        void accept(ByteBuffer buffer, int start, int end);
+    }
+
+    private MappedLines() {
+    }
+
+    static void forEachLine(FileChannel channel, LineConsumer consumer) throws IOException {
+        forEachLine(channel, 0, channel.size(), DEFAULT_WINDOW_SIZE, consumer);
+    }
+
+    /**
+     * Reads the lines between two offsets of the file, the first one being expected at the start of a line.
+     */
+    static void forEachLine(FileChannel channel, long from, long to, long windowSize, LineConsumer consumer)
+            throws IOException {
+        long windowStart = from;
+        long maxWindowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        while (windowStart < to) {
+            int limit = (int) Math.min(maxWindowSize, to - windowStart);
+            boolean lastWindow = windowStart + limit == to;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, limit);
+
+            int lineStart = 0;
+            int i = 0;
+            while (i < limit) {
+                byte current = window.get(i++);
+                if (current == '\n' || current == '\r') {
+                    consumer.accept(window, lineStart, i - 1);
+                    if (current == '\r' && i < limit && window.get(i) == '\n') {
+                        i++;
+                    }
+                    lineStart = i;
+                }
+            }
+
+            if (lastWindow) {
+                if (lineStart < limit) {
+                    consumer.accept(window, lineStart, limit);
+                }
+                return;
+            }
+            if (lineStart == 0) {
+                if (maxWindowSize == Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Line starting at offset %d is longer than %d bytes"
+                            .formatted(windowStart, Integer.MAX_VALUE));
+                }
+                maxWindowSize = Math.min(maxWindowSize * 2, Integer.MAX_VALUE);
+            }
+            windowStart += lineStart;
+        }
+    }
+}
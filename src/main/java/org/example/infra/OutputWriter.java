@@ -1,14 +1,29 @@
 package org.example.infra;
 
 import lombok.SneakyThrows;
+import org.example.domain.Simulation;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
 
 public class OutputWriter {
+    private static final int GZIP_BUFFER_SIZE = 64 << 10;
+
     @SneakyThrows
     public static void writeToFile(String formattedSimulation, String pathString) {
         System.out.printf("printing the simulation results to %s%n", pathString);
@@ -17,8 +32,153 @@ public class OutputWriter {
         setupOutputFile(path);
         Files.writeString(path, formattedSimulation, StandardCharsets.UTF_8);
     }
+
+    /**
+     * Same output as <code>writeToFile(String, String)</code>, streamed by <code>SimulationFormatter</code> instead of
+     * being formatted in memory first, with the default options.
+     */
+    public static void writeToFile(Simulation simulation, String pathString) {
+        writeToFile(simulation, pathString, Options.DEFAULT);
+    }
+
+    /**
+     * Streams the results to a temporary file of the same directory, renamed to the given path once complete, so that
+     * a crash never leaves a truncated output file behind, and a previous one is only replaced by a complete one.
+     */
+    @SneakyThrows
+    public static void writeToFile(Simulation simulation, String pathString, Options options) {
+        Path path = Paths.get(pathString).toAbsolutePath();
+        if (options.echo() == Echo.FULL) {
+            System.out.printf("printing the simulation results to %s%n", pathString);
+        }
+        Path temporaryFile = createTemporaryFile(path);
+        long writtenBytes;
+        try {
+            try (FileChannel file = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                writtenBytes = write(simulation, file, options);
+                // otherwise, after a power loss, the rename could survive while the content does not
+                file.force(true);
+            }
+            moveAtomically(temporaryFile, path);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        switch (options.echo()) {
+            case FULL -> System.out.println();
+            case SUMMARY -> System.out.printf("simulation results written to %s (%d bytes)%n", pathString, writtenBytes);
+            case NONE -> {
+            }
+        }
+    }
+
+    /**
+     * @return number of bytes written to the file
+     */
+    private static long write(Simulation simulation, FileChannel file, Options options) throws IOException {
+        SimulationFormatter formatter = new SimulationFormatter();
+        if (!options.gzip()) {
+            formatter.writeSimulation(simulation, echoed(file, options));
+            return file.position();
+        }
+        // closing the gzip stream ends its native deflater, but must leave the file open
+        OutputStream fileStream = new FilterOutputStream(Channels.newOutputStream(file)) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        try (GZIPOutputStream gzip = new GZIPOutputStream(fileStream, GZIP_BUFFER_SIZE)) {
+            formatter.writeSimulation(simulation, echoed(Channels.newChannel(gzip), options));
+        }
+        return file.position();
+    }
+
+    private static WritableByteChannel echoed(WritableByteChannel channel, Options options) {
+        if (options.echo() == Echo.FULL) {
+            return new TeeChannel(channel, Channels.newChannel(System.out));
+        }
+        return channel;
+    }
+
+    /**
+     * Unlike <code>Files.createTempFile</code>, the file gets the default permissions, the ones the output would get if
+     * written directly.
+     */
+    private static Path createTemporaryFile(Path path) throws IOException {
+        while (true) {
+            String name = ".%s.%016x.tmp".formatted(path.getFileName(), ThreadLocalRandom.current().nextLong());
+            try {
+                return Files.createFile(path.resolveSibling(name));
+            } catch (FileAlreadyExistsException e) {
+                // another writer picked the same name, try another one
+            }
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private static void setupOutputFile(Path path) throws IOException {
         Files.deleteIfExists(path);
         Files.createFile(path);
     }
+
+    /**
+     * What is printed to the standard output when writing results.
+     */
+    public enum Echo {
+        /**
+         * The destination, then the whole results, as historically done. Slow for large outputs.
+         */
+        FULL,
+        /**
+         * A single line once the results are written.
+         */
+        SUMMARY,
+        NONE
+    }
+
+    /**
+     * @param gzip whether the results are compressed on the fly, in the gzip format
+     */
+    public record Options(Echo echo, boolean gzip) {
+        public static final Options DEFAULT = new Options(Echo.FULL, false);
+    }
+
+    /**
+     * Writes everything to two channels, neither of which is closed with it.
+     */
+    private record TeeChannel(WritableByteChannel first, WritableByteChannel second) implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            ByteBuffer copy = source.duplicate();
+            while (copy.hasRemaining()) {
+                second.write(copy);
+            }
+            int written = source.remaining();
+            while (source.hasRemaining()) {
+                first.write(source);
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return first.isOpen() && second.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package org.example.infra;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import org.example.domain.BlockReason;
+import org.example.domain.Simulation;
+import org.example.domain.SimulationListener;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Counts what happens during a run and how long each phase and turn takes, reported as JSON.
+ * <p>
+ * Counting is a field increment on the simulation thread, and a turn is timed by a single clock read, recorded in a
+ * <code>LatencyHistogram</code>: nothing is allocated nor locked while the simulation runs, so metrics can always be
+ * left on.
+ */
+public final class RunMetrics implements SimulationListener {
+    private static final BlockReason[] BLOCK_REASONS = BlockReason.values();
+
+    private final long[] phasesNanos = new long[Phase.values().length];
+    private final long[] blockedMoves = new long[BLOCK_REASONS.length];
+    private final LatencyHistogram turnLatencies = new LatencyHistogram();
+    @Getter
+    private long turns;
+    private long moves;
+    @Getter
+    private long treasuresCollected;
+    private long lastTurnNanos;
+
+    /**
+     * Runs the phase, adding its wall time to the one of previous runs of the same phase, and recording it as a
+     * <code>SimulationPhaseEvent</code> for the flight recorder. Turn latencies are measured from the end of the previous
+     * turn, or from the start of the phase for the first one.
+     */
+    @SneakyThrows
+    public <T> T time(Phase phase, Callable<T> work) {
+        SimulationPhaseEvent event = new SimulationPhaseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        lastTurnNanos = start;
+        try {
+            return work.call();
+        } finally {
+            phasesNanos[phase.ordinal()] += System.nanoTime() - start;
+            event.phase = phase.name();
+            event.commit();
+        }
+    }
+
+    public void time(Phase phase, Runnable work) {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        long now = System.nanoTime();
+        turnLatencies.record(now - lastTurnNanos);
+        lastTurnNanos = now;
+        turns++;
+    }
+
+    @Override
+    public void playerMoved(int player) {
+        moves++;
+    }
+
+    @Override
+    public void playerBlocked(int player, BlockReason reason) {
+        blockedMoves[reason.ordinal()]++;
+    }
+
+    @Override
+    public void treasureCollected(int player, int treasure) {
+        treasuresCollected++;
+    }
+
+    /**
+     * @return moves done or blocked
+     */
+    public long getMovesAttempted() {
+        long attempted = moves;
+        for (long blocked : blockedMoves) {
+            attempted += blocked;
+        }
+        return attempted;
+    }
+
+    public long getBlockedMoves(BlockReason reason) {
+        return blockedMoves[reason.ordinal()];
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"phasesMillis\": {");
+        for (Phase phase : Phase.values()) {
+            json.append(phase.ordinal() == 0 ? "" : ",")
+                    .append("\n    \"").append(phase.name().toLowerCase(Locale.ROOT)).append("\": ")
+                    .append(String.format(Locale.ROOT, "%.3f", phasesNanos[phase.ordinal()] / 1e6));
+        }
+        json.append("\n  },\n  \"turns\": ").append(turns)
+                .append(",\n  \"movesAttempted\": ").append(getMovesAttempted())
+                .append(",\n  \"movesBlocked\": {");
+        for (BlockReason reason : BLOCK_REASONS) {
+            json.append(reason.ordinal() == 0 ? "" : ",")
+                    .append("\n    \"").append(reason.name().toLowerCase(Locale.ROOT)).append("\": ")
+                    .append(blockedMoves[reason.ordinal()]);
+        }
+        json.append("\n  },\n  \"treasuresCollected\": ").append(treasuresCollected)
+                .append(",\n  \"turnLatencyNanos\": {")
+                .append("\n    \"count\": ").append(turnLatencies.count())
+                .append(",\n    \"mean\": ").append(String.format(Locale.ROOT, "%.1f", turnLatencies.mean()))
+                .append(",\n    \"p50\": ").append(turnLatencies.valueAt(0.5))
+                .append(",\n    \"p90\": ").append(turnLatencies.valueAt(0.9))
+                .append(",\n    \"p99\": ").append(turnLatencies.valueAt(0.99))
+                .append(",\n    \"p999\": ").append(turnLatencies.valueAt(0.999))
+                .append(",\n    \"max\": ").append(turnLatencies.max())
+                .append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Writes the report next to the output file, named after it.
+     *
+     * @return the path of the report
+     */
+    @SneakyThrows
+    public Path writeReport(String outputFilePath) {
+        Path output = Path.of(outputFilePath).toAbsolutePath();
+        Path report = output.resolveSibling(output.getFileName() + ".metrics.json");
+        Files.writeString(report, toJson(), StandardCharsets.UTF_8);
+        return report;
+    }
+
+    public enum Phase {
+        /**
+         * Reading the input file.
+         */
+        PARSE,
+        /**
+         * Building the simulation, validation included.
+         */
+        VALIDATE,
+        RUN,
+        /**
+         * Formatting the results, streamed to the output file as they are formatted.
+         */
+        WRITE
+    }
+}
@@ -1,13 +1,20 @@
 package org.example.infra;
 
+import lombok.SneakyThrows;
 import org.example.domain.Mountain;
+import org.example.domain.MountainCursor;
 import org.example.domain.Player;
+import org.example.domain.PlayerCursor;
 import org.example.domain.Simulation;
 import org.example.domain.Treasure;
+import org.example.domain.TreasureStore;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.PrimitiveIterator;
 import java.util.stream.Collectors;
 
 public class SimulationFormatter {
@@ -18,12 +25,83 @@ public class SimulationFormatter {
         StringWriter stringWriter = new StringWriter();
         PrintWriter printWriter = new PrintWriter(stringWriter);
         printWriter.println(formatSize(simulation.getSize()));
-        printWriter.println(formatMountains(simulation.getMountains()));
-        printWriter.println(formatTreasures(simulation.getTreasures()));
-        printWriter.println(formatPlayers(simulation.getPlayers()));
+        printWriter.println(formatMountains(simulation.getTerrain().mountains()));
+        printWriter.println(formatTreasures(simulation.getTreasureStore()));
+        printWriter.println(formatPlayers(simulation.players()));
         return stringWriter.toString();
     }
 
+    /**
+     * Streams the same bytes as <code>formatSimulation</code> encoded in UTF-8, line by line through a buffer of constant
+     * size, so that no copy of the whole output is ever held in memory.
+     *
+     * @param channel left open, as it may be shared with other writes
+     */
+    @SneakyThrows
+    public void writeSimulation(Simulation simulation, WritableByteChannel channel) {
+        ChannelLineWriter writer = new ChannelLineWriter(channel);
+        Simulation.Size size = simulation.getSize();
+        writer.ascii("C - ").number(size.width()).ascii(" - ").number(size.height()).newLine();
+
+        MountainCursor mountains = simulation.getTerrain().mountains();
+        for (boolean first = true; mountains.next(); first = false) {
+            if (!first) {
+                writer.newLine();
+            }
+            writeMountain(mountains, writer);
+        }
+        writer.newLine();
+
+        TreasureStore treasures = simulation.getTreasureStore();
+        PrimitiveIterator.OfInt nonEmptyTreasures = treasures.nonEmptyTreasures();
+        while (nonEmptyTreasures.hasNext()) {
+            writeTreasure(treasures, nonEmptyTreasures.nextInt(), writer);
+            if (nonEmptyTreasures.hasNext()) {
+                writer.newLine();
+            }
+        }
+        writer.newLine();
+
+        PlayerCursor players = simulation.players();
+        for (boolean first = true; players.next(); first = false) {
+            if (!first) {
+                writer.newLine();
+            }
+            writePlayer(players, writer);
+        }
+        writer.newLine();
+        writer.flush();
+    }
+
+    private void writeMountain(MountainCursor mountain, ChannelLineWriter writer) throws IOException {
+        writer.ascii("M - ")
+                .number(mountain.westEast())
+                .ascii(" - ")
+                .number(mountain.northSouth());
+    }
+
+    private void writeTreasure(TreasureStore treasures, int treasure, ChannelLineWriter writer) throws IOException {
+        writer.ascii("T - ")
+                .number(treasures.westEast(treasure))
+                .ascii(" - ")
+                .number(treasures.northSouth(treasure))
+                .ascii(" - ")
+                .number(treasures.quantity(treasure));
+    }
+
+    private void writePlayer(PlayerCursor player, ChannelLineWriter writer) throws IOException {
+        writer.ascii("A - ")
+                .text(player.name())
+                .ascii(" - ")
+                .number(player.westEast())
+                .ascii(" - ")
+                .number(player.northSouth())
+                .ascii(" - ")
+                .ascii(OrientationData.from(player.orientation()).name())
+                .ascii(" - ")
+                .number(player.collectedTreasuresCount());
+    }
+
     String formatSize(Simulation.Size size) {
         return "C - %d - %d".formatted(size.width(), size.height());
     }
@@ -49,6 +127,21 @@ public class SimulationFormatter {
                 .collect(Collectors.joining(newLine));
     }
 
+    private String formatTreasures(TreasureStore treasures) {
+        StringBuilder formatted = new StringBuilder();
+        PrimitiveIterator.OfInt nonEmptyTreasures = treasures.nonEmptyTreasures();
+        while (nonEmptyTreasures.hasNext()) {
+            int treasure = nonEmptyTreasures.nextInt();
+            formatted.append("T - %d - %d - %d".formatted(treasures.westEast(treasure),
+                    treasures.northSouth(treasure),
+                    treasures.quantity(treasure)));
+            if (nonEmptyTreasures.hasNext()) {
+                formatted.append(newLine);
+            }
+        }
+        return formatted.toString();
+    }
+
     String formatPlayer(Player player) {
         return "A - %s - %d - %d - %s - %d".formatted(
                 player.getName(),
@@ -59,16 +152,29 @@ public class SimulationFormatter {
         );
     }
 
-    private String formatPlayers(List<Player> players) {
-        return players.stream()
-                .map(this::formatPlayer)
-                .collect(Collectors.joining(newLine));
+    private String formatPlayers(PlayerCursor players) {
+        StringBuilder formatted = new StringBuilder();
+        for (boolean first = true; players.next(); first = false) {
+            if (!first) {
+                formatted.append(newLine);
+            }
+            formatted.append("A - %s - %d - %d - %s - %d".formatted(players.name(),
+                    players.westEast(),
+                    players.northSouth(),
+                    OrientationData.from(players.orientation()),
+                    players.collectedTreasuresCount()));
+        }
+        return formatted.toString();
     }
 
-    private String formatMountains(List<Mountain> mountains) {
-        return mountains
-                .stream()
-                .map(this::formatMountain)
-                .collect(Collectors.joining(newLine));
+    private String formatMountains(MountainCursor mountains) {
+        StringBuilder formatted = new StringBuilder();
+        for (boolean first = true; mountains.next(); first = false) {
+            if (!first) {
+                formatted.append(newLine);
+            }
+            formatted.append("M - %d - %d".formatted(mountains.westEast(), mountains.northSouth()));
+        }
+        return formatted.toString();
     }
 }
@@ -0,0 +1,21 @@
+package org.example.infra;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a phase of a run, timed by <code>RunMetrics</code>, so that GC pauses and allocation
+ * spikes can be put next to the phase they happened in.
+ */
+@Name("org.example.SimulationPhase")
+@Label("Simulation Phase")
+@Category("Treasure Hunting")
+@Description("A phase of a simulation run: parse, validate, run or write")
+@StackTrace(false)
+final class SimulationPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,313 @@
+package org.example.infra;
+
+import org.example.domain.MountainCursor;
+import org.example.domain.Simulation;
+import org.example.domain.Terrain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Terrain stored in a file of square tiles, memory-mapped, for maps whose mountains do not fit in the heap.
+ * <p>
+ * The file holds a header, a directory giving the offset of each tile in row-major order, 0 for tiles without any
+ * mountain, and the tiles themselves, as bitmaps of their cells in row-major order. Empty tiles take no space besides
+ * their directory entry.
+ * <p>
+ * The file is mapped in windows of <code>WINDOW_SIZE</code> bytes, which stay valid once the file is closed. A lookup
+ * reads the directory entry of the tile and the word of the cell straight from the mapped file: nothing is copied into
+ * the heap, whose usage does not depend on the size of the map, and the pages of the tiles players move around are kept
+ * in memory by the operating system. Lookups only read the file, so the parallel engines share the terrain without any
+ * lock.
+ * <p>
+ * Only the mountains are moved out of the heap: treasures stay in the <code>TreasureStore</code> of the simulation,
+ * along with an entry of its occupancy index per non-empty treasure, and so do the players, unless run by the off-heap
+ * engine. The heap thus still grows with the number of treasures and players, however large the map.
+ */
+public final class TiledTerrain implements Terrain {
+    static final int MAGIC = 0x54485454;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int MIN_TILE_BITS = 6;
+    static final int MAX_TILE_BITS = 12;
+    /**
+     * Tiles of 256 x 256 cells, 8 KiB each.
+     */
+    public static final int DEFAULT_TILE_BITS = 8;
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW_SIZE = 1L << WINDOW_BITS;
+
+    private final MappedByteBuffer[] windows;
+    private final int width;
+    private final int height;
+    private final int tileBits;
+    private final int tilesPerRow;
+    private final long mountainsCount;
+
+    private TiledTerrain(MappedByteBuffer[] windows) {
+        this.windows = windows;
+        this.width = windows[0].getInt(8);
+        this.height = windows[0].getInt(12);
+        this.tileBits = windows[0].getInt(16);
+        this.mountainsCount = windows[0].getLong(24);
+        this.tilesPerRow = tilesCount(width, tileBits);
+    }
+
+    public static TiledTerrain open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((fileSize + WINDOW_SIZE - 1) >>> WINDOW_BITS)];
+            for (int i = 0; i < windows.length; i++) {
+                long start = (long) i << WINDOW_BITS;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+            }
+            if (fileSize < HEADER_SIZE || windows[0].getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("%s is not a tiled terrain".formatted(path));
+            }
+            int version = windows[0].getInt(4);
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported tiled terrain version %d in %s".formatted(version, path));
+            }
+            return new TiledTerrain(windows);
+        }
+    }
+
+    /**
+     * @param tileBits tiles are <code>2^tileBits</code> cells wide and high
+     */
+    public static Writer writer(Path path, int width, int height, int tileBits) throws IOException {
+        return new Writer(path, width, height, tileBits);
+    }
+
+    public long getMountainsCount() {
+        return mountainsCount;
+    }
+
+    @Override
+    public boolean hasMountainAt(int westEast, int northSouth) {
+        if (westEast < 0 || northSouth < 0 || westEast >= width || northSouth >= height) {
+            return false;
+        }
+        long offset = tileOffset(tileIndex(westEast, northSouth));
+        if (offset == 0) {
+            return false;
+        }
+        int bit = bitIndex(westEast, northSouth);
+        long position = offset + (long) (bit >>> 6) * Long.BYTES;
+        return (window(position).getLong((int) (position & (WINDOW_SIZE - 1))) & (1L << bit)) != 0;
+    }
+
+    @Override
+    public boolean fitsIn(Simulation.Size size) {
+        return width <= size.width() && height <= size.height();
+    }
+
+    /**
+     * @return a cursor over the mountains in row-major order
+     */
+    @Override
+    public MountainCursor mountains() {
+        return new Cursor();
+    }
+
+    private long tileOffset(long tile) {
+        long position = HEADER_SIZE + tile * Long.BYTES;
+        return window(position).getLong((int) (position & (WINDOW_SIZE - 1)));
+    }
+
+    private MappedByteBuffer window(long position) {
+        return windows[(int) (position >>> WINDOW_BITS)];
+    }
+
+    private long tileIndex(int westEast, int northSouth) {
+        return (long) (northSouth >>> tileBits) * tilesPerRow + (westEast >>> tileBits);
+    }
+
+    private int bitIndex(int westEast, int northSouth) {
+        int mask = (1 << tileBits) - 1;
+        return ((northSouth & mask) << tileBits) | (westEast & mask);
+    }
+
+    private static int tilesCount(int cells, int tileBits) {
+        return (int) (((long) cells + (1 << tileBits) - 1) >>> tileBits);
+    }
+
+    /**
+     * Walks the rows, and within a row the tiles holding mountains, reading the words of the row of each tile.
+     */
+    private final class Cursor implements MountainCursor {
+        private final int rowWords = 1 << (tileBits - 6);
+        private int northSouth;
+        private int tileColumn = -1;
+        private long tileRowPosition;
+        private int word;
+        private long bits;
+        private int westEast;
+
+        @Override
+        public boolean next() {
+            while (bits == 0) {
+                if (++word >= rowWords || tileColumn < 0) {
+                    if (!nextTileRow()) {
+                        return false;
+                    }
+                    continue;
+                }
+                bits = window(tileRowPosition).getLong((int) ((tileRowPosition + (long) word * Long.BYTES)
+                                                              & (WINDOW_SIZE - 1)));
+            }
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            westEast = (tileColumn << tileBits) + word * Long.SIZE + bit;
+            return true;
+        }
+
+        /**
+         * Moves to the row of the next tile holding mountains, along the current row of cells and then the next ones.
+         */
+        private boolean nextTileRow() {
+            while (northSouth < height) {
+                while (++tileColumn < tilesPerRow) {
+                    long offset = tileOffset((long) (northSouth >>> tileBits) * tilesPerRow + tileColumn);
+                    if (offset != 0) {
+                        tileRowPosition = offset + (long) (northSouth & ((1 << tileBits) - 1)) * rowWords * Long.BYTES;
+                        word = -1;
+                        return true;
+                    }
+                }
+                tileColumn = -1;
+                northSouth++;
+            }
+            return false;
+        }
+
+        @Override
+        public int westEast() {
+            return westEast;
+        }
+
+        @Override
+        public int northSouth() {
+            return northSouth;
+        }
+    }
+
+    /**
+     * Writes a tiled terrain from mountains given in row-major order, holding a single row of tiles in memory at a
+     * time.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final int width;
+        private final int height;
+        private final int tileBits;
+        private final int tilesPerRow;
+        private final int tileWords;
+        private final long[][] bandTiles;
+        private final ByteBuffer buffer;
+        private long nextTileOffset;
+        private int band;
+        private long lastPosition = -1;
+        private long mountainsCount;
+
+        private Writer(Path path, int width, int height, int tileBits) throws IOException {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("Cannot write a terrain of %d x %d cells".formatted(width, height));
+            }
+            if (tileBits < MIN_TILE_BITS || tileBits > MAX_TILE_BITS) {
+                throw new IllegalArgumentException("Tile bits must be between %d and %d but was %d"
+                        .formatted(MIN_TILE_BITS, MAX_TILE_BITS, tileBits));
+            }
+            this.width = width;
+            this.height = height;
+            this.tileBits = tileBits;
+            this.tilesPerRow = tilesCount(width, tileBits);
+            this.tileWords = 1 << (2 * tileBits - 6);
+            this.bandTiles = new long[tilesPerRow][];
+            this.buffer = ByteBuffer.allocate(tileWords * Long.BYTES);
+            long directoryEnd = HEADER_SIZE + (long) tilesPerRow * tilesCount(height, tileBits) * Long.BYTES;
+            // tiles are aligned on their size, so that none straddles two mapped windows
+            long tileSize = (long) tileWords * Long.BYTES;
+            this.nextTileOffset = (directoryEnd + tileSize - 1) / tileSize * tileSize;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the mountain is out of the terrain, or not after the previous one in
+         *                                  row-major order
+         */
+        public void addMountain(int westEast, int northSouth) throws IOException {
+            if (westEast < 0 || northSouth < 0 || westEast >= width || northSouth >= height) {
+                throw new IllegalArgumentException("Mountain (%d, %d) is out of the %d x %d terrain"
+                        .formatted(westEast, northSouth, width, height));
+            }
+            long position = (long) northSouth * width + westEast;
+            if (position <= lastPosition) {
+                throw new IllegalArgumentException("Mountain (%d, %d) is not after the previous one in row-major order"
+                        .formatted(westEast, northSouth));
+            }
+            lastPosition = position;
+            if (northSouth >>> tileBits != band) {
+                flushBand();
+                band = northSouth >>> tileBits;
+            }
+            int tileColumn = westEast >>> tileBits;
+            if (bandTiles[tileColumn] == null) {
+                bandTiles[tileColumn] = new long[tileWords];
+            }
+            int mask = (1 << tileBits) - 1;
+            int bit = ((northSouth & mask) << tileBits) | (westEast & mask);
+            bandTiles[tileColumn][bit >>> 6] |= 1L << bit;
+            mountainsCount++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                flushBand();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(width)
+                        .putInt(height)
+                        .putInt(tileBits)
+                        .putInt(0)
+                        .putLong(mountainsCount)
+                        .flip();
+                writeFully(header, 0);
+                if (channel.size() < nextTileOffset) {
+                    // empty tiles at the end of the directory are read back as zeros
+                    writeFully(ByteBuffer.allocate(1), nextTileOffset - 1);
+                }
+            }
+        }
+
+        private void flushBand() throws IOException {
+            for (int tileColumn = 0; tileColumn < tilesPerRow; tileColumn++) {
+                long[] words = bandTiles[tileColumn];
+                if (words == null) {
+                    continue;
+                }
+                buffer.clear();
+                buffer.asLongBuffer().put(words);
+                writeFully(buffer, nextTileOffset);
+                ByteBuffer entry = ByteBuffer.allocate(Long.BYTES).putLong(0, nextTileOffset);
+                writeFully(entry, HEADER_SIZE + ((long) band * tilesPerRow + tileColumn) * Long.BYTES);
+                nextTileOffset += buffer.capacity();
+                bandTiles[tileColumn] = null;
+            }
+        }
+
+        private void writeFully(ByteBuffer source, long position) throws IOException {
+            long written = 0;
+            while (source.hasRemaining()) {
+                written += channel.write(source, position + written);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.infra;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning a single turn, only emitted for sampled turns by <code>TurnEventSampler</code>.
+ * Disabled unless enabled by the recording settings.
+ */
+@Name("org.example.Turn")
+@Label("Simulation Turn")
+@Category("Treasure Hunting")
+@Description("A sampled turn of the simulation")
+@Enabled(false)
+@StackTrace(false)
+final class TurnEvent extends jdk.jfr.Event {
+    @Label("Turn")
+    long turn;
+    @Label("Active Players")
+    @Description("Players still having commands once the turn played")
+    int activePlayers;
+    @Label("Blocked Moves")
+    int blockedMoves;
+}
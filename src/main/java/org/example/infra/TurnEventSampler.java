@@ -0,0 +1,66 @@
+package org.example.infra;
+
+import jdk.jfr.EventType;
+import org.example.domain.BlockReason;
+import org.example.domain.Simulation;
+import org.example.domain.SimulationListener;
+
+/**
+ * Emits a <code>TurnEvent</code> every given number of turns. Only worth listening to the simulation when the event is
+ * enabled, which <code>isEnabled</code> tells: when it is not, no listener at all costs nothing.
+ */
+public final class TurnEventSampler implements SimulationListener {
+    public static final int DEFAULT_SAMPLING_INTERVAL = 1024;
+
+    private final int samplingInterval;
+    private int turnsSinceSample;
+    private int blockedMoves;
+    private TurnEvent event;
+
+    public TurnEventSampler(int samplingInterval) {
+        if (samplingInterval <= 0) {
+            throw new IllegalArgumentException("Sampling interval must be greater than zero but was %d"
+                    .formatted(samplingInterval));
+        }
+        this.samplingInterval = samplingInterval;
+        beginIfSampled();
+    }
+
+    /**
+     * @return whether a recording running right now enables turn events. Recordings started later are not taken into
+     * account.
+     */
+    public static boolean isEnabled() {
+        return EventType.getEventType(TurnEvent.class).isEnabled();
+    }
+
+    @Override
+    public void playerBlocked(int player, BlockReason reason) {
+        blockedMoves++;
+    }
+
+    @Override
+    public void turnPlayed(Simulation simulation) {
+        if (event != null) {
+            event.turn = simulation.getTurn();
+            event.activePlayers = simulation.getActivePlayersCount();
+            event.blockedMoves = blockedMoves;
+            event.commit();
+            event = null;
+        }
+        blockedMoves = 0;
+        turnsSinceSample++;
+        beginIfSampled();
+    }
+
+    /**
+     * Starts the event before the sampled turn, so that it spans the turn.
+     */
+    private void beginIfSampled() {
+        if (turnsSinceSample == samplingInterval - 1) {
+            turnsSinceSample = -1;
+            event = new TurnEvent();
+            event.begin();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import org.example.domain.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random but valid worlds of any size, for benchmarks and soak tests, either as input files or directly into
+ * a <code>SimulationBuilder</code>. The same parameters always give the same world.
+ * <p>
+ * Worlds are streamed row after row: the features of a row are drawn from a random generator seeded by the row, so that
+ * mountains, treasures and players are written in the order of input files by generating each row again rather than
+ * keeping the world in memory. Memory use only depends on the width of the map.
+ * <p>
+ * Features never overlap and players are only placed on free cells, with distinct names, so that the world always
+ * passes <code>SimulationValidator</code>.
+ */
+public final class WorldGenerator {
+    /**
+     * With the <code>CORRIDORS</code> layout, one row out of this many is a corridor.
+     */
+    static final int CORRIDOR_SPACING = 4;
+    static final int MAX_TREASURE_QUANTITY = 3;
+    private static final long ROWS_SALT = 1;
+    private static final long PLACEMENT_SALT = 2;
+    private static final long PLAYERS_SALT = 3;
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+    private final Parameters parameters;
+
+    public WorldGenerator(Parameters parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Writes the world as an input file, line after line.
+     */
+    @SneakyThrows
+    public void writeInput(Path path) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChannelLineWriter writer = new ChannelLineWriter(channel);
+            generate(new InputFileSink(writer));
+            writer.flush();
+        }
+    }
+
+    @SneakyThrows
+    public SimulationBuilder generate() {
+        SimulationBuilder builder = Simulation.builder();
+        generate(new BuilderSink(builder));
+        return builder;
+    }
+
+    /**
+     * Writes the mountains of the world to a tiled terrain file, and adds the other features to a builder using that
+     * terrain, so that worlds whose mountains do not fit in the heap can still be simulated.
+     */
+    @SneakyThrows
+    public SimulationBuilder generate(Path terrainPath) {
+        SimulationBuilder builder = Simulation.builder();
+        try (TiledTerrain.Writer terrain = TiledTerrain.writer(terrainPath,
+                parameters.width(),
+                parameters.height(),
+                TiledTerrain.DEFAULT_TILE_BITS)) {
+            generate(new TerrainSink(terrain, new BuilderSink(builder)));
+        }
+        return builder.withTerrain(TiledTerrain.open(terrainPath));
+    }
+
+    private void generate(Sink sink) throws IOException {
+        sink.size(parameters.width(), parameters.height());
+        Row row = new Row();
+        for (int northSouth = 0; northSouth < parameters.height(); northSouth++) {
+            row.generate(northSouth);
+            for (int i = 0; i < row.count; i++) {
+                if (row.quantities[i] == 0) {
+                    sink.mountain(row.columns[i], northSouth);
+                }
+            }
+        }
+        for (int northSouth = 0; northSouth < parameters.height(); northSouth++) {
+            row.generate(northSouth);
+            for (int i = 0; i < row.count; i++) {
+                if (row.quantities[i] > 0) {
+                    sink.treasure(row.columns[i], northSouth, row.quantities[i]);
+                }
+            }
+        }
+        placePlayers(sink, row);
+    }
+
+    /**
+     * Spreads players evenly over the rows they may be placed on, those left over by a full row being placed on the
+     * next ones.
+     */
+    private void placePlayers(Sink sink, Row row) throws IOException {
+        long playersCount = parameters.playersCount();
+        long rowsCount = parameters.layout() == Layout.CORRIDORS
+                ? (parameters.height() + CORRIDOR_SPACING - 1) / CORRIDOR_SPACING
+                : parameters.height();
+        int playerIndex = 0;
+        long leftOver = 0;
+        for (long j = 0; j < rowsCount; j++) {
+            long quota = (j + 1) * playersCount / rowsCount - j * playersCount / rowsCount + leftOver;
+            if (quota == 0) {
+                continue;
+            }
+            int northSouth = (int) (parameters.layout() == Layout.CORRIDORS ? j * CORRIDOR_SPACING : j);
+            row.generate(northSouth);
+            int placedCount = (int) Math.min(quota, parameters.width() - row.count);
+            for (int westEast : row.pickFreeColumns(placedCount, random(PLACEMENT_SALT, northSouth))) {
+                SplittableRandom random = random(PLAYERS_SALT, playerIndex);
+                Orientation orientation = ORIENTATIONS[random.nextInt(ORIENTATIONS.length)];
+                int scriptLength = random.nextInt(parameters.minScriptLength(), parameters.maxScriptLength() + 1);
+                sink.player("player" + playerIndex, westEast, northSouth, orientation, scriptLength, random);
+                playerIndex++;
+            }
+            leftOver = quota - placedCount;
+        }
+        if (leftOver > 0) {
+            throw new IllegalArgumentException("Cannot place %d players, only %d cells are free for them"
+                    .formatted(playersCount, playerIndex));
+        }
+    }
+
+    /**
+     * Moves are twice as likely as turns, as they are the commands exercising collisions and treasures.
+     */
+    private static Command nextCommand(SplittableRandom random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> random.nextBoolean() ? Command.G : Command.D;
+            default -> Command.A;
+        };
+    }
+
+    private SplittableRandom random(long salt, long index) {
+        // SplitMix64 finalizer, so that neighbouring rows get unrelated sequences
+        long z = parameters.seed() + salt * 0x9E3779B97F4A7C15L + index * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    /**
+     * @param mountainDensity share of the cells holding a mountain, outside of corridors
+     * @param treasureDensity share of the cells holding a treasure, of 1 to <code>MAX_TREASURE_QUANTITY</code>
+     * @param minScriptLength scripts lengths are uniformly distributed between the minimum and maximum, both included
+     */
+    public record Parameters(int width,
+                             int height,
+                             double mountainDensity,
+                             double treasureDensity,
+                             int playersCount,
+                             int minScriptLength,
+                             int maxScriptLength,
+                             Layout layout,
+                             long seed) {
+        public Parameters {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("Width and height must be greater than zero but were {%d, %d}"
+                        .formatted(width, height));
+            }
+            if (mountainDensity < 0 || treasureDensity < 0 || mountainDensity + treasureDensity > 1) {
+                throw new IllegalArgumentException("Densities must be positive and add up to at most 1 but were %s and %s"
+                        .formatted(mountainDensity, treasureDensity));
+            }
+            if (playersCount < 0) {
+                throw new IllegalArgumentException("Players count must be positive but was %d".formatted(playersCount));
+            }
+            // the input format does not allow players without commands
+            if (minScriptLength < 1 || maxScriptLength < minScriptLength) {
+                throw new IllegalArgumentException("Scripts lengths must be between 1 and a maximum greater than the minimum but were {%d, %d}"
+                        .formatted(minScriptLength, maxScriptLength));
+            }
+        }
+    }
+
+    public enum Layout {
+        /**
+         * Features and players spread uniformly.
+         */
+        OPEN_FIELD,
+        /**
+         * Rows of mountains with corridors in between, free of mountains, where all the players are crowded.
+         */
+        CORRIDORS
+    }
+
+    /**
+     * Features of a row, by increasing west-east coordinate, a quantity of 0 standing for a mountain.
+     */
+    private final class Row {
+        private int[] columns = new int[16];
+        private int[] quantities = new int[16];
+        private int count;
+
+        /**
+         * Draws the gaps between features from the geometric distribution, so that the time taken depends on the
+         * number of features rather than on the width.
+         */
+        void generate(int northSouth) {
+            count = 0;
+            SplittableRandom random = random(ROWS_SALT, northSouth);
+            boolean corridor = parameters.layout() == Layout.CORRIDORS && northSouth % CORRIDOR_SPACING == 0;
+            double mountainDensity = corridor ? 0 : parameters.mountainDensity();
+            double density = mountainDensity + parameters.treasureDensity();
+            if (density <= 0) {
+                return;
+            }
+            double logComplement = Math.log1p(-Math.min(density, 1));
+            long westEast = -1;
+            while (true) {
+                long gap = density >= 1 ? 0 : (long) (Math.log1p(-random.nextDouble()) / logComplement);
+                westEast += gap + 1;
+                if (westEast >= parameters.width()) {
+                    return;
+                }
+                boolean mountain = random.nextDouble() * density < mountainDensity;
+                add((int) westEast, mountain ? 0 : random.nextInt(1, MAX_TREASURE_QUANTITY + 1));
+            }
+        }
+
+        private void add(int westEast, int quantity) {
+            if (count == columns.length) {
+                columns = Arrays.copyOf(columns, count * 2);
+                quantities = Arrays.copyOf(quantities, count * 2);
+            }
+            columns[count] = westEast;
+            quantities[count] = quantity;
+            count++;
+        }
+
+        /**
+         * @return distinct columns without features, by increasing west-east coordinate
+         */
+        int[] pickFreeColumns(int picksCount, SplittableRandom random) {
+            int[] picks = new int[picksCount];
+            int freeCount = parameters.width() - count;
+            if (picksCount * 2L > freeCount) {
+                // selection sampling, visiting every free cell once
+                int picked = 0;
+                int feature = 0;
+                for (int westEast = 0; picked < picksCount; westEast++) {
+                    if (feature < count && columns[feature] == westEast) {
+                        feature++;
+                        continue;
+                    }
+                    if (random.nextInt(freeCount) < picksCount - picked) {
+                        picks[picked++] = westEast;
+                    }
+                    freeCount--;
+                }
+                return picks;
+            }
+            // few picks among many free cells: drawing until enough distinct free ones are found is quicker
+            Set<Integer> picked = new HashSet<>();
+            while (picked.size() < picksCount) {
+                int westEast = random.nextInt(parameters.width());
+                if (Arrays.binarySearch(columns, 0, count, westEast) < 0) {
+                    picked.add(westEast);
+                }
+            }
+            int i = 0;
+            for (int westEast : picked) {
+                picks[i++] = westEast;
+            }
+            Arrays.sort(picks);
+            return picks;
+        }
+    }
+
+    private interface Sink {
+        void size(int width, int height) throws IOException;
+
+        void mountain(int westEast, int northSouth) throws IOException;
+
+        void treasure(int westEast, int northSouth, int quantity) throws IOException;
+
+        /**
+         * @param random generator of the commands, to be drawn with <code>nextCommand</code>
+         */
+        void player(String name, int westEast, int northSouth, Orientation orientation, int scriptLength,
+                    SplittableRandom random) throws IOException;
+    }
+
+    private record InputFileSink(ChannelLineWriter writer) implements Sink {
+        private static final String SEPARATOR = " - ";
+
+        @Override
+        public void size(int width, int height) throws IOException {
+            writer.ascii("C").ascii(SEPARATOR).number(width).ascii(SEPARATOR).number(height).newLine();
+        }
+
+        @Override
+        public void mountain(int westEast, int northSouth) throws IOException {
+            writer.ascii("M").ascii(SEPARATOR).number(westEast).ascii(SEPARATOR).number(northSouth).newLine();
+        }
+
+        @Override
+        public void treasure(int westEast, int northSouth, int quantity) throws IOException {
+            writer.ascii("T").ascii(SEPARATOR).number(westEast).ascii(SEPARATOR).number(northSouth)
+                    .ascii(SEPARATOR).number(quantity).newLine();
+        }
+
+        @Override
+        public void player(String name, int westEast, int northSouth, Orientation orientation, int scriptLength,
+                           SplittableRandom random) throws IOException {
+            writer.ascii("A").ascii(SEPARATOR).ascii(name)
+                    .ascii(SEPARATOR).number(westEast).ascii(SEPARATOR).number(northSouth)
+                    .ascii(SEPARATOR).ascii(OrientationData.from(orientation).name())
+                    .ascii(SEPARATOR);
+            for (int i = 0; i < scriptLength; i++) {
+                writer.ascii(nextCommand(random).name().charAt(0));
+            }
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Mountains are generated row after row, by increasing west-east coordinate, as the terrain writer requires.
+     */
+    private record TerrainSink(TiledTerrain.Writer terrain, Sink features) implements Sink {
+        @Override
+        public void size(int width, int height) throws IOException {
+            features.size(width, height);
+        }
+
+        @Override
+        public void mountain(int westEast, int northSouth) throws IOException {
+            terrain.addMountain(westEast, northSouth);
+        }
+
+        @Override
+        public void treasure(int westEast, int northSouth, int quantity) throws IOException {
+            features.treasure(westEast, northSouth, quantity);
+        }
+
+        @Override
+        public void player(String name, int westEast, int northSouth, Orientation orientation, int scriptLength,
+                           SplittableRandom random) throws IOException {
+            features.player(name, westEast, northSouth, orientation, scriptLength, random);
+        }
+    }
+
+    private record BuilderSink(SimulationBuilder builder) implements Sink {
+        @Override
+        public void size(int width, int height) {
+            builder.withSize(width, height);
+        }
+
+        @Override
+        public void mountain(int westEast, int northSouth) {
+            builder.addMountain(westEast, northSouth);
+        }
+
+        @Override
+        public void treasure(int westEast, int northSouth, int quantity) {
+            builder.addTreasure(westEast, northSouth, quantity);
+        }
+
+        @Override
+        public void player(String name, int westEast, int northSouth, Orientation orientation, int scriptLength,
+                           SplittableRandom random) {
+            CommandScript.Builder script = CommandScript.builder();
+            for (int i = 0; i < scriptLength; i++) {
+                script.append(nextCommand(random));
+            }
+            builder.addPlayer(new Player(name, new Coordinates(westEast, northSouth), orientation, script.build()));
+        }
+    }
+}
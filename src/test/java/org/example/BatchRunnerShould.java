@@ -0,0 +1,134 @@
+package org.example;
+
+import lombok.SneakyThrows;
+import org.example.infra.OutputWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BatchRunnerShould {
+
+    @TempDir
+    Path workDirectory;
+
+    @SneakyThrows
+    @Test
+    void run_every_simulation_of_a_directory_and_report_failures() {
+        // GIVEN
+        Path inputDirectory = Files.createDirectories(workDirectory.resolve("inputs"));
+        Files.copy(Path.of("src/test/resources/input.txt"), inputDirectory.resolve("valid.txt"));
+        Files.writeString(inputDirectory.resolve("invalid.txt"), "C - 3 - 4\nC - 3 - 4\n", StandardCharsets.UTF_8);
+        Path outputDirectory = workDirectory.resolve("outputs");
+
+        // WHEN
+        BatchRunner.Summary summary = new BatchRunner(2).run(BatchRunner.listInputs(inputDirectory), outputDirectory);
+
+        // THEN
+        assertThat(summary.successCount()).isEqualTo(1);
+        assertThat(summary.failureCount()).isEqualTo(1);
+        assertThat(summary.results())
+                .extracting(BatchRunner.FileResult::input, BatchRunner.FileResult::success)
+                .containsExactly(
+                        tuple(inputDirectory.resolve("invalid.txt"), false),
+                        tuple(inputDirectory.resolve("valid.txt"), true));
+        assertThat(Files.readString(outputDirectory.resolve("valid.txt"), StandardCharsets.UTF_8)).isEqualTo("""
+                C - 3 - 4
+                M - 1 - 0
+                M - 2 - 1
+                T - 1 - 3 - 2
+                A - Lara - 0 - 3 - S - 3
+                """);
+    }
+
+    @SneakyThrows
+    @Test
+    void report_errors_thrown_by_a_simulation_along_with_the_other_results() {
+        // GIVEN
+        Path failing = workDirectory.resolve("failing.txt");
+        Path succeeding = workDirectory.resolve("succeeding.txt");
+        BatchRunner batchRunner = new BatchRunner(2, BatchRunner.DEFAULT_OUTPUT_OPTIONS, (inputFile, outputFile) -> {
+            if (inputFile.equals(failing)) {
+                throw new OutOfMemoryError("Java heap space");
+            }
+        });
+
+        // WHEN
+        BatchRunner.Summary summary = batchRunner.run(List.of(failing, succeeding), workDirectory.resolve("outputs"));
+
+        // THEN
+        assertThat(summary.results())
+                .extracting(BatchRunner.FileResult::input, BatchRunner.FileResult::success, BatchRunner.FileResult::error)
+                .containsExactly(
+                        tuple(failing, false, "OutOfMemoryError: Java heap space"),
+                        tuple(succeeding, true, null));
+    }
+
+    @Test
+    void refuse_to_echo_results_in_full_from_concurrent_simulations() {
+        // GIVEN
+        OutputWriter.Options fullEcho = new OutputWriter.Options(OutputWriter.Echo.FULL, false);
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> new BatchRunner(2, fullEcho))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Results cannot be echoed in full with 2 concurrent simulations");
+        assertThat(new BatchRunner(1, fullEcho)).isNotNull();
+    }
+
+    @SneakyThrows
+    @Test
+    void read_inputs_from_a_list_file() {
+        // GIVEN
+        Path listFile = workDirectory.resolve("inputs.lst");
+        Files.writeString(listFile, """
+                # the example of the instructions
+                src/test/resources/input.txt
+
+                """, StandardCharsets.UTF_8);
+
+        // WHEN
+        List<Path> inputs = BatchRunner.listInputs(listFile);
+
+        // THEN
+        assertThat(inputs).containsExactly(Path.of("src/test/resources/input.txt"));
+    }
+
+    @SneakyThrows
+    @Test
+    void refuse_inputs_written_to_the_same_output_file() {
+        // GIVEN
+        Path first = Files.createDirectories(workDirectory.resolve("first")).resolve("input.txt");
+        Path second = Files.createDirectories(workDirectory.resolve("second")).resolve("input.txt");
+        Files.copy(Path.of("src/test/resources/input.txt"), first);
+        Files.copy(Path.of("src/test/resources/input.txt"), second);
+        Path outputDirectory = workDirectory.resolve("outputs");
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> new BatchRunner(2).run(List.of(first, second), outputDirectory))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Inputs %s and %s would both be written to %s"
+                        .formatted(first, second, outputDirectory.resolve("input.txt").toAbsolutePath()));
+        assertThat(outputDirectory).doesNotExist();
+    }
+
+    @SneakyThrows
+    @Test
+    void refuse_outputs_replacing_their_inputs() {
+        // GIVEN
+        Path inputDirectory = Files.createDirectories(workDirectory.resolve("inputs"));
+        Path input = Files.copy(Path.of("src/test/resources/input.txt"), inputDirectory.resolve("input.txt"));
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> new BatchRunner(2).run(BatchRunner.listInputs(inputDirectory), inputDirectory))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Output file %s would replace an input file".formatted(input.toAbsolutePath()));
+    }
+}
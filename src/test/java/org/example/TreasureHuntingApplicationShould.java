@@ -1,16 +1,29 @@
 package org.example;
 
 import lombok.SneakyThrows;
+import org.example.domain.SimulationSnapshot;
+import org.example.infra.CheckpointFile;
+import org.example.infra.EventJournal;
+import org.example.infra.OutputWriter;
+import org.example.infra.TiledTerrain;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class TreasureHuntingApplicationShould {
+    private static final TreasureHuntingApplication.RunOptions QUIET = TreasureHuntingApplication.RunOptions.DEFAULT
+            .withOutput(new OutputWriter.Options(OutputWriter.Echo.NONE, false));
 
     /**
      * write an output file in "target" directory, as it is expected to be present, and allowed to be created or written
@@ -36,4 +49,237 @@ class TreasureHuntingApplicationShould {
                 A - Lara - 0 - 3 - S - 3
                 """);
     }
+
+    @Test
+    void extract_output_options_from_arguments() {
+        // GIVEN
+        String[] args = {"--gzip", "input.txt", "--echo=summary", "output.txt.gz"};
+
+        // WHEN
+        List<String> remainingArguments = new ArrayList<>();
+        TreasureHuntingApplication.RunOptions options = TreasureHuntingApplication.parseRunOptions(args,
+                TreasureHuntingApplication.RunOptions.DEFAULT,
+                remainingArguments);
+
+        // THEN
+        assertThat(options.output()).isEqualTo(new OutputWriter.Options(OutputWriter.Echo.SUMMARY, true));
+        assertThat(remainingArguments).containsExactly("input.txt", "output.txt.gz");
+    }
+
+    @Test
+    void reject_an_unknown_echo() {
+        // GIVEN
+        String[] args = {"input.txt", "output.txt", "--echo=loud"};
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> TreasureHuntingApplication.parseRunOptions(args,
+                TreasureHuntingApplication.RunOptions.DEFAULT,
+                new ArrayList<>()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown echo 'loud'");
+    }
+
+    @SneakyThrows
+    @Test
+    void resume_from_a_checkpoint_with_the_same_results(@TempDir Path directory) {
+        // GIVEN
+        Path checkpoint = directory.resolve("output.checkpoint");
+        Path uninterruptedOutput = directory.resolve("uninterrupted.txt");
+        Path resumedOutput = directory.resolve("resumed.txt");
+        TreasureHuntingApplication.CheckpointOptions checkpointOptions =
+                new TreasureHuntingApplication.CheckpointOptions(checkpoint, 4, Duration.ofHours(1), false);
+        TreasureHuntingApplication.RunOptions options = QUIET.withCheckpoint(checkpointOptions);
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                uninterruptedOutput.toString(),
+                options);
+
+        // WHEN
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                resumedOutput.toString(),
+                options.withCheckpoint(checkpointOptions.withResume(true)));
+
+        // THEN
+        assertThat(CheckpointFile.readLatest(checkpoint)).get().extracting(SimulationSnapshot::turn).isEqualTo(8L);
+        assertThat(Files.readString(resumedOutput, StandardCharsets.UTF_8))
+                .isEqualTo(Files.readString(uninterruptedOutput, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_the_output_even_if_a_checkpoint_could_not_be_written(@TempDir Path directory) {
+        // GIVEN
+        Path output = directory.resolve("output.txt");
+        Path unwritableCheckpoint = directory.resolve("missing").resolve("output.checkpoint");
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                output.toString(),
+                QUIET.withCheckpoint(new TreasureHuntingApplication.CheckpointOptions(unwritableCheckpoint,
+                        4,
+                        Duration.ofHours(1),
+                        false))))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Could not write checkpoint");
+        assertThat(output).hasContent("""
+                C - 3 - 4
+                M - 1 - 0
+                M - 2 - 1
+                T - 1 - 3 - 2
+                A - Lara - 0 - 3 - S - 3
+                """);
+    }
+
+    @SneakyThrows
+    @Test
+    void refuse_to_resume_from_the_checkpoints_of_another_input(@TempDir Path directory) {
+        // GIVEN
+        Path checkpoint = directory.resolve("output.checkpoint");
+        Path otherInput = directory.resolve("other.txt");
+        String input = Files.readString(Path.of("src/test/resources/input.txt"), StandardCharsets.UTF_8);
+        Files.writeString(otherInput, input.replace("M - 2 - 1", "M - 2 - 2"), StandardCharsets.UTF_8);
+        TreasureHuntingApplication.CheckpointOptions checkpointOptions =
+                new TreasureHuntingApplication.CheckpointOptions(checkpoint, 4, Duration.ofHours(1), false);
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                directory.resolve("output.txt").toString(),
+                QUIET.withCheckpoint(checkpointOptions));
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> TreasureHuntingApplication.runSimulation(otherInput.toString(),
+                directory.resolve("other-output.txt").toString(),
+                QUIET.withCheckpoint(checkpointOptions.withResume(true))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageEndingWith("was not checkpointed from the same input");
+    }
+
+    @SneakyThrows
+    @Test
+    void write_run_metrics_next_to_the_output_file(@TempDir Path directory) {
+        // GIVEN
+        Path output = directory.resolve("output.txt");
+
+        // WHEN
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                output.toString(),
+                QUIET.withMetricsReport(true));
+
+        // THEN
+        assertThat(Files.readString(directory.resolve("output.txt.metrics.json"), StandardCharsets.UTF_8))
+                .contains("\"turns\": 9,")
+                .contains("\"treasuresCollected\": 3,");
+    }
+
+    @SneakyThrows
+    @Test
+    void give_the_same_results_with_any_engine_following_the_sequential_rules(@TempDir Path directory) {
+        // GIVEN
+        Path sequentialOutput = directory.resolve("sequential.txt");
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt", sequentialOutput.toString(), QUIET);
+
+        for (TreasureHuntingApplication.Engine engine : List.of(TreasureHuntingApplication.Engine.ARRAY,
+                TreasureHuntingApplication.Engine.PARALLEL,
+                TreasureHuntingApplication.Engine.OFF_HEAP)) {
+            // WHEN
+            Path output = directory.resolve(engine + ".txt");
+            TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                    output.toString(),
+                    QUIET.withEngine(engine));
+
+            // THEN
+            assertThat(Files.readString(output, StandardCharsets.UTF_8))
+                    .isEqualTo(Files.readString(sequentialOutput, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void extract_the_engine_from_arguments() {
+        // GIVEN
+        String[] args = {"input.txt", "--engine=off-heap", "output.txt"};
+
+        // WHEN
+        List<String> remainingArguments = new ArrayList<>();
+        TreasureHuntingApplication.RunOptions options = TreasureHuntingApplication.parseRunOptions(args,
+                TreasureHuntingApplication.RunOptions.DEFAULT,
+                remainingArguments);
+
+        // THEN
+        assertThat(options.engine()).isEqualTo(TreasureHuntingApplication.Engine.OFF_HEAP);
+        assertThat(remainingArguments).containsExactly("input.txt", "output.txt");
+    }
+
+    @SneakyThrows
+    @Test
+    void journal_the_events_of_the_run_when_asked(@TempDir Path directory) {
+        // GIVEN
+        Path journal = directory.resolve("simulation.journal");
+
+        // WHEN
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt",
+                directory.resolve("output.txt").toString(),
+                QUIET.withMetricsReport(true).withJournalPath(journal));
+
+        // THEN
+        List<EventJournal.Event> collects = new ArrayList<>();
+        EventJournal.forEachEvent(journal, event -> {
+            if (event.type() == EventJournal.Type.COLLECTED) {
+                collects.add(event);
+            }
+        });
+        assertThat(collects).hasSize(3);
+    }
+
+    @SneakyThrows
+    @Test
+    void take_the_mountains_from_a_tiled_terrain_when_asked(@TempDir Path directory) {
+        // GIVEN
+        Path input = directory.resolve("input.txt");
+        Files.writeString(input, """
+                C - 3 - 4
+                T - 0 - 3 - 2
+                T - 1 - 3 - 3
+                A - Lara - 1 - 1 - S - AADADAGGA
+                """);
+        Path terrain = directory.resolve("terrain.bin");
+        try (TiledTerrain.Writer writer = TiledTerrain.writer(terrain, 3, 4, TiledTerrain.DEFAULT_TILE_BITS)) {
+            writer.addMountain(1, 0);
+            writer.addMountain(2, 1);
+        }
+        Path expectedOutput = directory.resolve("expected.txt");
+        Path output = directory.resolve("output.txt");
+        TreasureHuntingApplication.runSimulation("src/test/resources/input.txt", expectedOutput.toString(), QUIET);
+
+        // WHEN
+        TreasureHuntingApplication.runSimulation(input.toString(), output.toString(), QUIET.withTerrainPath(terrain));
+
+        // THEN
+        assertThat(Files.readString(output, StandardCharsets.UTF_8))
+                .isEqualTo(Files.readString(expectedOutput, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void extract_the_journal_file_from_arguments() {
+        // GIVEN
+        String[] args = {"input.txt", "--journal=simulation.journal", "output.txt"};
+
+        // WHEN
+        List<String> remainingArguments = new ArrayList<>();
+        TreasureHuntingApplication.RunOptions options = TreasureHuntingApplication.parseRunOptions(args,
+                TreasureHuntingApplication.RunOptions.DEFAULT,
+                remainingArguments);
+
+        // THEN
+        assertThat(options.journalPath()).isEqualTo(Path.of("simulation.journal"));
+        assertThat(remainingArguments).containsExactly("input.txt", "output.txt");
+    }
+
+    @Test
+    void reject_options_the_engine_cannot_honour() {
+        // GIVEN
+        String[] args = {"input.txt", "output.txt", "--engine=parallel", "--metrics"};
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> TreasureHuntingApplication.parseRunOptions(args,
+                TreasureHuntingApplication.RunOptions.DEFAULT,
+                new ArrayList<>()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageEndingWith("require the sequential engine, not parallel");
+    }
 }
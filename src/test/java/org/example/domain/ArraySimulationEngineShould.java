@@ -0,0 +1,55 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import org.example.TestDataFactory;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Collections.emptyList;
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.domain.Orientation.SOUTH;
+
+class ArraySimulationEngineShould {
+
+    @Test
+    void run_the_example_simulation_of_the_instructions() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(TestDataFactory.lara()))
+                .build();
+
+        // WHEN
+        new ArraySimulationEngine(simulation).run();
+
+        // THEN
+        Player expectedPlayerAfterSimulation = new Player("Lara", new Coordinates(0, 3), SOUTH, 3, emptyList());
+        assertThat(simulation.getPlayers())
+                .singleElement()
+                .usingRecursiveComparison()
+                .isEqualTo(expectedPlayerAfterSimulation);
+        assertThat(simulation.getTreasures()).extracting(Treasure::quantity).isEqualTo(of(0, 2));
+    }
+
+    @Property
+    void produce_the_same_results_as_the_player_based_engine(@ForAll long seed) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        Simulation expected = world.build();
+        Simulation actual = world.build();
+
+        // WHEN
+        expected.run();
+        new ArraySimulationEngine(actual).run();
+
+        // THEN
+        assertThat(actual.getPlayers()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected.getPlayers());
+        assertThat(actual.getTurn()).isEqualTo(expected.getTurn());
+        assertThat(actual.getActivePlayersCount()).isZero();
+        assertThat(actual.getTreasures()).extracting(Treasure::quantity)
+                .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.domain.Command.*;
+
+class CommandScriptShould {
+
+    @Property
+    void restore_commands_in_order(@ForAll List<Command> commands) {
+        // WHEN
+        CommandScript script = CommandScript.of(commands);
+
+        // THEN
+        List<Command> read = new ArrayList<>();
+        for (int i = 0; i < script.length(); i++) {
+            read.add(script.commandAt(i));
+        }
+        assertThat(read).isEqualTo(commands);
+    }
+
+    @Test
+    void not_allow_reading_past_the_end() {
+        CommandScript script = CommandScript.of(of(A, G, D));
+
+        assertThatThrownBy(() -> script.commandAt(3))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void be_printed_as_in_the_input_file() {
+        assertThat(CommandScript.of(of(A, A, D, A, D, A, G, G, A))).hasToString("AADADAGGA");
+        assertThat(CommandScript.of(emptyList())).isSameAs(CommandScript.EMPTY);
+    }
+
+    @Test
+    void read_commands_from_their_text_on_demand() {
+        // GIVEN
+        ByteBuffer text = ByteBuffer.wrap("xxAADADAGGAyy".getBytes(StandardCharsets.US_ASCII), 2, 9);
+
+        // WHEN
+        CommandScript script = CommandScript.ofAscii(text);
+
+        // THEN
+        assertThat(script.length()).isEqualTo(9);
+        assertThat(script.commandAt(2)).isEqualTo(D);
+        assertThat(script).hasToString("AADADAGGA");
+        assertThatThrownBy(() -> script.commandAt(9))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
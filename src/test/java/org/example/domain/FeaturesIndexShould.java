@@ -0,0 +1,66 @@
+package org.example.domain;
+
+import net.jqwik.api.*;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class FeaturesIndexShould {
+
+    @Property
+    void flag_exactly_the_simulations_rejected_by_the_validator(@ForAll("sizes") Simulation.Size size,
+                                                                @ForAll("coordinates") List<Coordinates> mountains,
+                                                                @ForAll("coordinates") List<Coordinates> treasures,
+                                                                @ForAll("coordinates") List<Coordinates> players,
+                                                                @ForAll("names") List<String> names) {
+        // GIVEN
+        SimulationBuilder builder = Simulation.builder().withSize(size);
+        mountains.forEach(coordinates -> builder.addMountain(new Mountain(coordinates)));
+        for (int i = 0; i < treasures.size(); i++) {
+            builder.addTreasure(new Treasure(treasures.get(i).westEast(), treasures.get(i).northSouth(), i % 2));
+        }
+        for (int i = 0; i < players.size(); i++) {
+            builder.addPlayer(new Player(names.get(i % names.size()), players.get(i), Orientation.NORTH, emptyList()));
+        }
+        Simulation unvalidated = new Simulation(size,
+                builder.getMountains(),
+                builder.getTreasures(),
+                builder.getPlayers(),
+                OccupancyGrid.empty());
+        Throwable expected = catchThrowable(() -> new SimulationValidator(unvalidated).validate());
+
+        // WHEN
+        FeaturesIndex index = new FeaturesIndex();
+        index.index(builder.getMountains(), builder.getTreasures(), builder.getPlayers());
+        Throwable actual = catchThrowable(builder::build);
+
+        // THEN
+        assertThat(index.mayBeInvalid(size)).isEqualTo(expected != null);
+        if (expected == null) {
+            assertThat(actual).isNull();
+        } else {
+            assertThat(actual).isInstanceOf(expected.getClass()).hasMessage(expected.getMessage());
+        }
+    }
+
+    @Provide
+    Arbitrary<Simulation.Size> sizes() {
+        return Combinators.combine(Arbitraries.integers().between(-1, 4), Arbitraries.integers().between(-1, 4))
+                .as(Simulation.Size::new);
+    }
+
+    @Provide
+    Arbitrary<List<Coordinates>> coordinates() {
+        return Combinators.combine(Arbitraries.integers().between(-1, 4), Arbitraries.integers().between(-1, 4))
+                .as(Coordinates::new)
+                .list().ofMaxSize(4);
+    }
+
+    @Provide
+    Arbitrary<List<String>> names() {
+        return Arbitraries.of("Lara", "Indiana", "Nathan", "Sophia").list().ofMinSize(1).ofMaxSize(4);
+    }
+}
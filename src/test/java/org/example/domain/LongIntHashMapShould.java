@@ -0,0 +1,48 @@
+package org.example.domain;
+
+import net.jqwik.api.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapShould {
+
+    @Property
+    void behave_like_a_hash_map(@ForAll("operations") List<Operation> operations) {
+        // GIVEN
+        LongIntHashMap map = new LongIntHashMap(2);
+        Map<Long, Integer> reference = new HashMap<>();
+
+        // WHEN
+        for (Operation operation : operations) {
+            if (operation.remove()) {
+                Integer expected = reference.remove(operation.key());
+                assertThat(map.remove(operation.key())).isEqualTo(expected == null ? LongIntHashMap.NO_VALUE : expected);
+            } else {
+                Integer expected = reference.put(operation.key(), operation.value());
+                assertThat(map.put(operation.key(), operation.value())).isEqualTo(expected == null ? LongIntHashMap.NO_VALUE : expected);
+            }
+        }
+
+        // THEN
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    }
+
+    @Provide
+    Arbitrary<List<Operation>> operations() {
+        // a small key space, so that keys collide, get removed and put back often
+        Arbitrary<Long> keys = Arbitraries.oneOf(
+                Arbitraries.longs().between(-20, 20),
+                Arbitraries.of(Long.MIN_VALUE, Long.MAX_VALUE));
+        return Combinators.combine(Arbitraries.of(true, false), keys, Arbitraries.integers().between(0, 1000))
+                .as(Operation::new)
+                .list().ofMaxSize(300);
+    }
+
+    record Operation(boolean remove, long key, int value) {
+    }
+}
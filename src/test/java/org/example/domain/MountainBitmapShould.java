@@ -0,0 +1,230 @@
+package org.example.domain;
+
+import net.jqwik.api.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MountainBitmapShould {
+
+    @Property
+    void hold_exactly_the_mountains_in_input_order(@ForAll("mountains") List<Mountain> mountains,
+                                                   @ForAll boolean rowMajorInput) {
+        // GIVEN
+        List<Mountain> input = new ArrayList<>(mountains);
+        if (rowMajorInput) {
+            input = input.stream()
+                    .distinct()
+                    .sorted((first, second) -> first.getCoordinates().northSouth() != second.getCoordinates().northSouth()
+                            ? Integer.compare(first.getCoordinates().northSouth(), second.getCoordinates().northSouth())
+                            : Integer.compare(first.getCoordinates().westEast(), second.getCoordinates().westEast()))
+                    .toList();
+        }
+        Set<Long> positions = new HashSet<>();
+        input.forEach(mountain -> positions.add(PackedCoordinates.pack(mountain.getCoordinates())));
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(input);
+
+        // THEN
+        List<Mountain> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = bitmap.positions();
+        while (iterator.hasNext()) {
+            iterated.add(new Mountain(PackedCoordinates.unpack(iterator.nextLong())));
+        }
+        assertThat(iterated).isEqualTo(input);
+        assertThat(bitmap.cardinality()).isEqualTo(positions.size());
+        for (Mountain mountain : input) {
+            for (long position : neighbourhood(PackedCoordinates.pack(mountain.getCoordinates()))) {
+                assertThat(bitmap.contains(position)).isEqualTo(positions.contains(position));
+            }
+        }
+    }
+
+    @Test
+    void store_horizontal_ridges_in_less_than_a_bit_per_mountain() {
+        // GIVEN
+        SplittableRandom random = new SplittableRandom(42);
+        List<Mountain> mountains = new ArrayList<>();
+        for (int northSouth = 0; northSouth < 200; northSouth++) {
+            int westEast = random.nextInt(50);
+            while (westEast < 100_000) {
+                int ridgeLength = 20 + random.nextInt(200);
+                for (int i = 0; i < ridgeLength; i++) {
+                    mountains.add(new Mountain(westEast + i, northSouth));
+                }
+                westEast += ridgeLength + 1 + random.nextInt(200);
+            }
+        }
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(mountains);
+
+        // THEN
+        assertThat(bitmap.cardinality()).isEqualTo(mountains.size());
+        assertThat(8.0 * bitmap.bytes() / bitmap.cardinality()).isLessThan(1);
+    }
+
+    /**
+     * Same ridges as above, turned north to south and listed column by column, so that the input order is kept too.
+     */
+    @Test
+    void store_vertical_ridges_in_less_than_a_word_per_mountain_including_their_input_order() {
+        // GIVEN
+        SplittableRandom random = new SplittableRandom(42);
+        List<Mountain> mountains = new ArrayList<>();
+        for (int westEast = 0; westEast < 200; westEast++) {
+            int northSouth = random.nextInt(50);
+            while (northSouth < 100_000) {
+                int ridgeLength = 20 + random.nextInt(200);
+                for (int i = 0; i < ridgeLength; i++) {
+                    mountains.add(new Mountain(westEast, northSouth + i));
+                }
+                northSouth += ridgeLength + 1 + random.nextInt(200);
+            }
+        }
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(mountains);
+
+        // THEN
+        assertThat(bitmap.cardinality()).isEqualTo(mountains.size());
+        // 4 bytes for its rank in the input order, at most 2 for its cell
+        assertThat((double) bitmap.bytes() / bitmap.cardinality()).isLessThan(6.1);
+    }
+
+    /**
+     * Listed row by row, as written from a grid.
+     */
+    @Test
+    void store_blobs_in_less_than_a_bit_per_mountain() {
+        // GIVEN
+        SplittableRandom random = new SplittableRandom(42);
+        List<Mountain> mountains = new ArrayList<>();
+        Set<Long> positions = new HashSet<>();
+        for (int blob = 0; blob < 200; blob++) {
+            int centerWestEast = random.nextInt(10_000);
+            int centerNorthSouth = random.nextInt(10_000);
+            int radius = 20 + random.nextInt(60);
+            for (int northSouth = centerNorthSouth - radius; northSouth <= centerNorthSouth + radius; northSouth++) {
+                for (int westEast = centerWestEast - radius; westEast <= centerWestEast + radius; westEast++) {
+                    long position = PackedCoordinates.pack(westEast, northSouth);
+                    int dx = westEast - centerWestEast;
+                    int dy = northSouth - centerNorthSouth;
+                    if (dx * dx + dy * dy <= radius * radius && positions.add(position)) {
+                        mountains.add(new Mountain(westEast, northSouth));
+                    }
+                }
+            }
+        }
+
+        mountains.sort(Comparator.comparingInt((Mountain mountain) -> mountain.getCoordinates().northSouth())
+                .thenComparingInt(mountain -> mountain.getCoordinates().westEast()));
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(mountains);
+
+        // THEN
+        assertThat(bitmap.cardinality()).isEqualTo(mountains.size());
+        assertThat(8.0 * bitmap.bytes() / bitmap.cardinality()).isLessThan(1);
+    }
+
+    @Test
+    void store_scattered_mountains_of_a_dense_tile_as_a_bitmap() {
+        // GIVEN
+        List<Mountain> mountains = new ArrayList<>();
+        for (int northSouth = 0; northSouth < MountainBitmap.TILE_SIZE; northSouth++) {
+            for (int westEast = 0; westEast < MountainBitmap.TILE_SIZE; westEast += 2) {
+                mountains.add(new Mountain(westEast, northSouth));
+            }
+        }
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(mountains);
+
+        // THEN
+        assertThat(bitmap.bytes()).isBetween((long) MountainBitmap.TILE_CELLS / Byte.SIZE,
+                MountainBitmap.TILE_CELLS / Byte.SIZE + 512L);
+        assertThat(bitmap.contains(PackedCoordinates.pack(4, 7))).isTrue();
+        assertThat(bitmap.contains(PackedCoordinates.pack(5, 7))).isFalse();
+    }
+
+    /**
+     * A tile of scattered mountains, held as a bitmap, next to a tile of many short ridges, held as runs.
+     */
+    @Test
+    void iterate_dense_tiles_back_in_shuffled_input_order() {
+        // GIVEN
+        List<Mountain> mountains = new ArrayList<>();
+        for (int northSouth = 0; northSouth < MountainBitmap.TILE_SIZE; northSouth++) {
+            for (int westEast = 0; westEast < MountainBitmap.TILE_SIZE; westEast += 2) {
+                mountains.add(new Mountain(westEast, northSouth));
+            }
+            for (int westEast = 0; westEast < MountainBitmap.TILE_SIZE; westEast += 64) {
+                for (int i = 0; i < 30; i++) {
+                    mountains.add(new Mountain(MountainBitmap.TILE_SIZE + westEast + i, northSouth));
+                }
+            }
+        }
+        Collections.shuffle(mountains, new Random(42));
+
+        // WHEN
+        MountainBitmap bitmap = MountainBitmap.of(mountains);
+
+        // THEN
+        List<Mountain> iterated = new ArrayList<>();
+        PrimitiveIterator.OfLong iterator = bitmap.positions();
+        while (iterator.hasNext()) {
+            iterated.add(new Mountain(PackedCoordinates.unpack(iterator.nextLong())));
+        }
+        assertThat(iterated).isEqualTo(mountains);
+    }
+
+    /**
+     * Ridges of consecutive mountains around tile boundaries and coordinates signs, in both directions, possibly
+     * overlapping.
+     */
+    @Provide
+    Arbitrary<List<Mountain>> mountains() {
+        Arbitrary<Integer> westEast = Arbitraries.oneOf(Arbitraries.integers().between(-70, 10),
+                Arbitraries.integers().between(MountainBitmap.TILE_SIZE - 70, MountainBitmap.TILE_SIZE + 5),
+                Arbitraries.integers().between(Integer.MIN_VALUE, Integer.MAX_VALUE - 70));
+        Arbitrary<Integer> northSouth = Arbitraries.oneOf(Arbitraries.integers().between(-2, 3),
+                Arbitraries.integers().between(MountainBitmap.TILE_SIZE - 3, MountainBitmap.TILE_SIZE + 1),
+                Arbitraries.integers().between(Integer.MIN_VALUE, Integer.MAX_VALUE - 70));
+        Arbitrary<List<Mountain>> ridge = Combinators.combine(westEast,
+                        northSouth,
+                        Arbitraries.integers().between(1, 70),
+                        Arbitraries.of(true, false))
+                .as((startWestEast, startNorthSouth, length, vertical) -> {
+                    List<Mountain> mountains = new ArrayList<>();
+                    for (int i = 0; i < length; i++) {
+                        mountains.add(vertical
+                                ? new Mountain(startWestEast, startNorthSouth + i)
+                                : new Mountain(startWestEast + i, startNorthSouth));
+                    }
+                    return mountains;
+                });
+        return ridge.list().ofMaxSize(5)
+                .map(ridges -> ridges.stream().flatMap(List::stream).toList())
+                .flatMap(mountains -> Arbitraries.shuffle(mountains));
+    }
+
+    private static long[] neighbourhood(long position) {
+        return new long[]{position,
+                PackedCoordinates.westOf(position),
+                PackedCoordinates.eastOf(position),
+                PackedCoordinates.northOf(position),
+                PackedCoordinates.southOf(position)};
+    }
+}
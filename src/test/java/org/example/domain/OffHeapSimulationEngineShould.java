@@ -0,0 +1,132 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import org.example.TestDataFactory;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.domain.Orientation.SOUTH;
+
+class OffHeapSimulationEngineShould {
+
+    @Test
+    void run_the_example_simulation_of_the_instructions() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(TestDataFactory.lara()))
+                .build();
+
+        // WHEN
+        new OffHeapSimulationEngine(simulation).run();
+
+        // THEN
+        Player expectedPlayerAfterSimulation = new Player("Lara", new Coordinates(0, 3), SOUTH, 3, emptyList());
+        assertThat(simulation.getPlayers())
+                .singleElement()
+                .usingRecursiveComparison()
+                .isEqualTo(expectedPlayerAfterSimulation);
+        assertThat(simulation.getTreasures()).extracting(Treasure::quantity).isEqualTo(of(0, 2));
+    }
+
+    @Test
+    void give_back_the_players_with_their_names_after_the_run() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(3, 3)
+                .addPlayer(new Player("Éloïse", new Coordinates(0, 0), SOUTH, of(Command.A, Command.G)))
+                .addPlayer(new Player("李", new Coordinates(2, 2), SOUTH, of()))
+                .build();
+
+        // WHEN
+        new OffHeapSimulationEngine(simulation).run();
+
+        // THEN
+        assertThat(simulation.getPlayers())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(new Player("Éloïse", new Coordinates(0, 1), Orientation.EAST),
+                        new Player("李", new Coordinates(2, 2), SOUTH));
+    }
+
+    @Test
+    void let_the_players_be_visited_in_place_after_the_run() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(3, 3)
+                .withTreasures(of(new Treasure(0, 1, 1)))
+                .addPlayer(new Player("Éloïse", new Coordinates(0, 0), SOUTH, of(Command.A, Command.G)))
+                .addPlayer(new Player("李", new Coordinates(2, 2), SOUTH, of()))
+                .build();
+        new OffHeapSimulationEngine(simulation).run();
+
+        // WHEN
+        List<String> visited = new ArrayList<>();
+        PlayerCursor players = simulation.players();
+        while (players.next()) {
+            visited.add("%s %d %d %s %d".formatted(players.name(),
+                    players.westEast(),
+                    players.northSouth(),
+                    players.orientation(),
+                    players.collectedTreasuresCount()));
+        }
+
+        // THEN
+        assertThat(visited).containsExactly("Éloïse 0 1 EAST 1", "李 2 2 SOUTH 0");
+    }
+
+    @Test
+    void hold_the_players_in_mapped_memory_rather_than_direct_memory() {
+        // GIVEN
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            players.add(new Player("player" + i, new Coordinates(i, 0), SOUTH, of(Command.A, Command.D)));
+        }
+        long mappedBefore = bufferPoolMemoryUsed("mapped");
+        long directBefore = bufferPoolMemoryUsed("direct");
+
+        // WHEN
+        OffHeapPlayerStates states = OffHeapPlayerStates.of(players);
+
+        // THEN
+        assertThat(bufferPoolMemoryUsed("mapped") - mappedBefore)
+                .isGreaterThanOrEqualTo((long) players.size() * OffHeapPlayerStates.HOT_RECORD_SIZE);
+        assertThat(bufferPoolMemoryUsed("direct")).isEqualTo(directBefore);
+        assertThat(states.count()).isEqualTo(players.size());
+    }
+
+    private static long bufferPoolMemoryUsed(String pool) {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(bufferPool -> bufferPool.getName().equals(pool))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    @Property
+    void produce_the_same_results_as_the_player_based_engine(@ForAll long seed) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        Simulation expected = world.build();
+        Simulation actual = world.build();
+
+        // WHEN
+        expected.run();
+        new OffHeapSimulationEngine(actual).run();
+
+        // THEN
+        assertThat(actual.getPlayers()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected.getPlayers());
+        assertThat(actual.getTurn()).isEqualTo(expected.getTurn());
+        assertThat(actual.getActivePlayersCount()).isZero();
+        assertThat(actual.getTreasures()).extracting(Treasure::quantity)
+                .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+}
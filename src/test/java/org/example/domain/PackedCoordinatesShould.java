@@ -0,0 +1,29 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PackedCoordinatesShould {
+
+    @Property
+    void pack_and_unpack_any_coordinates(@ForAll int westEast, @ForAll int northSouth) {
+        Coordinates coordinates = new Coordinates(westEast, northSouth);
+
+        long packed = PackedCoordinates.pack(coordinates);
+
+        assertThat(PackedCoordinates.unpack(packed)).isEqualTo(coordinates);
+    }
+
+    @Property
+    void move_like_coordinates(@ForAll int westEast, @ForAll int northSouth) {
+        Coordinates coordinates = new Coordinates(westEast, northSouth);
+        long packed = PackedCoordinates.pack(coordinates);
+
+        assertThat(PackedCoordinates.unpack(PackedCoordinates.northOf(packed))).isEqualTo(coordinates.northOf());
+        assertThat(PackedCoordinates.unpack(PackedCoordinates.southOf(packed))).isEqualTo(coordinates.southOf());
+        assertThat(PackedCoordinates.unpack(PackedCoordinates.eastOf(packed))).isEqualTo(coordinates.eastOf());
+        assertThat(PackedCoordinates.unpack(PackedCoordinates.westOf(packed))).isEqualTo(coordinates.westOf());
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.domain;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.lifecycle.AfterContainer;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.domain.Command.A;
+import static org.example.domain.Orientation.EAST;
+import static org.example.domain.Orientation.WEST;
+
+class ParallelSimulationEngineShould {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterContainer
+    static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Property
+    void produce_the_same_results_as_the_sequential_engine(@ForAll long seed,
+                                                           @ForAll @IntRange(min = 1, max = 8) int regionsCount) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        Simulation expected = world.build();
+        Simulation actual = world.build();
+
+        // WHEN
+        expected.run();
+        new ParallelSimulationEngine(actual, POOL, regionsCount).run();
+
+        // THEN
+        assertThat(actual.getPlayers()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected.getPlayers());
+        assertThat(actual.getTurn()).isEqualTo(expected.getTurn());
+        assertThat(actual.getActivePlayersCount()).isZero();
+        assertThat(actual.getTreasures()).extracting(Treasure::quantity)
+                .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+
+    /**
+     * Two players of different regions heading to the same cell at the region border: the first one in the players
+     * list takes it, then the treasure on it.
+     * <br/>
+     * P1 .  T  .  P2    (regions of width 2: [P1 .] [T .] [P2])
+     */
+    @Example
+    void let_the_first_player_take_a_contested_cell() {
+        // GIVEN
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A, A));
+        Player player2 = new Player("p2", new Coordinates(4, 0), WEST, of(A, A));
+        Simulation simulation = Simulation.builder()
+                .withSize(5, 1)
+                .withTreasures(of(new Treasure(2, 0, 1)))
+                .withPlayers(of(player1, player2))
+                .build();
+
+        // WHEN
+        new ParallelSimulationEngine(simulation, POOL, 3).run();
+
+        // THEN
+        List<Player> result = simulation.getPlayers();
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(2, 0));
+        assertThat(result.get(0).getCollectedTreasuresCount()).isEqualTo(1);
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(3, 0));
+        assertThat(result.get(1).getCollectedTreasuresCount()).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Small random but valid world, described by value so that several independent simulations can be built from it and
+ * compared once run.
+ */
+record RandomWorld(int width,
+                   int height,
+                   List<Coordinates> mountains,
+                   List<TreasureSpec> treasures,
+                   List<PlayerSpec> players) {
+
+    static RandomWorld generate(long seed) {
+        Random random = new Random(seed);
+        int width = 1 + random.nextInt(8);
+        int height = 1 + random.nextInt(8);
+        List<Coordinates> cells = new ArrayList<>();
+        for (int northSouth = 0; northSouth < height; northSouth++) {
+            for (int westEast = 0; westEast < width; westEast++) {
+                cells.add(new Coordinates(westEast, northSouth));
+            }
+        }
+        Collections.shuffle(cells, random);
+        int mountainsCount = random.nextInt(cells.size() / 4 + 1);
+        int treasuresCount = random.nextInt(cells.size() / 4 + 1);
+        int playersCount = random.nextInt(Math.max(1, cells.size() - mountainsCount - treasuresCount) / 2 + 1);
+
+        List<Coordinates> mountains = new ArrayList<>(cells.subList(0, mountainsCount));
+        List<TreasureSpec> treasures = new ArrayList<>();
+        for (Coordinates coordinates : cells.subList(mountainsCount, mountainsCount + treasuresCount)) {
+            treasures.add(new TreasureSpec(coordinates, random.nextInt(4)));
+        }
+        List<PlayerSpec> players = new ArrayList<>();
+        int firstPlayerCell = mountainsCount + treasuresCount;
+        for (int i = 0; i < playersCount; i++) {
+            Orientation orientation = Orientation.values()[random.nextInt(4)];
+            List<Command> commands = new ArrayList<>();
+            int commandsCount = random.nextInt(40);
+            for (int j = 0; j < commandsCount; j++) {
+                // favour moves, as they are the interesting ones
+                commands.add(random.nextInt(3) == 0 ? Command.values()[1 + random.nextInt(2)] : Command.A);
+            }
+            players.add(new PlayerSpec("player" + i, cells.get(firstPlayerCell + i), orientation, commands));
+        }
+        return new RandomWorld(width, height, mountains, treasures, players);
+    }
+
+    Simulation build() {
+        SimulationBuilder builder = Simulation.builder().withSize(width, height);
+        mountains.forEach(coordinates -> builder.addMountain(new Mountain(coordinates)));
+        treasures.forEach(treasure -> builder.addTreasure(new Treasure(treasure.coordinates().westEast(),
+                treasure.coordinates().northSouth(),
+                treasure.quantity())));
+        players.forEach(player -> builder.addPlayer(new Player(player.name(),
+                player.coordinates(),
+                player.orientation(),
+                player.commands())));
+        return builder.build();
+    }
+
+    record TreasureSpec(Coordinates coordinates, int quantity) {
+    }
+
+    record PlayerSpec(String name, Coordinates coordinates, Orientation orientation, List<Command> commands) {
+    }
+}
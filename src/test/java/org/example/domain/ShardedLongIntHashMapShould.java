@@ -0,0 +1,29 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedLongIntHashMapShould {
+
+    @Property
+    void find_the_keys_put_in_their_own_shard(@ForAll List<Long> keys, @ForAll @IntRange(min = 1, max = 8) int shardsBits) {
+        // GIVEN
+        ShardedLongIntHashMap map = new ShardedLongIntHashMap(1 << shardsBits, keys.size());
+
+        // WHEN
+        for (int i = 0; i < keys.size(); i++) {
+            map.shard(map.shardOf(keys.get(i))).put(keys.get(i), i);
+        }
+
+        // THEN
+        for (long key : keys) {
+            assertThat(map.get(key)).isEqualTo(keys.lastIndexOf(key));
+            assertThat(map.shardOf(key)).isBetween(0, map.shardsCount() - 1);
+        }
+    }
+}
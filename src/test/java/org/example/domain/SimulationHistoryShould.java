@@ -0,0 +1,124 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulationHistoryShould {
+
+    @Property
+    void give_the_state_of_the_board_at_any_turn(@ForAll long seed,
+                                                 @ForAll @IntRange(min = 1, max = 10) int turnsInterval,
+                                                 @ForAll @IntRange(max = 50) int turn) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        SimulationHistory history = new SimulationHistory(world::build, turnsInterval);
+        Simulation recorded = world.build();
+        recorded.setListener(history);
+        recorded.run();
+        Simulation expected = world.build();
+        for (int i = 0; i < turn && expected.areCommandsRemaining(); i++) {
+            expected.playTurn();
+        }
+
+        // WHEN / THEN
+        for (Player player : expected.getPlayers()) {
+            assertThat(history.playerAt(player.getName(), turn)).usingRecursiveComparison().isEqualTo(player);
+        }
+        assertThat(history.treasuresAt(turn)).extracting(Treasure::quantity)
+                .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+
+    @Property
+    void give_the_same_answers_whatever_the_order_of_the_queries(
+            @ForAll long seed,
+            @ForAll @IntRange(min = 2, max = 4) int maxSnapshots,
+            @ForAll @Size(max = 6) List<@IntRange(max = 50) Integer> turns) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        SimulationHistory history = new SimulationHistory(world::build,
+                1,
+                maxSnapshots * world.build().snapshot().bytes());
+        Simulation recorded = world.build();
+        recorded.setListener(history);
+        recorded.run();
+
+        for (int turn : turns) {
+            Simulation expected = world.build();
+            for (int i = 0; i < turn && expected.areCommandsRemaining(); i++) {
+                expected.playTurn();
+            }
+
+            // WHEN / THEN
+            for (Player player : expected.getPlayers()) {
+                assertThat(history.playerAt(player.getName(), turn)).usingRecursiveComparison().isEqualTo(player);
+            }
+            assertThat(history.treasuresAt(turn)).extracting(Treasure::quantity)
+                    .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+        }
+    }
+
+    @Test
+    void keep_the_snapshots_within_the_given_bytes_however_long_the_run() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(4, 4)
+                .addPlayer(new Player("Walker", new Coordinates(0, 0), Orientation.EAST, "AAAAAAAAD".repeat(100).chars()
+                        .mapToObj(command -> Command.valueOf(Character.toString(command)))
+                        .toList()))
+                .build();
+        long snapshotBytes = simulation.snapshot().bytes();
+        SimulationHistory history = new SimulationHistory(() -> null, 1, 8 * snapshotBytes);
+        simulation.setListener(history);
+
+        // WHEN
+        simulation.run();
+
+        // THEN
+        assertThat(history.getSnapshotsCount()).isBetween(4, 8);
+        assertThat(history.getSnapshotsBytes()).isEqualTo(history.getSnapshotsCount() * snapshotBytes);
+        assertThat(history.getTurnsInterval()).isEqualTo(128);
+    }
+
+    @Test
+    void replay_from_the_first_turn_when_no_snapshot_fits() {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(42);
+        SimulationHistory history = new SimulationHistory(world::build, 1, 1);
+        Simulation recorded = world.build();
+        recorded.setListener(history);
+
+        // WHEN
+        recorded.run();
+
+        // THEN
+        assertThat(history.getSnapshotsCount()).isZero();
+        for (Player player : recorded.getPlayers()) {
+            assertThat(history.playerAt(player.getName(), recorded.getTurn()))
+                    .usingRecursiveComparison()
+                    .isEqualTo(player);
+        }
+    }
+
+    @Test
+    void not_answer_for_an_unknown_player_or_a_negative_turn() {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(42);
+        SimulationHistory history = new SimulationHistory(world::build, 10);
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> history.playerAt("nobody", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("No player named nobody in the simulation");
+        assertThatThrownBy(() -> history.treasuresAt(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Turn must not be negative but was -1");
+    }
+}
@@ -263,6 +263,35 @@ class SimulationShould {
         assertThat(simulation.getTreasures()).extracting(Treasure::quantity).isEqualTo(of(1, 0, 6));
     }
 
+    /**
+     * Checks that players positions are tracked as they move: the cell freed by player1 can be taken by player2, and
+     * the cell player1 moved to blocks player3.
+     * <br/>
+     * .   P1  .      ->    P1  P2  .
+     * P3  P2  .      ->    P3  .   .
+     */
+    @Test
+    void track_players_positions_as_they_move() {
+        // GIVEN
+        Player player1 = new Player("p1", new Coordinates(1, 0), WEST);
+        Player player2 = new Player("p2", new Coordinates(1, 1), NORTH);
+        Player player3 = new Player("p3", new Coordinates(0, 1), NORTH);
+        Simulation simulation = Simulation.builder()
+                .withSize(3, 2)
+                .withPlayers(of(player1, player2, player3))
+                .build();
+
+        // WHEN
+        simulation.moveForward(player1);
+        simulation.moveForward(player2);
+        simulation.moveForward(player3);
+
+        // THEN
+        assertThat(player1.getCoordinates()).isEqualTo(new Coordinates(0, 0));
+        assertThat(player2.getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(player3.getCoordinates()).isEqualTo(new Coordinates(0, 1));
+    }
+
     @Test
     void execute_sequence_of_commands_on_single_player() {
         // GIVEN
@@ -316,6 +345,34 @@ class SimulationShould {
         inOrder.verify(simulation).turnLeft(player1);
     }
 
+    @Test
+    void keep_players_order_once_some_of_them_are_done() {
+        // GIVEN
+        Player player1 = new Player("player1", new Coordinates(0, 0), EAST, of(G));
+        Player player2 = new Player("player2", new Coordinates(1, 0), EAST, of(G, D, G));
+        Player player3 = new Player("player3", new Coordinates(2, 0), EAST, emptyList());
+        Player player4 = new Player("player4", new Coordinates(3, 0), EAST, of(D, G));
+        Simulation simulation = spy(Simulation.builder()
+                .withSize(4, 1)
+                .withPlayers(of(player1, player2, player3, player4))
+                .build());
+
+        // WHEN
+        simulation.run();
+
+        // THEN
+        InOrder inOrder = inOrder(simulation);
+        inOrder.verify(simulation).turnLeft(player1);
+        inOrder.verify(simulation).turnLeft(player2);
+        inOrder.verify(simulation).turnRight(player4);
+        inOrder.verify(simulation).turnRight(player2);
+        inOrder.verify(simulation).turnLeft(player4);
+        inOrder.verify(simulation).turnLeft(player2);
+        verify(simulation, times(4)).turnLeft(any());
+        verify(simulation, times(2)).turnRight(any());
+        assertThat(simulation.areCommandsRemaining()).isFalse();
+    }
+
     @Test
     void run_the_example_simulation_of_the_instructions() {
         // GIVEN
@@ -469,6 +526,29 @@ class SimulationShould {
                     .hasMessageStartingWith(expectedErrorMessage);
         }
 
+        @Test
+        void throw_exception_if_a_feature_overlaps_a_terrain_without_listing_its_mountains() {
+            // GIVEN
+            Terrain terrain = mock(Terrain.class);
+            when(terrain.fitsIn(any())).thenReturn(true);
+            when(terrain.hasMountainAt(1, 1)).thenReturn(true);
+            String expectedErrorMessage = SimulationValidator.OVERLAPPING_FEATURES_ERROR_MESSAGE_FORMAT
+                    .formatted(of(new Coordinates(1, 1)));
+
+            // WHEN
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> Simulation.builder()
+                    .withSize(3, 4)
+                    .withTerrain(terrain)
+                    .withTreasures(of(TREASURE_AT_1_1))
+                    .build();
+
+            // THEN
+            assertThatThrownBy(throwingCallable)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage(expectedErrorMessage);
+            verify(terrain, never()).mountains();
+        }
+
         private static Stream<Arguments> throw_exception_if_overlapping_features() {
             return Stream.of(
                     Arguments.of(OVERLAPPING_MOUNTAINS, emptyList(), emptyList()),
@@ -517,6 +597,27 @@ class SimulationShould {
                     .hasMessageStartingWith(expectedErrorMessage);
         }
 
+        @Test
+        void throw_exception_if_a_terrain_is_out_of_bound_without_listing_its_mountains() {
+            // GIVEN
+            Terrain terrain = mock(Terrain.class);
+            when(terrain.fitsIn(any())).thenReturn(false);
+            String expectedErrorMessage = SimulationValidator.FEATURES_COORDINATES_OUT_OF_BOUND_ERROR_MESSAGE
+                    .formatted(of("mountains of the terrain"));
+
+            // WHEN
+            ThrowableAssert.ThrowingCallable throwingCallable = () -> Simulation.builder()
+                    .withSize(width, height)
+                    .withTerrain(terrain)
+                    .build();
+
+            // THEN
+            assertThatThrownBy(throwingCallable)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage(expectedErrorMessage);
+            verify(terrain, never()).mountains();
+        }
+
         private static Stream<Arguments> throw_exception_if_feature_out_of_bound() {
             Coordinates coordinates = tooMuchSouth();
             Coordinates coordinates1 = tooMuchNorth();
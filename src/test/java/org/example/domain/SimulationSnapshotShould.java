@@ -0,0 +1,56 @@
+package org.example.domain;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import org.example.TestDataFactory;
+import org.junit.jupiter.api.Test;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulationSnapshotShould {
+
+    @Property
+    void resume_a_simulation_with_the_same_results_as_an_uninterrupted_run(@ForAll long seed,
+                                                                            @ForAll @IntRange(max = 40) int turns) {
+        // GIVEN
+        RandomWorld world = RandomWorld.generate(seed);
+        Simulation uninterrupted = world.build();
+        Simulation interrupted = world.build();
+        for (int turn = 0; turn < turns && interrupted.areCommandsRemaining(); turn++) {
+            interrupted.playTurn();
+        }
+
+        // WHEN
+        Simulation resumed = world.build();
+        resumed.restore(interrupted.snapshot());
+        resumed.run();
+        uninterrupted.run();
+
+        // THEN
+        assertThat(resumed.getTurn()).isEqualTo(uninterrupted.getTurn());
+        assertThat(resumed.getPlayers()).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(uninterrupted.getPlayers());
+        assertThat(resumed.getTreasures()).extracting(Treasure::quantity)
+                .isEqualTo(uninterrupted.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+
+    @Test
+    void not_restore_a_player_who_is_done_to_a_turn_it_was_still_playing() {
+        // GIVEN
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(TestDataFactory.lara()))
+                .build();
+        SimulationSnapshot initialState = simulation.snapshot();
+        simulation.run();
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> simulation.restore(initialState))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.domain;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.lifecycle.AfterContainer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.domain.Command.A;
+import static org.example.domain.Command.D;
+import static org.example.domain.Orientation.*;
+
+class SimultaneousSimulationEngineShould {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterContainer
+    static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /**
+     * P1  .  P2   ->   .  P1  P2  (P1 is first in the list, but its move is not resolved before P2's)
+     */
+    @Example
+    void let_the_first_player_of_the_list_take_a_contested_cell() {
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A));
+        Player player2 = new Player("p2", new Coordinates(2, 0), WEST, of(A));
+
+        List<Player> result = run(3, 1, player1, player2);
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(2, 0));
+    }
+
+    @Example
+    void block_players_swapping_places() {
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A));
+        Player player2 = new Player("p2", new Coordinates(1, 0), WEST, of(A));
+
+        List<Player> result = run(2, 1, player1, player2);
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(0, 0));
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+    }
+
+    /**
+     * The queue moves forward as a whole, even though the player at its back is the first of the list.
+     * <br/>
+     * P1 P2 P3 .   ->   . P1 P2 P3
+     */
+    @Example
+    void let_players_move_into_cells_being_vacated() {
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A));
+        Player player2 = new Player("p2", new Coordinates(1, 0), EAST, of(A));
+        Player player3 = new Player("p3", new Coordinates(2, 0), EAST, of(A));
+
+        List<Player> result = run(4, 1, player1, player2, player3);
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(2, 0));
+        assertThat(result.get(2).getCoordinates()).isEqualTo(new Coordinates(3, 0));
+    }
+
+    /**
+     * P1 P2 P3 M   ->   P1 P2 P3 M
+     */
+    @Example
+    void block_the_whole_queue_if_its_head_is_blocked() {
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A));
+        Player player2 = new Player("p2", new Coordinates(1, 0), EAST, of(A));
+        Player player3 = new Player("p3", new Coordinates(2, 0), EAST, of(A));
+        Simulation simulation = Simulation.builder()
+                .withSize(4, 1)
+                .withMountains(of(new Mountain(3, 0)))
+                .withPlayers(of(player1, player2, player3))
+                .build();
+
+        new SimultaneousSimulationEngine(simulation, POOL).run();
+        List<Player> result = simulation.getPlayers();
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(0, 0));
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(result.get(2).getCoordinates()).isEqualTo(new Coordinates(2, 0));
+    }
+
+    /**
+     * P1 P2       P4 P1
+     * P4 P3  ->   P3 P2
+     */
+    @Example
+    void let_players_rotate() {
+        Player player1 = new Player("p1", new Coordinates(0, 0), EAST, of(A));
+        Player player2 = new Player("p2", new Coordinates(1, 0), SOUTH, of(A));
+        Player player3 = new Player("p3", new Coordinates(1, 1), WEST, of(A));
+        Player player4 = new Player("p4", new Coordinates(0, 1), NORTH, of(A));
+
+        List<Player> result = run(2, 2, player1, player2, player3, player4);
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(result.get(1).getCoordinates()).isEqualTo(new Coordinates(1, 1));
+        assertThat(result.get(2).getCoordinates()).isEqualTo(new Coordinates(0, 1));
+        assertThat(result.get(3).getCoordinates()).isEqualTo(new Coordinates(0, 0));
+    }
+
+    /**
+     * Enough players turning on the spot for the contested cell to be claimed in parallel, the two contenders being
+     * the first and the last of the list.
+     */
+    @Example
+    void let_the_first_player_of_the_list_take_a_contested_cell_among_thousands_of_players() {
+        List<Player> players = new ArrayList<>();
+        players.add(new Player("p1", new Coordinates(0, 0), EAST, of(A)));
+        for (int northSouth = 1; northSouth < 100; northSouth++) {
+            for (int westEast = 0; westEast < 100; westEast++) {
+                players.add(new Player("filler" + players.size(), new Coordinates(westEast, northSouth), NORTH, of(D)));
+            }
+        }
+        players.add(new Player("p2", new Coordinates(2, 0), WEST, of(A)));
+
+        List<Player> result = run(100, 100, players.toArray(Player[]::new));
+
+        assertThat(result.get(0).getCoordinates()).isEqualTo(new Coordinates(1, 0));
+        assertThat(result.get(result.size() - 1).getCoordinates()).isEqualTo(new Coordinates(2, 0));
+    }
+
+    @Property
+    void leave_the_occupancy_grid_in_sync_once_run(@ForAll long seed) {
+        Simulation simulation = RandomWorld.generate(seed).build();
+
+        new SimultaneousSimulationEngine(simulation, POOL).run();
+
+        OccupancyGrid occupancyGrid = simulation.getOccupancyGrid();
+        List<Player> players = simulation.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            assertThat(occupancyGrid.playerAt(players.get(i).getPosition())).isEqualTo(i);
+        }
+        List<Treasure> treasures = simulation.getTreasures();
+        for (int i = 0; i < treasures.size(); i++) {
+            Treasure treasure = treasures.get(i);
+            int expected = treasure.isEmpty() ? OccupancyGrid.NONE : i;
+            assertThat(occupancyGrid.nonEmptyTreasureAt(PackedCoordinates.pack(treasure.getCoordinates()))).isEqualTo(expected);
+        }
+    }
+
+    @Property
+    void produce_the_same_results_as_the_sequential_engine_for_a_single_player(@ForAll long seed) {
+        RandomWorld world = RandomWorld.generate(seed);
+        RandomWorld singlePlayerWorld = new RandomWorld(world.width(),
+                world.height(),
+                world.mountains(),
+                world.treasures(),
+                world.players().stream().limit(1).toList());
+        Simulation expected = singlePlayerWorld.build();
+        Simulation actual = singlePlayerWorld.build();
+
+        expected.run();
+        new SimultaneousSimulationEngine(actual, POOL).run();
+
+        assertThat(actual.getPlayers()).usingRecursiveFieldByFieldElementComparator().isEqualTo(expected.getPlayers());
+        assertThat(actual.getTreasures()).extracting(Treasure::quantity)
+                .isEqualTo(expected.getTreasures().stream().map(Treasure::quantity).toList());
+    }
+
+    @Property
+    void never_put_two_players_on_the_same_cell(@ForAll long seed) {
+        Simulation simulation = RandomWorld.generate(seed).build();
+
+        new SimultaneousSimulationEngine(simulation, POOL).run();
+
+        Set<Coordinates> occupiedCells = new HashSet<>();
+        simulation.getPlayers().forEach(player -> assertThat(occupiedCells.add(player.getCoordinates())).isTrue());
+    }
+
+    /**
+     * @return the players once the run is over, given back by the engine
+     */
+    private static List<Player> run(int width, int height, Player... players) {
+        Simulation simulation = Simulation.builder()
+                .withSize(width, height)
+                .withPlayers(List.of(players))
+                .build();
+        new SimultaneousSimulationEngine(simulation, POOL).run();
+        return simulation.getPlayers();
+    }
+}
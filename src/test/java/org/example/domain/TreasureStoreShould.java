@@ -0,0 +1,99 @@
+package org.example.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TreasureStoreShould {
+
+    @Test
+    void decrement_the_quantity_of_a_collected_treasure() {
+        // GIVEN
+        TreasureStore store = TreasureStore.of(of(new Treasure(1, 2, 2)));
+
+        // WHEN
+        int remaining = store.collect(0);
+
+        // THEN
+        assertThat(remaining).isEqualTo(1);
+        assertThat(store.quantity(0)).isEqualTo(1);
+        assertThat(store.westEast(0)).isEqualTo(1);
+        assertThat(store.northSouth(0)).isEqualTo(2);
+    }
+
+    @Test
+    void not_allow_collecting_a_depleted_treasure() {
+        // GIVEN
+        TreasureStore store = TreasureStore.of(of(new Treasure(0, 0, 1)));
+        store.collect(0);
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> store.collect(0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(Treasure.COLLECT_EMPTY_TREASURE_ERROR_MESSAGE);
+    }
+
+    @Test
+    void iterate_over_non_empty_treasures_in_input_order() {
+        // GIVEN
+        TreasureStore store = TreasureStore.of(of(
+                new Treasure(0, 0, 1),
+                new Treasure(1, 0, 0),
+                new Treasure(2, 0, 2),
+                new Treasure(3, 0, 1),
+                new Treasure(4, 0, 3)));
+        assertThat(nonEmptyTreasures(store)).containsExactly(0, 2, 3, 4);
+
+        // WHEN
+        store.collect(0);
+        store.collect(2);
+        store.collect(3);
+
+        // THEN
+        assertThat(nonEmptyTreasures(store)).containsExactly(2, 4);
+        assertThat(store.toTreasures()).extracting(Treasure::quantity).containsExactly(0, 0, 1, 0, 3);
+    }
+
+    @Test
+    void list_again_the_treasures_restored_to_a_non_empty_quantity() {
+        // GIVEN
+        TreasureStore store = TreasureStore.of(of(new Treasure(0, 0, 1), new Treasure(1, 0, 1)));
+        int[] quantities = store.copyQuantities();
+        store.collect(0);
+        store.collect(1);
+        assertThat(nonEmptyTreasures(store)).isEmpty();
+
+        // WHEN
+        store.restoreQuantities(quantities);
+
+        // THEN
+        assertThat(nonEmptyTreasures(store)).containsExactly(0, 1);
+    }
+
+    @Test
+    void not_allow_restoring_negative_quantities() {
+        // GIVEN
+        TreasureStore store = TreasureStore.of(of(new Treasure(0, 0, 1)));
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> store.restoreQuantities(new int[]{-1}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage(Treasure.CREATE_WITH_NEGATIVE_QUANTITY_ERROR_MESSAGE);
+        assertThat(store.quantity(0)).isEqualTo(1);
+    }
+
+    private static List<Integer> nonEmptyTreasures(TreasureStore store) {
+        List<Integer> treasures = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = store.nonEmptyTreasures();
+        while (iterator.hasNext()) {
+            treasures.add(iterator.nextInt());
+        }
+        return treasures;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import org.example.domain.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CheckpointFileShould {
+
+    @TempDir
+    Path directory;
+
+    @SneakyThrows
+    @Test
+    void restore_the_latest_checkpoint_written() {
+        // GIVEN
+        Path checkpoint = directory.resolve("simulation.checkpoint");
+        Simulation simulation = longSimulation();
+        List<SimulationSnapshot> snapshots = new ArrayList<>();
+
+        // WHEN
+        try (CheckpointWriter writer = new CheckpointWriter(checkpoint, 42, 1, Duration.ofHours(1))) {
+            simulation.setListener(new SimulationListener() {
+                @Override
+                public void turnPlayed(Simulation simulation) {
+                    snapshots.add(simulation.snapshot());
+                    writer.turnPlayed(simulation);
+                }
+            });
+            simulation.run();
+        }
+
+        // THEN
+        assertThat(snapshots.size()).isGreaterThan(2 * CheckpointWriter.KEYFRAME_INTERVAL);
+        assertThat(CheckpointFile.readLatest(checkpoint, 42))
+                .get()
+                .usingRecursiveComparison()
+                .isEqualTo(snapshots.get(snapshots.size() - 1));
+    }
+
+    @SneakyThrows
+    @Test
+    void ignore_a_record_truncated_by_a_crash() {
+        // GIVEN
+        Path checkpoint = directory.resolve("simulation.checkpoint");
+        Simulation simulation = longSimulation();
+        SimulationSnapshot keyframe = simulation.snapshot();
+        simulation.run();
+        SimulationSnapshot delta = simulation.snapshot();
+        BinaryOutput file = new BinaryOutput(1 << 10);
+        BinaryOutput payload = new BinaryOutput(1 << 10);
+        CheckpointFile.writeHeader(file, 42, keyframe);
+        CheckpointFile.encodeKeyframe(keyframe, payload);
+        CheckpointFile.writeRecord(file, CheckpointFile.KEYFRAME, payload);
+        payload.reset();
+        CheckpointFile.encodeDelta(keyframe, delta, payload);
+        CheckpointFile.writeRecord(file, CheckpointFile.DELTA, payload);
+        Files.write(checkpoint, Arrays.copyOf(file.asByteBuffer().array(), file.size()));
+
+        // WHEN
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        // THEN
+        assertThat(CheckpointFile.readLatest(checkpoint))
+                .get()
+                .usingRecursiveComparison()
+                .isEqualTo(keyframe);
+    }
+
+    @SneakyThrows
+    @Test
+    void refuse_checkpoints_taken_from_another_input() {
+        // GIVEN
+        Path checkpoint = directory.resolve("simulation.checkpoint");
+        try (CheckpointWriter writer = new CheckpointWriter(checkpoint, 42, 1, Duration.ofHours(1))) {
+            writer.checkpoint(longSimulation());
+        }
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> CheckpointFile.readLatest(checkpoint, 43))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("%s was not checkpointed from the same input".formatted(checkpoint));
+    }
+
+    @SneakyThrows
+    @Test
+    void resume_from_nothing_if_there_is_no_checkpoint_yet() {
+        assertThat(CheckpointFile.readLatest(directory.resolve("missing.checkpoint"))).isEmpty();
+    }
+
+    /**
+     * Two players walking around, one of them collecting a treasure on every lap.
+     */
+    private static Simulation longSimulation() {
+        String laps = "AAADAAADAAADAAAD".repeat(10);
+        return Simulation.builder()
+                .withSize(4, 4)
+                .addTreasure(0, 3, 100)
+                .addPlayer(new Player("Lara", new Coordinates(0, 0), Orientation.EAST, commands(laps)))
+                .addPlayer(new Player("Indiana", new Coordinates(1, 1), Orientation.SOUTH, commands("ADAD".repeat(30))))
+                .build();
+    }
+
+    private static List<Command> commands(String commands) {
+        return commands.chars().mapToObj(command -> Command.valueOf(Character.toString(command))).toList();
+    }
+}
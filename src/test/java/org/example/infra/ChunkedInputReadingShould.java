@@ -0,0 +1,76 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import net.jqwik.api.*;
+import org.example.domain.SimulationBuilder;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ChunkedInputReadingShould {
+
+    @SneakyThrows
+    @Property
+    void read_the_same_world_or_error_as_a_sequential_read(@ForAll("lines") List<String> lines,
+                                                            @ForAll("terminators") String terminator,
+                                                            @ForAll("chunksCounts") int chunksCount) {
+        // GIVEN
+        Path file = Files.createTempFile("chunked-input", ".txt");
+        Files.writeString(file, String.join(terminator, lines), StandardCharsets.UTF_8);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // WHEN
+            SimulationBuilder[] builders = new SimulationBuilder[2];
+            Throwable sequentialError = catchThrowable(() -> builders[0] = InputReader.readChunks(channel, 1));
+            Throwable chunkedError = catchThrowable(() -> builders[1] = InputReader.readChunks(channel, chunksCount));
+
+            // THEN
+            if (sequentialError != null) {
+                assertThat(chunkedError)
+                        .isInstanceOf(sequentialError.getClass())
+                        .hasMessage(sequentialError.getMessage());
+                return;
+            }
+            assertThat(chunkedError).isNull();
+            assertThat(builders[1].getSize()).isEqualTo(builders[0].getSize());
+            assertThat(builders[1].getMountains()).isEqualTo(builders[0].getMountains());
+            assertThat(builders[1].getTreasures()).isEqualTo(builders[0].getTreasures());
+            assertThat(builders[1].getPlayers())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(builders[0].getPlayers());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Provide
+    Arbitrary<List<String>> lines() {
+        Arbitrary<Integer> coordinates = Arbitraries.integers().between(0, 9);
+        return Arbitraries.frequencyOf(
+                Tuple.of(1, coordinates.map(width -> "C - %d - 5".formatted(width))),
+                Tuple.of(10, coordinates.map(westEast -> "M - %d - 1".formatted(westEast))),
+                Tuple.of(5, coordinates.map(westEast -> "T - 2 - %d - 3".formatted(westEast))),
+                Tuple.of(5, Arbitraries.strings().withChars("AGD").ofMinLength(1).ofMaxLength(20)
+                        .map(commands -> "A - Lara - 1 - 1 - S - " + commands)),
+                Tuple.of(2, Arbitraries.of("# comment", "", "noise")),
+                Tuple.of(1, Arbitraries.of("M - x - 1", "A - Lara - 1 - 1 - Z - A"))
+        ).list().ofMaxSize(40);
+    }
+
+    @Provide
+    Arbitrary<String> terminators() {
+        return Arbitraries.of("\n", "\r\n", "\r");
+    }
+
+    @Provide
+    Arbitrary<Integer> chunksCounts() {
+        return Arbitraries.integers().between(2, 12);
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import org.example.TestDataFactory;
+import org.example.domain.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class EventJournalShould {
+
+    @TempDir
+    Path directory;
+
+    @SneakyThrows
+    @Test
+    void tell_when_a_player_collected_a_treasure() {
+        // GIVEN
+        Path journal = directory.resolve("simulation.journal");
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(TestDataFactory.lara()))
+                .build();
+
+        // WHEN
+        try (EventJournalWriter writer = new EventJournalWriter(journal, simulation)) {
+            simulation.setListener(writer);
+            simulation.run();
+        }
+
+        // THEN
+        List<EventJournal.Event> collects = new ArrayList<>();
+        EventJournal.forEachEvent(journal, event -> {
+            if (event.type() == EventJournal.Type.COLLECTED) {
+                collects.add(event);
+            }
+        });
+        assertThat(collects)
+                .extracting(EventJournal.Event::turn, EventJournal.Event::coordinates)
+                .containsExactly(
+                        tuple(2L, new Coordinates(1, 3)),
+                        tuple(4L, new Coordinates(0, 3)),
+                        tuple(9L, new Coordinates(0, 3)));
+    }
+
+    @SneakyThrows
+    @Test
+    void record_the_steps_alongside_a_listener_of_turns_only() {
+        // GIVEN
+        Path journal = directory.resolve("simulation.journal");
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(TestDataFactory.lara()))
+                .build();
+        List<Long> turns = new ArrayList<>();
+        SimulationListener turnsListener = new SimulationListener() {
+            @Override
+            public void turnPlayed(Simulation simulation) {
+                turns.add(simulation.getTurn());
+            }
+        };
+
+        // WHEN
+        try (EventJournalWriter writer = new EventJournalWriter(journal, simulation)) {
+            simulation.setListener(SimulationListener.of(turnsListener, writer));
+            simulation.run();
+        }
+
+        // THEN
+        List<EventJournal.Event> events = new ArrayList<>();
+        EventJournal.forEachEvent(journal, events::add);
+        assertThat(turns).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(events)
+                .filteredOn(event -> event.type() == EventJournal.Type.COLLECTED)
+                .extracting(EventJournal.Event::turn)
+                .containsExactly(2L, 4L, 9L);
+    }
+
+    @SneakyThrows
+    @Test
+    void replay_the_events_of_the_simulation_in_order() {
+        // GIVEN
+        Path journal = directory.resolve("simulation.journal");
+        Simulation simulation = busySimulation();
+        List<String> notified = new ArrayList<>();
+
+        // WHEN
+        try (EventJournalWriter writer = new EventJournalWriter(journal, simulation)) {
+            simulation.setListener(new Recorder(simulation, writer, notified));
+            simulation.run();
+        }
+
+        // THEN
+        List<String> replayed = new ArrayList<>();
+        List<EventJournal.Event> lastEvents = new ArrayList<>();
+        EventJournal.forEachEvent(journal, event -> {
+            replayed.add(event.player() + " " + event.type() + (event.blockReason() == null ? "" : " " + event.blockReason()));
+            lastEvents.removeIf(last -> last.player().equals(event.player()));
+            lastEvents.add(event);
+        });
+        assertThat(Files.size(journal)).isGreaterThan(2L * EventJournalWriter.BLOCK_SIZE);
+        assertThat(replayed).isEqualTo(notified);
+        assertThat(lastEvents)
+                .extracting(EventJournal.Event::player, EventJournal.Event::coordinates, EventJournal.Event::orientation)
+                .containsExactlyInAnyOrderElementsOf(simulation.getPlayers().stream()
+                        .map(player -> tuple(player.getName(),
+                                player.getCoordinates(),
+                                player.getOrientation()))
+                        .toList());
+    }
+
+    /**
+     * A player walking laps and collecting a treasure on each, and others blocked by the bounds, a mountain and another
+     * player, some of them done long before the others.
+     */
+    private static Simulation busySimulation() {
+        return Simulation.builder()
+                .withSize(6, 6)
+                .addMountain(5, 5)
+                .addTreasure(0, 3, 100)
+                .addPlayer(new Player("Lara", new Coordinates(0, 0), Orientation.EAST, commands("AAADAAADAAADAAAD".repeat(10_000))))
+                .addPlayer(new Player("Edge", new Coordinates(5, 0), Orientation.EAST, commands("AAGD".repeat(10))))
+                .addPlayer(new Player("Bumper", new Coordinates(5, 4), Orientation.SOUTH, commands("A".repeat(50_000))))
+                .addPlayer(new Player("Follower", new Coordinates(4, 4), Orientation.EAST, commands("A".repeat(1_000))))
+                .build();
+    }
+
+    private static List<Command> commands(String commands) {
+        return commands.chars().mapToObj(command -> Command.valueOf(Character.toString(command))).toList();
+    }
+
+    /**
+     * Records the notifications in the format the test compares to, before forwarding them to the journal.
+     */
+    private record Recorder(Simulation simulation, SimulationListener journal, List<String> notified)
+            implements SimulationListener {
+        @Override
+        public void turnPlayed(Simulation simulation) {
+            journal.turnPlayed(simulation);
+        }
+
+        @Override
+        public void playerMoved(int player) {
+            record(player, "MOVED");
+            journal.playerMoved(player);
+        }
+
+        @Override
+        public void playerBlocked(int player, BlockReason reason) {
+            record(player, "BLOCKED " + reason);
+            journal.playerBlocked(player, reason);
+        }
+
+        @Override
+        public void playerTurnedLeft(int player) {
+            record(player, "TURNED_LEFT");
+            journal.playerTurnedLeft(player);
+        }
+
+        @Override
+        public void playerTurnedRight(int player) {
+            record(player, "TURNED_RIGHT");
+            journal.playerTurnedRight(player);
+        }
+
+        @Override
+        public void treasureCollected(int player, int treasure) {
+            record(player, "COLLECTED");
+            journal.treasureCollected(player, treasure);
+        }
+
+        @Override
+        public void playerDone(int player) {
+            record(player, "DONE");
+            journal.playerDone(player);
+        }
+
+        private void record(int player, String event) {
+            notified.add(simulation.getPlayers().get(player).getName() + " " + event);
+        }
+    }
+}
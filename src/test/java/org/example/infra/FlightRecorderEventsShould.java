@@ -0,0 +1,63 @@
+package org.example.infra;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.SneakyThrows;
+import org.example.TestDataFactory;
+import org.example.domain.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FlightRecorderEventsShould {
+
+    @SneakyThrows
+    @Test
+    void record_phases_and_sampled_turns(@TempDir Path directory) {
+        // GIVEN
+        Player indiana = new Player("Indiana", new Coordinates(0, 1), Orientation.EAST, of(Command.A));
+        Player bob = new Player("Bob", new Coordinates(2, 0), Orientation.EAST,
+                of(Command.A, Command.G, Command.A, Command.G, Command.A));
+        RunMetrics metrics = new RunMetrics();
+        Path file = directory.resolve("run.jfr");
+        assertThat(TurnEventSampler.isEnabled()).isFalse();
+
+        // WHEN
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.SimulationPhase");
+            recording.enable("org.example.Turn");
+            recording.start();
+            assertThat(TurnEventSampler.isEnabled()).isTrue();
+            Simulation simulation = metrics.time(RunMetrics.Phase.VALIDATE, () -> Simulation.builder()
+                    .withSize(TestDataFactory.defaultSimulationSize())
+                    .withMountains(TestDataFactory.defaultMountains())
+                    .withTreasures(TestDataFactory.defaultTreasures())
+                    .withPlayers(of(indiana, TestDataFactory.lara(), bob))
+                    .build());
+            simulation.setListener(new TurnEventSampler(3));
+            metrics.time(RunMetrics.Phase.RUN, simulation::run);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // THEN
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("org.example.SimulationPhase"))
+                .extracting(event -> event.getString("phase"))
+                .containsExactly("VALIDATE", "RUN");
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("org.example.Turn"))
+                .extracting(event -> event.getLong("turn"),
+                        event -> event.getInt("activePlayers"),
+                        event -> event.getInt("blockedMoves"))
+                .containsExactly(tuple(3L, 2, 1), tuple(6L, 1, 0), tuple(9L, 0, 0));
+    }
+}
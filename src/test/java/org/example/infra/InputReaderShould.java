@@ -1,12 +1,17 @@
 package org.example.infra;
 
+import lombok.SneakyThrows;
 import org.assertj.core.api.ThrowableAssert;
 import org.example.TestDataFactory;
 import org.example.domain.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static java.util.List.of;
@@ -14,6 +19,7 @@ import static org.assertj.core.api.Assertions.*;
 import static org.example.TestDataFactory.lara;
 import static org.example.domain.Command.*;
 import static org.example.domain.Orientation.NORTH;
+import static org.example.domain.Orientation.SOUTH;
 
 class InputReaderShould {
 
@@ -107,6 +113,100 @@ class InputReaderShould {
                 .isEqualTo(expected);
     }
 
+    @Test
+    void read_names_as_utf8_and_tolerate_spaces_around_fields() {
+        // GIVEN
+        SimulationBuilder builder = Simulation.builder();
+
+        // WHEN
+        InputReader.readLine("A -  Zoé\t- +1 -1 -S\t-  AADADAGGA  ", builder);
+
+        // THEN
+        assertThat(builder.getPlayers())
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(of(lara().withName("Zoé")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "M - 1 - x",
+            "M - 1 - ",
+            "T - 1 - 2 - 2147483648",
+    })
+    void reject_invalid_numbers_like_integer_parsing(String line) {
+        // GIVEN
+        SimulationBuilder builder = Simulation.builder();
+
+        // WHEN
+        ThrowableAssert.ThrowingCallable throwingCallable = () -> InputReader.readLine(line, builder);
+
+        // THEN
+        String field = line.substring(line.lastIndexOf('-') + 1).trim();
+        assertThatThrownBy(throwingCallable)
+                .isInstanceOf(NumberFormatException.class)
+                .hasMessage("For input string: \"%s\"".formatted(field));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "A - Lara - 1 - 1 - X - AAD",
+            "A - Lara - 1 - 1 - S - AXD",
+            "A - Lara - 1 - 1 - S",
+    })
+    void reject_invalid_players(String line) {
+        // GIVEN
+        SimulationBuilder builder = Simulation.builder();
+
+        // WHEN
+        ThrowableAssert.ThrowingCallable throwingCallable = () -> InputReader.readLine(line, builder);
+
+        // THEN
+        assertThatThrownBy(throwingCallable).isInstanceOf(IllegalArgumentException.class);
+        assertThat(builder.getPlayers()).isEmpty();
+    }
+
+    @SneakyThrows
+    @Test
+    void read_file_with_windows_line_endings(@TempDir Path directory) {
+        // GIVEN
+        Path file = directory.resolve("input.txt");
+        String content = Files.readString(Path.of("src/test/resources/input.txt"), StandardCharsets.UTF_8);
+        Files.writeString(file, content.replaceAll("\r?\n", "\r\n"), StandardCharsets.UTF_8);
+
+        // WHEN
+        SimulationBuilder builder = InputReader.readFile(file.toString());
+
+        // THEN
+        assertThat(builder.getSize()).isEqualTo(TestDataFactory.defaultSimulationSize());
+        assertThat(builder.getMountains()).isEqualTo(TestDataFactory.defaultMountains());
+        assertThat(builder.getTreasures()).isEqualTo(TestDataFactory.defaultTreasures());
+        assertThat(builder.getPlayers()).isEqualTo(of(lara()));
+    }
+
+    @SneakyThrows
+    @Test
+    void read_long_command_scripts_on_demand_from_the_file(@TempDir Path directory) {
+        // GIVEN
+        String commands = "AADADAGGA".repeat(InputLineParser.TEXT_SCRIPT_MIN_LENGTH);
+        Path file = directory.resolve("input.txt");
+        Files.writeString(file, "C - 3 - 4\nA - Lara - 1 - 1 - S - %s\n".formatted(commands), StandardCharsets.UTF_8);
+
+        // WHEN
+        Simulation simulation = InputReader.readFile(file.toString()).build();
+        simulation.run();
+
+        // THEN
+        Simulation expected = Simulation.builder()
+                .withSize(3, 4)
+                .addPlayer(new Player("Lara", new Coordinates(1, 1), SOUTH, CommandScript.of(
+                        commands.chars().mapToObj(command -> Command.valueOf(Character.toString(command))).toList())))
+                .build();
+        expected.run();
+        assertThat(simulation.getPlayers())
+                .usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(expected.getPlayers());
+    }
+
     private Player jones() {
         return new Player("Jones",
                 new Coordinates(2, 2),
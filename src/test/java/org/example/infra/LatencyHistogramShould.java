@@ -0,0 +1,33 @@
+package org.example.infra;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramShould {
+
+    @Property
+    void report_quantiles_within_the_precision_of_a_bucket(@ForAll @Size(min = 1, max = 200) List<@LongRange(max = 1L << 40) Long> values) {
+        // GIVEN
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // WHEN
+        values.forEach(histogram::record);
+
+        // THEN
+        List<Long> sorted = values.stream().sorted().toList();
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 1}) {
+            long exact = sorted.get((int) Math.ceil(quantile * sorted.size()) - 1);
+            assertThat(histogram.valueAt(quantile))
+                    .isGreaterThanOrEqualTo(exact)
+                    .isLessThanOrEqualTo(exact + exact / LatencyHistogram.SUB_BUCKETS);
+        }
+        assertThat(histogram.count()).isEqualTo(values.size());
+        assertThat(histogram.max()).isEqualTo(sorted.get(sorted.size() - 1));
+    }
+}
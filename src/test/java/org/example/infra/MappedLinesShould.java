@@ -0,0 +1,59 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import net.jqwik.api.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedLinesShould {
+
+    @SneakyThrows
+    @Property
+    void split_lines_like_a_buffered_reader_whatever_the_window_size(@ForAll("texts") String text,
+                                                                     @ForAll("windowSizes") int windowSize) {
+        // GIVEN
+        Path file = Files.createTempFile("mapped-lines", ".txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        List<String> expected = new BufferedReader(new StringReader(text)).lines()
+                .filter(line -> !line.isEmpty())
+                .toList();
+
+        // WHEN
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedLines.forEachLine(channel, 0, channel.size(), windowSize, (buffer, start, end) -> {
+                byte[] bytes = new byte[end - start];
+                buffer.get(start, bytes);
+                lines.add(new String(bytes, StandardCharsets.UTF_8));
+            });
+        } finally {
+            Files.delete(file);
+        }
+
+        // THEN
+        // a \r\n split across two windows yields an additional empty line
+        assertThat(lines).filteredOn(line -> !line.isEmpty()).isEqualTo(expected);
+    }
+
+    @Provide
+    Arbitrary<String> texts() {
+        return Arbitraries.strings()
+                .withChars("AM- 1\n\r")
+                .ofMaxLength(80);
+    }
+
+    @Provide
+    Arbitrary<Integer> windowSizes() {
+        return Arbitraries.integers().between(1, 16);
+    }
+}
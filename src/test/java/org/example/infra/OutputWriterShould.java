@@ -0,0 +1,57 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import org.example.domain.Simulation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputWriterShould {
+
+    @TempDir
+    Path directory;
+
+    @SneakyThrows
+    @Test
+    void replace_the_output_file_with_a_complete_one() {
+        // GIVEN
+        Path output = Files.writeString(directory.resolve("output.txt"), "previous results", StandardCharsets.UTF_8);
+        Simulation simulation = InputReader.readFile("src/test/resources/input.txt").build();
+
+        // WHEN
+        OutputWriter.writeToFile(simulation, output.toString(), new OutputWriter.Options(OutputWriter.Echo.NONE, false));
+
+        // THEN
+        assertThat(Files.readString(output, StandardCharsets.UTF_8))
+                .isEqualTo(new SimulationFormatter().formatSimulation(simulation));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(output);
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void compress_the_output_file() {
+        // GIVEN
+        Path output = directory.resolve("output.txt.gz");
+        Simulation simulation = InputReader.readFile("src/test/resources/input.txt").build();
+        simulation.run();
+
+        // WHEN
+        OutputWriter.writeToFile(simulation, output.toString(), new OutputWriter.Options(OutputWriter.Echo.SUMMARY, true));
+
+        // THEN
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(output))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(new SimulationFormatter().formatSimulation(simulation));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.infra;
+
+import org.example.TestDataFactory;
+import org.example.domain.*;
+import org.junit.jupiter.api.Test;
+
+import static java.util.List.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunMetricsShould {
+
+    @Test
+    void count_moves_blocked_for_each_reason_and_collected_treasures() {
+        // GIVEN
+        Player indiana = new Player("Indiana", new Coordinates(0, 1), Orientation.EAST, of(Command.A));
+        Player bob = new Player("Bob", new Coordinates(2, 0), Orientation.EAST,
+                of(Command.A, Command.G, Command.A, Command.G, Command.A));
+        Simulation simulation = Simulation.builder()
+                .withSize(TestDataFactory.defaultSimulationSize())
+                .withMountains(TestDataFactory.defaultMountains())
+                .withTreasures(TestDataFactory.defaultTreasures())
+                .withPlayers(of(indiana, TestDataFactory.lara(), bob))
+                .build();
+        RunMetrics metrics = new RunMetrics();
+
+        // WHEN
+        simulation.setListener(metrics);
+        metrics.time(RunMetrics.Phase.RUN, simulation::run);
+
+        // THEN
+        assertThat(metrics.getTurns()).isEqualTo(9);
+        assertThat(metrics.getMovesAttempted()).isEqualTo(9);
+        assertThat(metrics.getBlockedMoves(BlockReason.BOUND)).isEqualTo(2);
+        assertThat(metrics.getBlockedMoves(BlockReason.MOUNTAIN)).isEqualTo(1);
+        assertThat(metrics.getBlockedMoves(BlockReason.PLAYER)).isEqualTo(1);
+        assertThat(metrics.getTreasuresCollected()).isEqualTo(3);
+        assertThat(metrics.toJson())
+                .contains("\"turns\": 9,")
+                .contains("\"mountain\": 1,")
+                .contains("\"count\": 9,");
+    }
+}
@@ -2,8 +2,12 @@ package org.example.infra;
 
 import lombok.SneakyThrows;
 import org.example.domain.*;
+import net.jqwik.api.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static java.util.List.of;
@@ -125,4 +129,56 @@ class SimulationFormatterShould {
         // THEN
         assertThat(formattedPlayer).isEqualTo("A - Lara - 0 - 3 - S - 3");
     }
+
+    @Property
+    void stream_the_same_bytes_as_the_formatted_simulation(@ForAll("simulations") Simulation simulation) {
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        formatter.writeSimulation(simulation, Channels.newChannel(output));
+
+        // THEN
+        assertThat(output.toByteArray())
+                .isEqualTo(formatter.formatSimulation(simulation).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Example
+    void stream_outputs_larger_than_its_buffer() {
+        // GIVEN
+        SimulationBuilder builder = Simulation.builder().withSize(1000, 20);
+        for (int i = 0; i < 20_000; i++) {
+            builder.addMountain(i % 1000, i / 1000);
+        }
+        Simulation simulation = builder.build();
+
+        // WHEN
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        formatter.writeSimulation(simulation, Channels.newChannel(output));
+
+        // THEN
+        assertThat(output.size()).isGreaterThan(ChannelLineWriter.DEFAULT_CAPACITY);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(formatter.formatSimulation(simulation));
+    }
+
+    @Provide
+    Arbitrary<Simulation> simulations() {
+        Arbitrary<Integer> mountainsCounts = Arbitraries.integers().between(0, 5);
+        Arbitrary<List<Integer>> treasuresQuantities = Arbitraries.integers().between(0, 3).list().ofMaxSize(5);
+        Arbitrary<List<String>> playersNames = Arbitraries.strings().alpha().withChars("éà€ -").ofMinLength(1).ofMaxLength(8)
+                .list().ofMaxSize(5).uniqueElements();
+        return Combinators.combine(mountainsCounts, treasuresQuantities, playersNames)
+                .as((mountainsCount, quantities, names) -> {
+                    // every feature on its own row of a single column
+                    SimulationBuilder builder = Simulation.builder().withSize(1, 15);
+                    for (int i = 0; i < mountainsCount; i++) {
+                        builder.addMountain(0, i);
+                    }
+                    for (int i = 0; i < quantities.size(); i++) {
+                        builder.addTreasure(0, 5 + i, quantities.get(i));
+                    }
+                    for (int i = 0; i < names.size(); i++) {
+                        builder.addPlayer(new Player(names.get(i), new Coordinates(0, 10 + i), Orientation.values()[i % 4]));
+                    }
+                    return builder.build();
+                });
+    }
 }
@@ -0,0 +1,147 @@
+package org.example.infra;
+
+import org.example.domain.MountainCursor;
+import org.example.domain.Simulation;
+import org.example.domain.SimulationBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TiledTerrainShould {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void hold_exactly_the_mountains_written() throws IOException {
+        // GIVEN
+        int width = 300;
+        int height = 200;
+        boolean[][] mountains = new boolean[height][width];
+        List<int[]> expected = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(42);
+        Path path = directory.resolve("terrain.bin");
+        try (TiledTerrain.Writer writer = TiledTerrain.writer(path, width, height, 6)) {
+            for (int northSouth = 0; northSouth < height; northSouth++) {
+                for (int westEast = 0; westEast < width; westEast++) {
+                    // leaves whole tiles empty in the middle band
+                    if ((northSouth < 64 || northSouth >= 128) && random.nextInt(10) == 0) {
+                        mountains[northSouth][westEast] = true;
+                        expected.add(new int[]{westEast, northSouth});
+                        writer.addMountain(westEast, northSouth);
+                    }
+                }
+            }
+        }
+
+        // WHEN
+        TiledTerrain terrain = TiledTerrain.open(path);
+
+        // THEN
+        assertThat(terrain.getMountainsCount()).isEqualTo(expected.size());
+        for (int northSouth = -1; northSouth <= height; northSouth++) {
+            for (int westEast = -1; westEast <= width; westEast++) {
+                boolean mountain = northSouth >= 0 && northSouth < height && westEast >= 0 && westEast < width
+                                   && mountains[northSouth][westEast];
+                assertThat(terrain.hasMountainAt(westEast, northSouth)).isEqualTo(mountain);
+            }
+        }
+        List<int[]> iterated = new ArrayList<>();
+        MountainCursor cursor = terrain.mountains();
+        while (cursor.next()) {
+            iterated.add(new int[]{cursor.westEast(), cursor.northSouth()});
+        }
+        assertThat(iterated).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void answer_lookups_from_several_threads_at_once() throws IOException {
+        // GIVEN
+        int width = 512;
+        int height = 512;
+        Path path = directory.resolve("terrain.bin");
+        try (TiledTerrain.Writer writer = TiledTerrain.writer(path, width, height, 6)) {
+            for (int northSouth = 0; northSouth < height; northSouth++) {
+                for (int westEast = 0; westEast < width; westEast++) {
+                    if ((westEast + northSouth) % 7 == 0) {
+                        writer.addMountain(westEast, northSouth);
+                    }
+                }
+            }
+        }
+        TiledTerrain terrain = TiledTerrain.open(path);
+
+        // WHEN
+        long mismatches = IntStream.range(0, width * height)
+                .parallel()
+                .filter(cell -> {
+                    int westEast = cell % width;
+                    int northSouth = cell / width;
+                    return terrain.hasMountainAt(westEast, northSouth) != ((westEast + northSouth) % 7 == 0);
+                })
+                .count();
+
+        // THEN
+        assertThat(mismatches).isZero();
+    }
+
+    @Test
+    void give_the_same_results_as_mountains_held_in_the_heap() {
+        // GIVEN
+        WorldGenerator generator = new WorldGenerator(new WorldGenerator.Parameters(700, 300, 0.3, 0.1, 200, 50, 200,
+                WorldGenerator.Layout.OPEN_FIELD, 7));
+        Simulation inHeap = generator.generate().build();
+        Simulation tiled = generator.generate(directory.resolve("terrain.bin")).build();
+
+        // WHEN
+        inHeap.run();
+        tiled.run();
+
+        // THEN
+        SimulationFormatter formatter = new SimulationFormatter();
+        assertThat(formatter.formatSimulation(tiled)).isEqualTo(formatter.formatSimulation(inHeap));
+    }
+
+    @Test
+    void reject_treasures_on_a_mountain_of_the_terrain() throws IOException {
+        // GIVEN
+        Path path = directory.resolve("terrain.bin");
+        try (TiledTerrain.Writer writer = TiledTerrain.writer(path, 10, 10, 6)) {
+            writer.addMountain(3, 4);
+        }
+        SimulationBuilder builder = Simulation.builder()
+                .withSize(10, 10)
+                .withTerrain(TiledTerrain.open(path))
+                .addTreasure(3, 4, 1);
+
+        // WHEN / THEN
+        assertThatThrownBy(builder::build)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Cannot build simulation because of overlapping features");
+    }
+
+    @Test
+    void only_accept_mountains_in_row_major_order() throws IOException {
+        // GIVEN
+        try (TiledTerrain.Writer writer = TiledTerrain.writer(directory.resolve("terrain.bin"), 10, 10, 6)) {
+            writer.addMountain(5, 1);
+
+            // WHEN / THEN
+            assertThatThrownBy(() -> writer.addMountain(6, 0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Mountain (6, 0) is not after the previous one in row-major order");
+            assertThatThrownBy(() -> writer.addMountain(10, 1))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Mountain (10, 1) is out of the 10 x 10 terrain");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.infra;
+
+import lombok.SneakyThrows;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.DoubleRange;
+import net.jqwik.api.constraints.IntRange;
+import org.example.domain.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class WorldGeneratorShould {
+
+    @TempDir
+    Path directory;
+
+    @SneakyThrows
+    @Property
+    void generate_valid_worlds_the_same_way_as_files_or_builders(@ForAll @IntRange(min = 1, max = 30) int width,
+                                                                  @ForAll @IntRange(min = 1, max = 30) int height,
+                                                                  @ForAll @DoubleRange(max = 0.5) double mountainDensity,
+                                                                  @ForAll @DoubleRange(max = 0.5) double treasureDensity,
+                                                                  @ForAll @IntRange(max = 100) int playersCount,
+                                                                  @ForAll @IntRange(min = 1, max = 20) int scriptLength,
+                                                                  @ForAll WorldGenerator.Layout layout,
+                                                                  @ForAll long seed) {
+        // GIVEN
+        WorldGenerator generator = new WorldGenerator(new WorldGenerator.Parameters(width, height,
+                mountainDensity, treasureDensity, playersCount, scriptLength, 2 * scriptLength, layout, seed));
+        Path input = Files.createTempFile("world", ".txt");
+
+        try {
+            // WHEN
+            Throwable error = catchThrowable(() -> generator.writeInput(input));
+
+            // THEN
+            if (error != null) {
+                assertThat(error).isInstanceOf(IllegalArgumentException.class).hasMessageStartingWith("Cannot place");
+                assertThatThrownBy(generator::generate).hasMessage(error.getMessage());
+                return;
+            }
+            Simulation fromFile = InputReader.readFile(input.toString()).build();
+            Simulation fromBuilder = generator.generate().build();
+            assertThat(fromFile.getPlayers()).hasSize(playersCount);
+            SimulationFormatter formatter = new SimulationFormatter();
+            assertThat(formatter.formatSimulation(fromFile)).isEqualTo(formatter.formatSimulation(fromBuilder));
+        } finally {
+            Files.delete(input);
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void generate_the_same_world_from_the_same_seed() {
+        // GIVEN
+        WorldGenerator.Parameters parameters = new WorldGenerator.Parameters(200, 100, 0.2, 0.1, 500, 10, 100,
+                WorldGenerator.Layout.OPEN_FIELD, 42);
+        Path first = directory.resolve("first.txt");
+        Path second = directory.resolve("second.txt");
+
+        // WHEN
+        new WorldGenerator(parameters).writeInput(first);
+        new WorldGenerator(parameters).writeInput(second);
+
+        // THEN
+        assertThat(Files.mismatch(first, second)).isEqualTo(-1);
+    }
+
+    @Test
+    void crowd_players_in_corridors_free_of_mountains() {
+        // GIVEN
+        WorldGenerator generator = new WorldGenerator(new WorldGenerator.Parameters(50, 40, 0.6, 0.1, 300, 10, 10,
+                WorldGenerator.Layout.CORRIDORS, 7));
+
+        // WHEN
+        SimulationBuilder builder = generator.generate();
+
+        // THEN
+        assertThat(builder.getPlayers()).hasSize(300)
+                .allSatisfy(player -> assertThat(player.getCoordinates().northSouth() % WorldGenerator.CORRIDOR_SPACING)
+                        .isZero());
+        assertThat(builder.getMountains()).isNotEmpty()
+                .allSatisfy(mountain -> assertThat(mountain.getCoordinates().northSouth() % WorldGenerator.CORRIDOR_SPACING)
+                        .isNotZero());
+    }
+}